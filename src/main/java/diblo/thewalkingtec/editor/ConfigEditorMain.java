@@ -1,37 +1,45 @@
 package diblo.thewalkingtec.editor;
 
 // --- Imports de tu proyecto ---
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import diblo.thewalkingtec.model.config.*;
 import diblo.thewalkingtec.model.enums.AIType;
 import diblo.thewalkingtec.model.enums.ComponentType;
+import diblo.thewalkingtec.service.ConfigCodec;
+import diblo.thewalkingtec.service.DifficultyPreview;
+import diblo.thewalkingtec.util.Logger;
 
 // --- Imports de JavaFX (Completos) ---
 import javafx.application.Application;
+import javafx.beans.binding.Bindings;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
 import javafx.geometry.HPos;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 // --- Imports de Java IO/NIO y Util ---
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 /**
@@ -46,7 +54,6 @@ public class ConfigEditorMain extends Application {
     private Stage primaryStage; // La ventana principal de la aplicación
     private GameConfig gameConfig; // El objeto Java que mapea el config.json
     private File currentConfigFile; // El archivo .json que está abierto actualmente
-    private final Gson GSON = new GsonBuilder().setPrettyPrinting().create(); // Objeto para (de)serializar JSON
 
     // Listas observables para vincular con la UI de JavaFX
     private ObservableList<DefenseConfig> defenseList = FXCollections.observableArrayList();
@@ -58,8 +65,34 @@ public class ConfigEditorMain extends Application {
     private EnemyEditorForm enemyForm;
     private LevelEditorForm levelForm;
 
-    // Caché simple para no recargar imágenes del disco repetidamente
-    private final Map<String, Image> imageCache = new HashMap<>();
+    // Vistas filtradas por el buscador de cada pestaña (sobre las listas de arriba)
+    private FilteredList<DefenseConfig> filteredDefenses;
+    private FilteredList<EnemyConfig> filteredEnemies;
+    private FilteredList<LevelConfig> filteredLevels;
+
+    // Miniaturas: se decodifican en un pool de hilos y se guardan en un caché acotado
+    private final ThumbnailLoader thumbnails = new ThumbnailLoader();
+    private static final int THUMBNAIL_SIZE = 40;
+    private static final int PREVIEW_SIZE = 100;
+
+    // Carga/guardado del archivo en segundo plano (un hilo: nunca dos a la vez)
+    private final ExecutorService fileExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "editor-file-io");
+        t.setDaemon(true);
+        return t;
+    });
+    // Vista previa de dificultad: partidas sin interfaz en paralelo (un hilo por núcleo)
+    private final ExecutorService simulationPool = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), r -> {
+                Thread t = new Thread(r, "editor-simulation");
+                t.setDaemon(true);
+                return t;
+            });
+    private static final long SIMULATION_SEED = 1; // Fija: al re-simular tras un cambio se comparan las mismas partidas
+    private MenuBar menuBar;
+    private TabPane tabPane;
+    private ProgressBar progressBar; // Progreso de la carga/guardado en curso
+    private Label statusLabel;
 
     /**
      * Punto de entrada principal de la aplicación JavaFX.
@@ -136,45 +169,55 @@ public class ConfigEditorMain extends Application {
         root.setPadding(new Insets(10));
 
         // 1. Crear la barra de menú superior (Archivo -> Guardar, Cargar...)
-        MenuBar menuBar = createMenuBar();
+        menuBar = createMenuBar();
         root.setTop(menuBar);
 
         // 2. Crear el panel de pestañas
-        TabPane tabPane = new TabPane();
+        tabPane = new TabPane();
         defenseForm = new DefenseEditorForm();
         enemyForm = new EnemyEditorForm();
         levelForm = new LevelEditorForm();
 
         // --- Pestaña de Defensas ---
-        ListView<DefenseConfig> defenseListView = new ListView<>(defenseList);
+        filteredDefenses = new FilteredList<>(defenseList);
+        SearchIndex<DefenseConfig> defenseIndex = new SearchIndex<>(defenseList, c -> c.getId() + " " + c.getName());
+        ListView<DefenseConfig> defenseListView = new ListView<>(filteredDefenses);
         defenseListView.setCellFactory(lv -> new DefenseListCell()); // Asigna la celda visual personalizada
         defenseListView.getSelectionModel().selectedItemProperty().addListener(
                 (obs, oldV, newV) -> showDefenseDetails(newV)); // Llama a showDefenseDetails al seleccionar
-        Node defenseTabContent = createEditorPane(defenseListView, defenseForm.getFormPane(), this::createNewDefense);
+        Node defenseTabContent = createEditorPane(defenseListView, filteredDefenses, defenseIndex,
+                defenseForm.getFormPane(), this::createNewDefense);
         Tab defenseTab = new Tab("Defensas", defenseTabContent);
         defenseTab.setClosable(false);
 
         // --- Pestaña de Enemigos ---
-        ListView<EnemyConfig> enemyListView = new ListView<>(enemyList);
+        filteredEnemies = new FilteredList<>(enemyList);
+        SearchIndex<EnemyConfig> enemyIndex = new SearchIndex<>(enemyList, c -> c.getId() + " " + c.getName());
+        ListView<EnemyConfig> enemyListView = new ListView<>(filteredEnemies);
         enemyListView.setCellFactory(lv -> new EnemyListCell());
         enemyListView.getSelectionModel().selectedItemProperty().addListener(
                 (obs, oldV, newV) -> showEnemyDetails(newV));
-        Node enemyTabContent = createEditorPane(enemyListView, enemyForm.getFormPane(), this::createNewEnemy);
+        Node enemyTabContent = createEditorPane(enemyListView, filteredEnemies, enemyIndex,
+                enemyForm.getFormPane(), this::createNewEnemy);
         Tab enemyTab = new Tab("Enemigos", enemyTabContent);
         enemyTab.setClosable(false);
 
-        // --- Pestaña de Niveles ---
-        ListView<LevelConfig> levelListView = new ListView<>(levelList);
+        // --- Pestaña de Niveles (se busca por número) ---
+        filteredLevels = new FilteredList<>(levelList);
+        SearchIndex<LevelConfig> levelIndex = new SearchIndex<>(levelList, c -> "nivel " + c.getLevelNumber());
+        ListView<LevelConfig> levelListView = new ListView<>(filteredLevels);
         levelListView.setCellFactory(lv -> new LevelListCell());
         levelListView.getSelectionModel().selectedItemProperty().addListener(
                 (obs, oldV, newV) -> showLevelDetails(newV));
-        Node levelTabContent = createEditorPane(levelListView, levelForm.getFormPane(), this::createNewLevel);
+        Node levelTabContent = createEditorPane(levelListView, filteredLevels, levelIndex,
+                levelForm.getFormPane(), this::createNewLevel);
         Tab levelTab = new Tab("Niveles", levelTabContent);
         levelTab.setClosable(false);
 
         // Añadir todas las pestañas al panel
         tabPane.getTabs().addAll(defenseTab, enemyTab, levelTab);
         root.setCenter(tabPane);
+        root.setBottom(createStatusBar());
 
         Scene scene = new Scene(root, 1000, 700); // Tamaño más grande para el editor
         primaryStage.setScene(scene);
@@ -240,22 +283,36 @@ public class ConfigEditorMain extends Application {
      * @param file El archivo .json a cargar.
      */
     private void loadConfigFromFile(File file) {
-        try (FileReader reader = new FileReader(file)) {
-            // Usa Gson para convertir el texto JSON en el objeto GameConfig
-            gameConfig = GSON.fromJson(reader, GameConfig.class);
+        // La lectura corre en segundo plano; el progreso es la fracción de bytes leídos
+        Task<GameConfig> task = new Task<>() {
+            @Override
+            protected GameConfig call() throws Exception {
+                long total = Math.max(1, Files.size(file.toPath()));
+                try (InputStream in = new ProgressInputStream(Files.newInputStream(file.toPath()),
+                        read -> updateProgress(read, total));
+                     Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                    // Convierte el texto JSON en el objeto GameConfig (códec en streaming del juego)
+                    return ConfigCodec.read(reader);
+                }
+            }
+        };
+        task.setOnSucceeded(e -> {
+            gameConfig = task.getValue();
             if (gameConfig == null) gameConfig = new GameConfig(); // Evitar NullPointerException si el archivo está vacío
 
-            // Puebla las listas de la UI con los datos cargados
+            // Puebla las listas de la UI con los datos cargados (un solo cambio por lista)
             defenseList.setAll(gameConfig.getDefenses() != null ? gameConfig.getDefenses() : new java.util.ArrayList<>());
             enemyList.setAll(gameConfig.getEnemies() != null ? gameConfig.getEnemies() : new java.util.ArrayList<>());
             levelList.setAll(gameConfig.getLevels() != null ? gameConfig.getLevels() : new java.util.ArrayList<>());
 
             currentConfigFile = file; // Guarda la referencia al archivo actual
             primaryStage.setTitle("Editor - " + file.getName());
-            showAlert(Alert.AlertType.INFORMATION, "Éxito", "Configuración cargada desde " + file.getName());
-        } catch (Exception e) {
-            showAlert(Alert.AlertType.ERROR, "Error", "No se pudo leer el archivo de configuración: " + e.getMessage());
-        }
+            showAlert(Alert.AlertType.INFORMATION, "Éxito", "Configuración cargada desde " + file.getName()
+                    + String.format(" (%d defensas, %d enemigos, %d niveles)", defenseList.size(), enemyList.size(), levelList.size()));
+        });
+        task.setOnFailed(e -> showAlert(Alert.AlertType.ERROR, "Error",
+                "No se pudo leer el archivo de configuración: " + task.getException().getMessage()));
+        runFileTask(task, "Cargando " + file.getName() + "...");
     }
 
     /**
@@ -290,32 +347,90 @@ public class ConfigEditorMain extends Application {
      * @param file El archivo destino donde se guardará el JSON.
      */
     private void saveConfigToFile(File file) {
-        try (FileWriter writer = new FileWriter(file)) {
-            // Sincroniza las listas de la UI con el objeto GameConfig
-            gameConfig.setDefenses(new java.util.ArrayList<>(defenseList));
-            gameConfig.setEnemies(new java.util.ArrayList<>(enemyList));
-            gameConfig.setLevels(new java.util.ArrayList<>(levelList));
-
-            // Usa Gson para convertir el objeto GameConfig a texto JSON
-            GSON.toJson(gameConfig, writer);
-
+        // Sincroniza las listas de la UI con el objeto GameConfig (copias: la escritura corre en otro hilo)
+        gameConfig.setDefenses(new java.util.ArrayList<>(defenseList));
+        gameConfig.setEnemies(new java.util.ArrayList<>(enemyList));
+        gameConfig.setLevels(new java.util.ArrayList<>(levelList));
+        GameConfig snapshot = gameConfig;
+
+        Task<Void> task = new Task<>() {
+            @Override
+            protected Void call() throws Exception {
+                updateProgress(-1, 1); // Indeterminado: no se sabe el tamaño final del JSON
+                // Convierte el objeto GameConfig a texto JSON (con sangría, se edita a mano)
+                ConfigCodec.write(snapshot, file.toPath());
+                return null;
+            }
+        };
+        task.setOnSucceeded(e -> {
             currentConfigFile = file; // Actualiza la referencia
             primaryStage.setTitle("Editor - " + file.getName());
             showAlert(Alert.AlertType.INFORMATION, "Éxito", "Configuración guardada en " + file.getName());
-        } catch (IOException e) {
-            showAlert(Alert.AlertType.ERROR, "Error", "No se pudo guardar el archivo: " + e.getMessage());
-        }
+        });
+        task.setOnFailed(e -> showAlert(Alert.AlertType.ERROR, "Error",
+                "No se pudo guardar el archivo: " + task.getException().getMessage()));
+        // Los formularios quedan deshabilitados mientras se escribe, así nadie edita la copia a medias
+        runFileTask(task, "Guardando " + file.getName() + "...");
+    }
+
+    /**
+     * Ejecuta una carga/guardado en el hilo de archivos, mostrando su progreso en la barra
+     * de estado y deshabilitando el menú y las pestañas hasta que termine.
+     */
+    private void runFileTask(Task<?> task, String message) {
+        setBusy(true);
+        statusLabel.setText(message);
+        progressBar.progressProperty().bind(task.progressProperty());
+        task.stateProperty().addListener((obs, oldState, state) -> {
+            if (state == Worker.State.SUCCEEDED || state == Worker.State.FAILED || state == Worker.State.CANCELLED) {
+                progressBar.progressProperty().unbind();
+                progressBar.setProgress(0);
+                statusLabel.setText(state == Worker.State.SUCCEEDED ? "Listo" : "Error");
+                setBusy(false);
+            }
+        });
+        fileExecutor.execute(task);
+    }
+
+    private void setBusy(boolean busy) {
+        menuBar.setDisable(busy);
+        tabPane.setDisable(busy);
+        progressBar.setVisible(busy);
+    }
+
+    /**
+     * Barra inferior con el estado de la carga/guardado en curso.
+     */
+    private HBox createStatusBar() {
+        progressBar = new ProgressBar(0);
+        progressBar.setPrefWidth(200);
+        progressBar.setVisible(false);
+        statusLabel = new Label("Listo");
+        HBox bar = new HBox(10, progressBar, statusLabel);
+        bar.setAlignment(Pos.CENTER_LEFT);
+        bar.setPadding(new Insets(5, 0, 0, 0));
+        return bar;
     }
 
     /**
      * Método genérico para crear el layout de una pestaña (Lista a la izq, Formulario a la der).
      * @param <T> El tipo de dato (DefenseConfig, EnemyConfig, etc.)
      * @param listView La ListView para mostrar a la izquierda.
+     * @param filtered La vista filtrada que muestra la ListView (el buscador le cambia el predicado).
+     * @param index Índice de búsqueda de la lista original.
      * @param formPane El Pane (GridPane) del formulario para mostrar a la derecha.
      * @param newHandler La acción a ejecutar (lambda) cuando se presiona el botón "+".
      * @return Un nodo (SplitPane) que contiene el layout completo de la pestaña.
      */
-    private <T> Node createEditorPane(ListView<T> listView, Pane formPane, Runnable newHandler) {
+    private <T> Node createEditorPane(ListView<T> listView, FilteredList<T> filtered, SearchIndex<T> index,
+                                      Pane formPane, Runnable newHandler) {
+        // Buscador: filtra con el índice en cada tecla (sin recorrer los textos de cada config)
+        TextField searchField = new TextField();
+        searchField.setPromptText("Buscar por ID o nombre...");
+        searchField.textProperty().addListener((obs, oldText, newText) -> filtered.setPredicate(index.matcher(newText)));
+        Label countLabel = new Label();
+        countLabel.textProperty().bind(Bindings.size(filtered).asString("%d elementos"));
+
         // Botón para añadir nuevo item
         Button newBtn = new Button("+");
         newBtn.setOnAction(e -> newHandler.run());
@@ -329,17 +444,17 @@ public class ConfigEditorMain extends Application {
                 Alert confirm = new Alert(Alert.AlertType.CONFIRMATION, "¿Estás seguro de que quieres borrar '" + selected.toString() + "'?", ButtonType.YES, ButtonType.NO);
                 confirm.showAndWait().ifPresent(response -> {
                     if (response == ButtonType.YES) {
-                        listView.getItems().remove(selected); // Borra de la lista observable
+                        filtered.getSource().remove(selected); // Borra de la lista original (la filtrada es de solo lectura)
                     }
                 });
             }
         });
-        HBox listButtons = new HBox(10, newBtn, delBtn);
+        HBox listButtons = new HBox(10, countLabel, newBtn, delBtn);
         listButtons.setPadding(new Insets(5));
         listButtons.setAlignment(Pos.CENTER_RIGHT);
 
         // Panel izquierdo (lista + botones)
-        VBox listPane = new VBox(listView, listButtons);
+        VBox listPane = new VBox(5, searchField, listView, listButtons);
         VBox.setVgrow(listView, Priority.ALWAYS); // La lista ocupa todo el espacio vertical
 
         // Panel derecho (formulario dentro de un ScrollPane)
@@ -393,7 +508,7 @@ public class ConfigEditorMain extends Application {
         private final ImageView imageView;
         private final Label nameLabel, idLabel;
         public DefenseListCell(){super(); imageView=new ImageView();imageView.setFitWidth(40);imageView.setFitHeight(40);imageView.setPreserveRatio(true); nameLabel=new Label();nameLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");idLabel=new Label();idLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: gray;");VBox infoBox=new VBox(nameLabel,idLabel);infoBox.setSpacing(2);root=new HBox(10,imageView,infoBox);root.setAlignment(Pos.CENTER_LEFT);}
-        @Override protected void updateItem(DefenseConfig config,boolean empty){super.updateItem(config,empty);if(empty||config==null){setText(null);setGraphic(null);}else{imageView.setImage(loadImage(config.getImagePath()));nameLabel.setText(config.getName());idLabel.setText(config.getId());setGraphic(root);}}
+        @Override protected void updateItem(DefenseConfig config,boolean empty){super.updateItem(config,empty);if(empty||config==null){setText(null);setGraphic(null);}else{showThumbnail(this,imageView,config.getImagePath());nameLabel.setText(config.getName());idLabel.setText(config.getId());setGraphic(root);}}
     }
 
     /**
@@ -405,7 +520,7 @@ public class ConfigEditorMain extends Application {
         private final ImageView imageView;
         private final Label nameLabel, idLabel;
         public EnemyListCell(){super(); imageView=new ImageView();imageView.setFitWidth(40);imageView.setFitHeight(40);imageView.setPreserveRatio(true); nameLabel=new Label();nameLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");idLabel=new Label();idLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: gray;");VBox infoBox=new VBox(nameLabel,idLabel);infoBox.setSpacing(2);root=new HBox(10,imageView,infoBox);root.setAlignment(Pos.CENTER_LEFT);}
-        @Override protected void updateItem(EnemyConfig config,boolean empty){super.updateItem(config,empty);if(empty||config==null){setText(null);setGraphic(null);}else{imageView.setImage(loadImage(config.getImagePath()));nameLabel.setText(config.getName());idLabel.setText(config.getId());setGraphic(root);}}
+        @Override protected void updateItem(EnemyConfig config,boolean empty){super.updateItem(config,empty);if(empty||config==null){setText(null);setGraphic(null);}else{showThumbnail(this,imageView,config.getImagePath());nameLabel.setText(config.getName());idLabel.setText(config.getId());setGraphic(root);}}
     }
 
     /**
@@ -458,7 +573,7 @@ public class ConfigEditorMain extends Application {
             h.setText(String.valueOf(c.getBaseHealth()));d.setText(String.valueOf(c.getBaseDamage()));
             r.setText(String.valueOf(c.getRange()));co.setText(String.valueOf(c.getCost()));
             f.setText(String.valueOf(c.getFields()));l.setText(String.valueOf(c.getUnlockLevel()));
-            i.setText(c.getImagePath());pv.setImage(loadImage(c.getImagePath()));
+            i.setText(c.getImagePath());showPreview(pv,c.getImagePath());
             try{t.setValue(ComponentType.valueOf(c.getType().toUpperCase()));}catch(Exception e){t.setValue(null);}
         }
 
@@ -526,7 +641,7 @@ public class ConfigEditorMain extends Application {
             h.setText(String.valueOf(c.getBaseHealth()));d.setText(String.valueOf(c.getBaseDamage()));
             s.setText(String.valueOf(c.getSpeed()));co.setText(String.valueOf(c.getCost()));
             f.setText(String.valueOf(c.getFields()));l.setText(String.valueOf(c.getUnlockLevel()));
-            i.setText(c.getImagePath());pv.setImage(loadImage(c.getImagePath()));
+            i.setText(c.getImagePath());showPreview(pv,c.getImagePath());
             t.setValue(c.getType().toUpperCase());
             try{aT.setValue(AIType.valueOf(c.getAiType().toUpperCase()));}catch(Exception e){aT.setValue(null);}
         }
@@ -592,6 +707,8 @@ public class ConfigEditorMain extends Application {
         // Lista observable para las oleadas del nivel SELECCIONADO
         private ObservableList<WaveConfig> waveList = FXCollections.observableArrayList();
         private WaveEditor waveEditor; // Sub-formulario
+        private Button simulateButton;
+        private Label simulationLabel; // Resultado de la última vista previa de dificultad
 
         public LevelEditorForm() {
             // Panel para los campos del nivel (N°, Dinero, etc.)
@@ -608,7 +725,13 @@ public class ConfigEditorMain extends Application {
 
             Button saveButton = new Button("Guardar Cambios de Nivel");
             saveButton.setOnAction(e -> saveCurrentConfig());
-            levelDetailsPane.add(saveButton, 1, row);
+            simulateButton = new Button("Simular Dificultad");
+            simulateButton.setOnAction(e -> simulateDifficulty());
+            levelDetailsPane.add(new HBox(10, saveButton, simulateButton), 1, row++);
+
+            simulationLabel = new Label();
+            simulationLabel.setWrapText(true);
+            levelDetailsPane.add(simulationLabel, 0, row, 2, 1);
 
             // Sub-editor para las oleadas
             // Pasa la lista de enemigos (para el ComboBox) y la lista de oleadas (para la UI)
@@ -642,6 +765,7 @@ public class ConfigEditorMain extends Application {
             // Puebla la lista de oleadas del sub-editor
             waveList.setAll(config.getEnemyWaves() != null ? config.getEnemyWaves() : new ArrayList<>());
             waveEditor.clearSelection(); // Limpiar formulario de oleada
+            simulationLabel.setText(""); // El resultado anterior era de otro nivel
         }
 
         // Valida que los campos principales del nivel estén llenos
@@ -686,6 +810,77 @@ public class ConfigEditorMain extends Application {
             }
         }
 
+        /**
+         * Juega el nivel tal como está en el formulario (aunque no se haya guardado) muchas
+         * veces sin interfaz, con cada disposición predefinida de defensas, y muestra la tasa
+         * de victorias, el daño promedio a la reliquia y el tiempo promedio hasta limpiarlo.
+         * Corre en simulationPool; el formulario sigue usable mientras tanto.
+         */
+        private void simulateDifficulty() {
+            if (currentConfig == null) return;
+            if (!validateFields()) return;
+
+            GameConfig previewConfig;
+            try {
+                // Copia del nivel editado: no modifica currentConfig hasta "Guardar Cambios de Nivel"
+                LevelConfig level = new LevelConfig();
+                level.setLevelNumber(Integer.parseInt(levelNumField.getText()));
+                level.setPlayerArmySize(Integer.parseInt(armySizeField.getText()));
+                level.setStartingMoney(Integer.parseInt(moneyField.getText()));
+                level.setDefenseBoostPercent(Double.parseDouble(defenseBoostField.getText()));
+                level.setEnemyBoostPercent(Double.parseDouble(enemyBoostField.getText()));
+                level.setEnemyWaves(new ArrayList<>(waveList));
+                previewConfig = DifficultyPreview.singleLevelConfig(defenseList, enemyList, level);
+            } catch (NumberFormatException e) {
+                showAlert(Alert.AlertType.ERROR, "Error", "Valores numéricos inválidos para el Nivel.");
+                return;
+            } catch (IllegalArgumentException e) {
+                showAlert(Alert.AlertType.WARNING, "No se puede simular", e.getMessage());
+                return;
+            }
+
+            LevelConfig simulated = currentConfig;
+            Task<List<DifficultyPreview.LayoutStats>> task = new Task<>() {
+                @Override
+                protected List<DifficultyPreview.LayoutStats> call() throws Exception {
+                    Logger.Level previousLevel = Logger.getMinimumLevel();
+                    Logger.setMinimumLevel(Logger.Level.WARNING); // Decenas de partidas: solo avisos y errores
+                    try {
+                        return DifficultyPreview.run(previewConfig, DifficultyPreview.DEFAULT_TRIALS,
+                                SIMULATION_SEED, simulationPool);
+                    } finally {
+                        Logger.setMinimumLevel(previousLevel);
+                    }
+                }
+            };
+            long start = System.nanoTime();
+            task.setOnSucceeded(e -> {
+                simulateButton.setDisable(false);
+                if (currentConfig != simulated) return; // Se cambió de nivel mientras se simulaba
+                StringBuilder text = new StringBuilder(String.format("%d partidas por disposición (%.1f s):",
+                        DifficultyPreview.DEFAULT_TRIALS, (System.nanoTime() - start) / 1e9));
+                for (DifficultyPreview.LayoutStats stats : task.getValue()) {
+                    text.append(String.format("%n• %s: %.0f%% victorias, daño a la reliquia %.0f, limpieza %.0f s",
+                            stats.layout().getDisplayName(), stats.winRate() * 100,
+                            stats.averageRelicDamage(), stats.averageClearSeconds()));
+                    if (stats.timeouts() > 0) text.append(String.format(" (%d sin terminar)", stats.timeouts()));
+                }
+                simulationLabel.setText(text.toString());
+            });
+            task.setOnFailed(e -> {
+                simulateButton.setDisable(false);
+                simulationLabel.setText("");
+                showAlert(Alert.AlertType.ERROR, "Error", "La simulación falló: " + task.getException().getMessage());
+            });
+
+            simulateButton.setDisable(true);
+            simulationLabel.setText("Simulando...");
+            // El Task solo espera los resultados: corre aparte para no ocupar un hilo del pool
+            Thread thread = new Thread(task, "editor-simulation-task");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
         /**
          * Sub-clase que maneja el editor de Oleadas (Waves) dentro del formulario de Nivel.
          * Muestra una lista de oleadas y un formulario para editar la oleada seleccionada.
@@ -878,42 +1073,33 @@ public class ConfigEditorMain extends Application {
                 p = f.getAbsolutePath();
             }
             pathField.setText(p);
-            preview.setImage(loadImage(p)); // Actualiza la vista previa
+            thumbnails.invalidate(p); // Puede ser un archivo nuevo con la misma ruta
+            showPreview(preview, p); // Actualiza la vista previa
         }
     }
 
     /**
-     * Carga una imagen, primero desde el ClassLoader (para defaults)
-     * y luego como archivo local (para imágenes nuevas/buscadas).
-     * Usa un caché para evitar recargar.
-     * @param path La ruta relativa (desde resources) o absoluta (desde disco).
-     * @return El objeto Image, o null si no se encuentra.
+     * Pone la miniatura de una fila. La imagen llega después (se decodifica en otro hilo),
+     * así que se verifica que la celda no se haya reciclado para otra fila mientras tanto.
      */
-    private Image loadImage(String path) {
-        if(path==null||path.isEmpty())return null;
-        if(imageCache.containsKey(path))return imageCache.get(path); // Usa caché
-
-        Image i=null;
-        try {
-            // Intento 1: Cargar como recurso del classpath (lo normal para el juego)
-            InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream(path);
-            if(is != null){
-                i=new Image(is);
-                is.close();
-            } else {
-                // Intento 2: Cargar como archivo local (para 'Buscar...' en el editor)
-                File f = new File(path);
-                if(f.exists()){
-                    i=new Image(f.toURI().toString());
-                } else {
-                    throw new IOException("Recurso no encontrado: "+path);
-                }
+    private void showThumbnail(ListCell<?> cell, ImageView view, String path) {
+        view.setUserData(path); // Ruta pedida por esta celda
+        view.setImage(null);
+        thumbnails.load(path, THUMBNAIL_SIZE, image -> {
+            if (Objects.equals(view.getUserData(), path) && !cell.isEmpty()) {
+                view.setImage(image);
             }
-        } catch (Exception e) {
-            System.err.println("No se pudo cargar imagen: "+e.getMessage());
-        }
-        imageCache.put(path, i); // Guarda en caché (incluso si es null)
-        return i;
+        });
+    }
+
+    /**
+     * Pone la vista previa de un formulario (misma verificación que showThumbnail).
+     */
+    private void showPreview(ImageView view, String path) {
+        view.setUserData(path);
+        thumbnails.load(path, PREVIEW_SIZE, image -> {
+            if (Objects.equals(view.getUserData(), path)) view.setImage(image);
+        });
     }
 
     /**
@@ -930,6 +1116,16 @@ public class ConfigEditorMain extends Application {
         a.showAndWait();
     }
 
+    /**
+     * Se llama al cerrar el editor: detiene los hilos de archivos, simulación y miniaturas.
+     */
+    @Override
+    public void stop() {
+        fileExecutor.shutdownNow();
+        simulationPool.shutdownNow();
+        thumbnails.shutdown();
+    }
+
     /**
      * Método main para lanzar la aplicación del editor.
      */
@@ -0,0 +1,53 @@
+package diblo.thewalkingtec.editor;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * InputStream que informa cuántos bytes se llevan leídos (para la barra de progreso
+ * al cargar un config grande). Avisa como mucho cada REPORT_EVERY bytes.
+ */
+class ProgressInputStream extends FilterInputStream {
+
+    private static final long REPORT_EVERY = 64 * 1024;
+
+    private final LongConsumer onProgress;
+    private long read;
+    private long lastReported;
+
+    ProgressInputStream(InputStream in, LongConsumer onProgress) {
+        super(in);
+        this.onProgress = onProgress;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) advance(1);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int n = super.read(buffer, offset, length);
+        if (n > 0) advance(n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        advance(skipped);
+        return skipped;
+    }
+
+    private void advance(long n) {
+        read += n;
+        if (read - lastReported >= REPORT_EVERY) {
+            lastReported = read;
+            onProgress.accept(read);
+        }
+    }
+}
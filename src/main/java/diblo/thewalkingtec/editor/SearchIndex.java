@@ -0,0 +1,58 @@
+package diblo.thewalkingtec.editor;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Índice de búsqueda en memoria para una lista del editor (por id y nombre).
+ *
+ * Guarda por cada elemento su texto de búsqueda ya en minúsculas, así filtrar miles de
+ * entradas es solo una búsqueda de subcadena por elemento, sin volver a armar ni convertir
+ * textos en cada tecla. Se mantiene al día escuchando la lista: altas, bajas y reemplazos
+ * (los formularios hacen list.set(i, c) al guardar cambios).
+ *
+ * Se usa con una FilteredList: filtered.setPredicate(index.matcher(texto)).
+ */
+class SearchIndex<T> {
+
+    private final Function<T, String> keyFunction;
+    private final Map<T, String> keys = new IdentityHashMap<>(); // Por instancia: los configs no definen equals
+
+    /**
+     * @param source La lista a indexar (se indexa completa y se escucha desde ya).
+     * @param keyFunction Texto buscable de un elemento (ej. id + " " + nombre).
+     */
+    SearchIndex(ObservableList<T> source, Function<T, String> keyFunction) {
+        this.keyFunction = keyFunction;
+        source.forEach(this::index);
+        source.addListener((ListChangeListener<T>) change -> {
+            while (change.next()) {
+                change.getRemoved().forEach(keys::remove);
+                change.getAddedSubList().forEach(this::index);
+            }
+        });
+    }
+
+    private void index(T item) {
+        String key = keyFunction.apply(item);
+        keys.put(item, key == null ? "" : key.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Predicado para la FilteredList. Una consulta vacía deja pasar todo.
+     */
+    Predicate<T> matcher(String query) {
+        if (query == null || query.isBlank()) return item -> true;
+        String needle = query.strip().toLowerCase(Locale.ROOT);
+        return item -> {
+            String key = keys.get(item);
+            return key != null && key.contains(needle);
+        };
+    }
+}
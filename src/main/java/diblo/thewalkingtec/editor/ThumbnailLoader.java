@@ -0,0 +1,117 @@
+package diblo.thewalkingtec.editor;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Carga las imágenes del editor (miniaturas de las listas y vista previa de los formularios)
+ * en un pool de hilos, sin bloquear el hilo de JavaFX.
+ *
+ * - La imagen se decodifica ya reducida al tamaño pedido (no se guarda el original).
+ * - Los resultados quedan en un caché LRU de CACHE_SIZE entradas (tamaño + ruta).
+ * - Si varias celdas piden la misma imagen mientras se carga, se decodifica una sola vez.
+ *
+ * Todos los métodos públicos se llaman desde el hilo de JavaFX; las respuestas también
+ * llegan en ese hilo (Platform.runLater).
+ */
+class ThumbnailLoader {
+
+    private static final int CACHE_SIZE = 512;
+    private static final int WORKERS = 2;
+
+    // LRU: LinkedHashMap en orden de acceso que descarta la entrada más vieja
+    private final Map<String, Image> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private final Map<String, List<Consumer<Image>>> pending = new HashMap<>(); // Cargas en curso
+    private final ExecutorService workers = Executors.newFixedThreadPool(WORKERS, r -> {
+        Thread t = new Thread(r, "editor-thumbnails");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Pide una imagen de 'size' x 'size' (manteniendo proporción).
+     * @param onLoaded Recibe la imagen (o null si no se encontró). Si está en caché se llama de inmediato.
+     */
+    void load(String path, int size, Consumer<Image> onLoaded) {
+        if (path == null || path.isEmpty()) {
+            onLoaded.accept(null);
+            return;
+        }
+        String key = size + "|" + path;
+        if (cache.containsKey(key)) {
+            onLoaded.accept(cache.get(key)); // Incluso null: no se reintenta un recurso inexistente
+            return;
+        }
+        List<Consumer<Image>> waiting = pending.get(key);
+        if (waiting != null) {
+            waiting.add(onLoaded); // Ya se está cargando
+            return;
+        }
+        waiting = new ArrayList<>();
+        waiting.add(onLoaded);
+        pending.put(key, waiting);
+
+        workers.execute(() -> {
+            Image image = decode(path, size);
+            Platform.runLater(() -> {
+                cache.put(key, image);
+                List<Consumer<Image>> callbacks = pending.remove(key);
+                if (callbacks != null) callbacks.forEach(c -> c.accept(image));
+            });
+        });
+    }
+
+    /**
+     * Olvida una ruta (ej. el usuario eligió otra imagen con el mismo nombre).
+     */
+    void invalidate(String path) {
+        cache.keySet().removeIf(key -> key.endsWith("|" + path));
+    }
+
+    /** Detiene los hilos (al cerrar el editor). */
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Carga la imagen primero desde el ClassLoader (para defaults)
+     * y luego como archivo local (para imágenes nuevas/buscadas).
+     */
+    private static Image decode(String path, int size) {
+        try {
+            // Intento 1: Cargar como recurso del classpath (lo normal para el juego)
+            InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream(path);
+            if (is != null) {
+                try (is) {
+                    return new Image(is, size, size, true, true);
+                }
+            }
+            // Intento 2: Cargar como archivo local (para 'Buscar...' en el editor)
+            File f = new File(path);
+            if (f.exists()) {
+                return new Image(f.toURI().toString(), size, size, true, true, false);
+            }
+            throw new IOException("Recurso no encontrado: " + path);
+        } catch (Exception e) {
+            System.err.println("No se pudo cargar imagen: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -2,23 +2,35 @@ package diblo.thewalkingtec.model;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
  * Representa el ejército de defensas del jugador.
  * Esta clase gestiona la capacidad máxima (espacios) y la lista
  * de defensas activas que posee el jugador.
+ *
+ * Los totales (espacios usados, defensas destruidas) se mantienen de forma
+ * incremental, por lo que las consultas de capacidad y del HUD son O(1)
+ * sin importar el tamaño del ejército.
  */
 public class Army implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private int maxCapacity; // Capacidad máxima de espacios
-    private List<Defense> defenses;
+    // Defensas indexadas por su UUID de instancia (mantiene el orden de inserción)
+    private final Map<UUID, Defense> defenses;
+    private int usedSpaces;     // Suma de 'fields' de todas las defensas
+    private int destroyedCount; // Defensas destruidas que aún no se han limpiado
+    // Defensas notificadas como destruidas, pendientes de cleanupDestroyed()
+    private final List<Defense> pendingDestroyed;
 
     public Army(int initialCapacity) {
         this.maxCapacity = initialCapacity;
-        this.defenses = new ArrayList<>();
+        this.defenses = new LinkedHashMap<>();
+        this.pendingDestroyed = new ArrayList<>();
     }
 
     /**
@@ -28,15 +40,21 @@ public class Army implements Serializable {
      * @param defense La defensa a añadir.
      * @return true si se añadió exitosamente, false si no hay capacidad.
      */
-    public boolean addDefense(Defense defense) {
-        int usedSpaces = getUsedSpaces();
+    public synchronized boolean addDefense(Defense defense) {
         int requiredSpaces = defense.getFields(); // 'fields' son los espacios que ocupa
 
         if (usedSpaces + requiredSpaces > maxCapacity) {
             return false; // No hay suficiente capacidad
         }
+        if (defenses.putIfAbsent(defense.getInstanceId(), defense) != null) {
+            return false; // Ya estaba en el ejército
+        }
 
-        defenses.add(defense);
+        usedSpaces += requiredSpaces;
+        if (defense.isDestroyed()) {
+            destroyedCount++;
+            pendingDestroyed.add(defense);
+        }
         return true;
     }
 
@@ -46,36 +64,53 @@ public class Army implements Serializable {
      * @return true si se removió.
      */
     public boolean removeDefense(Defense defense) {
-        return defenses.remove(defense);
+        return removeDefenseById(defense.getInstanceId());
     }
 
     /**
-     * Remueve una defensa del ejército usando su UUID.
+     * Remueve una defensa del ejército usando su UUID de instancia.
      * @param id El UUID de la defensa a remover.
      * @return true si se encontró y removió.
      */
-    public boolean removeDefenseById(UUID id) {
-        // Usa removeIf para encontrar la defensa por su ID y borrarla
-        return defenses.removeIf(d -> d.getId().equals(id));
+    public synchronized boolean removeDefenseById(UUID id) {
+        Defense removed = defenses.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        usedSpaces -= removed.getFields();
+        if (removed.isDestroyed() && pendingDestroyed.remove(removed)) {
+            destroyedCount--;
+        }
+        return true;
     }
 
     /**
-     * Calcula los espacios actualmente usados por todas las defensas.
+     * Hook llamado por Defense cuando es destruida (desde cualquier hilo de componente).
+     * Solo actualiza contadores y encola la defensa; la remoción real ocurre en cleanupDestroyed().
+     *
+     * @param defense La defensa destruida.
+     */
+    public synchronized void notifyDefenseDestroyed(Defense defense) {
+        if (defenses.get(defense.getInstanceId()) == defense) {
+            destroyedCount++;
+            pendingDestroyed.add(defense);
+        }
+    }
+
+    /**
+     * Espacios actualmente usados por todas las defensas (mantenido incrementalmente).
      * @return La suma de los 'fields' (espacios) de todas las defensas.
      */
-    public int getUsedSpaces() {
-        // Suma los 'fields' (espacios) de cada defensa en la lista
-        return defenses.stream()
-                .mapToInt(Defense::getFields)
-                .sum();
+    public synchronized int getUsedSpaces() {
+        return usedSpaces;
     }
 
     /**
      * Calcula los espacios disponibles en el ejército.
      * @return Capacidad máxima - espacios usados.
      */
-    public int getAvailableSpaces() {
-        return maxCapacity - getUsedSpaces();
+    public synchronized int getAvailableSpaces() {
+        return maxCapacity - usedSpaces;
     }
 
     /**
@@ -91,63 +126,71 @@ public class Army implements Serializable {
      * Aumenta la capacidad máxima del ejército (ej. al subir de nivel).
      * @param amount La cantidad de espacios a añadir.
      */
-    public void increaseCapacity(int amount) {
+    public synchronized void increaseCapacity(int amount) {
         maxCapacity += amount;
     }
 
     /**
-     * Limpia la lista de defensas, removiendo todas las que estén destruidas.
+     * Remueve del ejército las defensas notificadas como destruidas.
+     * El costo es proporcional a las muertes desde la última limpieza, no al tamaño del ejército.
      */
-    public void cleanupDestroyed() {
-        defenses.removeIf(Defense::isDestroyed);
+    public synchronized void cleanupDestroyed() {
+        if (pendingDestroyed.isEmpty()) {
+            return;
+        }
+        for (Defense defense : pendingDestroyed) {
+            if (defenses.remove(defense.getInstanceId()) != null) {
+                usedSpaces -= defense.getFields();
+            }
+        }
+        pendingDestroyed.clear();
+        destroyedCount = 0;
     }
 
     /**
      * Vacía el ejército por completo.
      * Se usa al pasar de nivel para resetear las defensas del jugador.
      */
-    public void clear() {
+    public synchronized void clear() {
         this.defenses.clear();
+        this.pendingDestroyed.clear();
+        this.usedSpaces = 0;
+        this.destroyedCount = 0;
     }
 
     /**
      * Obtiene el número total de defensas que no están destruidas.
      * @return Conteo de defensas activas.
      */
-    public int getActiveDefenseCount() {
-        return (int) defenses.stream()
-                .filter(d -> !d.isDestroyed())
-                .count();
+    public synchronized int getActiveDefenseCount() {
+        return defenses.size() - destroyedCount;
     }
 
     /**
-     * Obtiene una defensa específica por su ID.
+     * Obtiene una defensa específica por su UUID de instancia.
      * @param id El UUID a buscar.
      * @return La Defensa encontrada, o null si no existe.
      */
-    public Defense getDefenseById(UUID id) {
-        return defenses.stream()
-                .filter(d -> d.getId().equals(id))
-                .findFirst()
-                .orElse(null);
+    public synchronized Defense getDefenseById(UUID id) {
+        return defenses.get(id);
     }
 
     // --- Getters y Setters ---
 
-    public int getMaxCapacity() { return maxCapacity; }
+    public synchronized int getMaxCapacity() { return maxCapacity; }
 
     /**
      * Devuelve una COPIA de la lista de defensas para evitar modificaciones externas.
      */
-    public List<Defense> getDefenses() { return new ArrayList<>(defenses); }
+    public synchronized List<Defense> getDefenses() { return new ArrayList<>(defenses.values()); }
 
-    public int getDefenseCount() { return defenses.size(); }
+    public synchronized int getDefenseCount() { return defenses.size(); }
 
-    public void setMaxCapacity(int capacity) { this.maxCapacity = capacity; }
+    public synchronized void setMaxCapacity(int capacity) { this.maxCapacity = capacity; }
 
     @Override
-    public String toString() {
+    public synchronized String toString() {
         return String.format("Army [%d/%d espacios usados, %d defensas activas]",
-                getUsedSpaces(), maxCapacity, getActiveDefenseCount());
+                usedSpaces, maxCapacity, getActiveDefenseCount());
     }
-}
\ No newline at end of file
+}
@@ -4,8 +4,11 @@ import diblo.thewalkingtec.model.enums.ComponentType;
 import diblo.thewalkingtec.service.GameContext;
 
 import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Clase base abstracta para todos los componentes del juego (Defensas y Zombies).
@@ -16,8 +19,23 @@ import java.util.List;
 public abstract class Component implements Runnable, Serializable {
     private static final long serialVersionUID = 1L;
 
+    // Acceso atómico a la vida y al estado de destrucción: varios hilos de componentes
+    // pueden golpear al mismo objetivo en el mismo tick sin perder daño.
+    private static final VarHandle CURRENT_LIFE;
+    private static final VarHandle IS_DESTROYED;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            CURRENT_LIFE = lookup.findVarHandle(Component.class, "currentLife", int.class);
+            IS_DESTROYED = lookup.findVarHandle(Component.class, "isDestroyed", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     // --- Atributos de Configuración (leídos de config.json) ---
-    protected String id;
+    protected String id; // ID del config (compartido por todas las instancias del mismo tipo)
     protected String name;
     protected String imagePath;
     protected int maxLife;
@@ -28,11 +46,20 @@ public abstract class Component implements Runnable, Serializable {
     protected ComponentType type;
 
     // --- Atributos de Estado (guardados en partida.json) ---
-    protected int currentLife;
+    protected final UUID instanceId; // Identificador único de esta instancia
+    protected volatile int currentLife;   // Solo se modifica con CAS (ver receiveDamage)
     protected Position position;
-    protected boolean isDestroyed;
-    protected List<LogEntry> interactionsLog;
+    protected volatile boolean isDestroyed; // Solo cambia en markDestroyed()
+    protected List<LogEntry> interactionsLog; // Protegida por su propio monitor
     protected int level;
+    // Índice en la lista activa del Board (para remoción O(1)); -1 si no está en el tablero
+    private int boardSlot = -1;
+    // Índice en la lista de componentes del tick actual (para el DamageBuffer); -1 si no participa
+    private transient int tickIndex = -1;
+    // Contribución actual de este componente al StateHash del Board (0 si no está en el tablero)
+    private transient long stateHashContribution;
+    // Se avisa en cada cambio visible (vida, posición, log, destrucción); null = nadie lo sigue
+    private transient volatile Runnable changeWatcher;
 
     /**
      * El contexto del juego (tablero, jugador, etc.).
@@ -56,6 +83,7 @@ public abstract class Component implements Runnable, Serializable {
         this.isDestroyed = false;
         this.interactionsLog = new ArrayList<>();
         this.imagePath = imagePath;
+        this.instanceId = UUID.randomUUID();
     }
 
     /**
@@ -86,33 +114,95 @@ public abstract class Component implements Runnable, Serializable {
     /**
      * Aplica daño a este componente y registra la interacción.
      * Marca el componente como destruido si la vida llega a 0.
+     * Es seguro llamarlo desde varios hilos a la vez: la resta se hace con CAS,
+     * así que ningún golpe se pierde.
      *
      * @param damage El daño a recibir.
      * @param attackerId ID del atacante (para el log).
      * @param attackerName Nombre del atacante (para el log).
+     * @return La vida que tenía el componente justo antes de ESTE golpe.
      */
-    public void receiveDamage(int damage, String attackerId, String attackerName) {
-        int lifeBefore = currentLife;
-        currentLife = Math.max(0, currentLife - damage); // Evita vida negativa
+    public int receiveDamage(int damage, String attackerId, String attackerName) {
+        int lifeBefore;
+        int lifeAfter;
+        do {
+            lifeBefore = currentLife;
+            lifeAfter = Math.max(0, lifeBefore - damage); // Evita vida negativa
+        } while (!CURRENT_LIFE.compareAndSet(this, lifeBefore, lifeAfter));
+
+        refreshStateHash();
 
         if (attackerId != null) {
             // Registra el ataque recibido
-            LogEntry entry = new LogEntry(attackerId, this.id, attackerName, this.name, damage, lifeBefore, currentLife);
-            interactionsLog.add(entry);
+            appendLog(new LogEntry(attackerId, this.id, attackerName, this.name, damage, lifeBefore, lifeAfter));
+        } else {
+            notifyWatcher();
+        }
+
+        if (lifeAfter <= 0) {
+            markDestroyed(); // Marca para ser eliminado del tablero
+        }
+        return lifeBefore;
+    }
+
+    /**
+     * Marca el componente como destruido y dispara onDestroyed() una sola vez.
+     * Es la única vía para cambiar 'isDestroyed', de modo que los interesados
+     * (la cola de muertes del Board, el Army) se enteran sin recorrer listas cada tick.
+     * Si se llama dos veces (ej. golpe final y luego autodestrucción), solo la primera tiene efecto.
+     */
+    protected void markDestroyed() {
+        if (!IS_DESTROYED.compareAndSet(this, false, true)) return;
+        if (context != null) {
+            context.getBoard().enqueueDestroyed(this); // Cola de muertes del tick
         }
+        onDestroyed();
+        notifyWatcher();
+    }
 
-        if (currentLife <= 0) {
-            isDestroyed = true; // Marca para ser eliminado del tablero
+    /**
+     * Destruye el componente sin daño (ej. autodestrucción de un zombie CRASH).
+     * Solo la llama la fase de aplicación del DamageBuffer, en el hilo del tick.
+     */
+    public void destroy() {
+        markDestroyed();
+    }
+
+    /**
+     * Actualiza la contribución de este componente al hash del tablero (si está en él).
+     */
+    private void refreshStateHash() {
+        if (boardSlot >= 0 && context != null) {
+            context.getBoard().getStateHash().update(this);
         }
     }
 
     /**
-     * Método helper para que la subclase (Zombie, Defense) registre un ataque HECHO.
+     * Hook que las subclases pueden sobrescribir para reaccionar a su destrucción.
+     */
+    protected void onDestroyed() {}
+
+    /**
+     * Registra un ataque HECHO por este componente.
+     * Lo usa la fase de aplicación del DamageBuffer, que es quien conoce el resultado del golpe.
      */
-    protected void logAttack(String defenderId, String defenderName, int damage,
+    public LogEntry logAttack(String defenderId, String defenderName, int damage,
                              int defenderLifeBefore, int defenderLifeAfter) {
         LogEntry entry = new LogEntry(this.id, defenderId, this.name, defenderName, damage, defenderLifeBefore, defenderLifeAfter);
-        interactionsLog.add(entry);
+        appendLog(entry);
+        return entry;
+    }
+
+    private void appendLog(LogEntry entry) {
+        synchronized (interactionsLog) {
+            interactionsLog.add(entry);
+        }
+        notifyWatcher();
+    }
+
+    private void notifyWatcher() {
+        Runnable watcher = changeWatcher;
+        if (watcher != null) watcher.run();
     }
 
     /**
@@ -125,6 +215,7 @@ public abstract class Component implements Runnable, Serializable {
 
     // --- Getters ---
     public String getId() { return id; }
+    public UUID getInstanceId() { return instanceId; }
     public String getName() { return name; }
     public String getImagePath() { return imagePath; }
     public int getMaxLife() { return maxLife; }
@@ -137,20 +228,63 @@ public abstract class Component implements Runnable, Serializable {
     public ComponentType getType() { return type; }
     public Position getPosition() { return position; }
     public boolean isDestroyed() { return isDestroyed; }
+    public int getBoardSlot() { return boardSlot; }
+    public int getTickIndex() { return tickIndex; }
+    public long getStateHashContribution() { return stateHashContribution; }
     /**
      * Devuelve una COPIA de la lista de logs para evitar modificaciones externas.
      */
-    public List<LogEntry> getInteractionsLog() { return new ArrayList<>(interactionsLog); }
+    public List<LogEntry> getInteractionsLog() {
+        synchronized (interactionsLog) {
+            return new ArrayList<>(interactionsLog);
+        }
+    }
+
+    /**
+     * Cantidad de entradas del log (sin copiarlo). El log solo crece, así que sirve
+     * como cursor para pedir únicamente lo nuevo con copyInteractionsSince().
+     */
+    public int getInteractionsLogSize() {
+        synchronized (interactionsLog) {
+            return interactionsLog.size();
+        }
+    }
+
+    /**
+     * Copia a 'out' solo las entradas desde 'fromIndex' (como máximo las últimas 'max').
+     * @return El nuevo cursor (tamaño del log en el momento de la copia).
+     */
+    public int copyInteractionsSince(int fromIndex, int max, List<LogEntry> out) {
+        synchronized (interactionsLog) {
+            int size = interactionsLog.size();
+            int from = Math.min(size, Math.max(Math.max(0, fromIndex), size - max));
+            out.addAll(interactionsLog.subList(from, size));
+            return size;
+        }
+    }
 
     // --- Setters ---
-    public void setPosition(Position position) { this.position = position; }
+    public void setPosition(Position position) {
+        this.position = position;
+        notifyWatcher();
+    }
     public void setContext(GameContext context) { this.context = context; } // Usado al cargar partida
+    public void setBoardSlot(int boardSlot) { this.boardSlot = boardSlot; } // Solo lo usa el Board
+    public void setTickIndex(int tickIndex) { this.tickIndex = tickIndex; } // Solo lo usa Game
+    public void setStateHashContribution(long contribution) { this.stateHashContribution = contribution; } // Solo lo usa StateHash
     public void setLevel(int level) { this.level = level; }
     public void setImagePath(String imagePath) { this.imagePath = imagePath; }
+    /**
+     * Suscribe (o con null, desuscribe) a quien sigue este componente. El aviso llega desde
+     * el hilo que hizo el cambio (normalmente el del tick) y debe ser rápido.
+     */
+    public void setChangeWatcher(Runnable changeWatcher) { this.changeWatcher = changeWatcher; }
     public void setMaxLife(int maxLife) {
         this.maxLife = maxLife;
     }
     public void setCurrentLife(int currentLife) {
         this.currentLife = currentLife;
+        refreshStateHash();
+        notifyWatcher();
     }
 }
\ No newline at end of file
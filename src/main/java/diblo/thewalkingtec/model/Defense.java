@@ -2,12 +2,12 @@ package diblo.thewalkingtec.model;
 
 import diblo.thewalkingtec.model.config.DefenseConfig;
 import diblo.thewalkingtec.model.enums.ComponentType;
-import diblo.thewalkingtec.service.Cell;
+import diblo.thewalkingtec.service.Board;
 import diblo.thewalkingtec.service.GameContext;
+import diblo.thewalkingtec.service.ZombieStore;
 
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Representa una defensa colocada por el jugador.
@@ -39,8 +39,9 @@ public class Defense extends Component {
         this.range = config.getRange();
         this.maxTargetsSimultaneous = 1; // Hardcodeado a 1
         this.cost = config.getCost(); // El costo en monedas
-        this.lastAttackTime = 0;
-        this.lastMoveTime = 0;
+        // Valores muy negativos para que actúe en su primer tick (el reloj de juego inicia en 0)
+        this.lastAttackTime = Long.MIN_VALUE / 2;
+        this.lastMoveTime = Long.MIN_VALUE / 2;
     }
 
     /**
@@ -53,7 +54,7 @@ public class Defense extends Component {
 
         // Lógica de movimiento exclusiva para Drones (Aéreos)
         if (type.isAerial()) {
-            long currentTime = System.currentTimeMillis();
+            long currentTime = ctx.getGameTime();
             double moveInterval = 1000.0; // Moverse 1 vez por segundo
             if (currentTime - lastMoveTime >= moveInterval) {
                 move(ctx); // Llama al método move()
@@ -67,7 +68,7 @@ public class Defense extends Component {
         }
 
         // Lógica de Ataque (para todas las defensas con daño)
-        long currentTime = System.currentTimeMillis();
+        long currentTime = ctx.getGameTime();
         double attackInterval = 1000.0 / getHitsPerSecond();
 
         // Controla la cadencia de disparo
@@ -75,7 +76,7 @@ public class Defense extends Component {
             List<Zombie> targets = findTargets(ctx);
             if (!targets.isEmpty()) {
                 for (Zombie target : targets) {
-                    attack(target); // Ataca a cada objetivo encontrado
+                    attack(ctx, target); // Ataca a cada objetivo encontrado
                 }
                 lastAttackTime = currentTime;
             }
@@ -88,14 +89,11 @@ public class Defense extends Component {
      * Busca el zombie más cercano y se mueve hacia él.
      */
     private void move(GameContext ctx) {
-        // 1. Buscar el zombie más cercano
-        Position target = ctx.getBoard().getActiveZombies().stream()
-                .filter(z -> !z.isDestroyed())
-                .min(Comparator.comparingDouble(z -> z.getPosition().distanceTo(position)))
-                .map(Component::getPosition)
-                .orElse(null);
-
-        if (target == null) return; // No hay zombies, no se mueve
+        // 1. Buscar el zombie más cercano (recorrido sobre los arreglos del ZombieStore)
+        ZombieStore store = ctx.getBoard().getZombieStore();
+        int nearest = store.nearest(position.getX(), position.getY());
+        if (nearest < 0) return; // No hay zombies, no se mueve
+        Position target = Position.of(store.getX(nearest), store.getY(nearest));
 
         // 2. Encontrar la ruta (usando pathfinding aéreo)
         List<Position> path = ctx.getPathfindingService().findPath(ctx.getBoard(), position, target, this.type);
@@ -103,9 +101,8 @@ public class Defense extends Component {
         if (path != null && path.size() > 1) {
             Position nextPos = path.get(1); // El siguiente paso en la ruta
 
-            // 3. Solicitar el movimiento al tablero.
-            // El tablero (Board.moveComponent) se encarga de la colisión.
-            ctx.getBoard().moveComponent(this, nextPos);
+            // 3. Anota el movimiento; se aplica al final del tick (Board.moveComponent resuelve la colisión)
+            ctx.queueMove(this, nextPos);
         }
     }
 
@@ -119,32 +116,47 @@ public class Defense extends Component {
         if (type.isAerial()) {
             // Drones (Aéreos): Atacan CUALQUIER zombie (terrestre o aéreo)
             // que esté en su MISMA celda.
-            return ctx.getBoard().getCell(position.getX(), position.getY()).getOccupants().stream()
-                    .filter(c -> c instanceof Zombie && !c.isDestroyed())
-                    .map(c -> (Zombie) c)
-                    .limit(maxTargetsSimultaneous)
-                    .collect(Collectors.toList());
+            List<Zombie> targets = new ArrayList<>(maxTargetsSimultaneous);
+            ctx.getBoard().getCell(position.getX(), position.getY()).forEachOccupant(c -> {
+                if (targets.size() < maxTargetsSimultaneous && c instanceof Zombie && !c.isDestroyed()) {
+                    targets.add((Zombie) c);
+                }
+            });
+            return targets;
         } else {
             // Defensas Terrestres: Atacan zombies en rango,
             // pero NO pueden atacar a zombies aéreos.
-            return ctx.getBoard().getActiveZombies().stream()
-                    .filter(z -> !z.isDestroyed())
-                    .filter(z -> !z.getType().isAerial()) // NO atacan aéreos
-                    .filter(z -> position.distanceTo(z.getPosition()) <= range) // Dentro del rango
-                    .limit(maxTargetsSimultaneous)
-                    .collect(Collectors.toList());
+            Board board = ctx.getBoard();
+            int[] slots = new int[maxTargetsSimultaneous];
+            int found = board.getZombieStore().collectInRange(position.getX(), position.getY(), range,
+                    false, slots, maxTargetsSimultaneous); // false: NO atacan aéreos
+            List<Zombie> targets = new ArrayList<>(found);
+            for (int i = 0; i < found; i++) {
+                targets.add(board.getZombieInSlot(slots[i]));
+            }
+            return targets;
         }
     }
 
     /**
-     * Aplica daño a un zombie objetivo y lo registra en el log.
+     * Anota el daño a un zombie objetivo. El golpe (y su registro en el log)
+     * se aplica en la fase de daño al final del tick.
+     * @param ctx El contexto del juego.
      * @param target El Zombie a atacar.
      */
-    private void attack(Zombie target) {
-        int lifeBefore = target.getCurrentLife();
-        target.receiveDamage(damagePerHit, this.id, this.name);
-        // Registra el ataque HECHO
-        logAttack(target.getId(), target.getName(), damagePerHit, lifeBefore, target.getCurrentLife());
+    private void attack(GameContext ctx, Zombie target) {
+        ctx.queueDamage(this, target, damagePerHit);
+    }
+
+    /**
+     * Avisa al ejército del jugador que esta defensa fue destruida,
+     * para que actualice sus contadores sin recorrer la lista.
+     */
+    @Override
+    protected void onDestroyed() {
+        if (context != null) {
+            context.getPlayer().getArmy().notifyDefenseDestroyed(this);
+        }
     }
 
     // --- Getters ---
@@ -1,8 +1,9 @@
 package diblo.thewalkingtec.model;
 
 import java.io.Serializable;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 
 /**
  * Registra una interacción de combate única entre componentes.
@@ -11,8 +12,10 @@ import java.util.Date;
  */
 public class LogEntry implements Serializable {
     private static final long serialVersionUID = 1L;
-    // Formato para mostrar la hora del evento en el log
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("HH:mm:ss.SSS");
+    // Formato para mostrar la hora del evento en el log.
+    // DateTimeFormatter es inmutable: se puede usar desde cualquier hilo (SimpleDateFormat no).
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
 
     private final String attackerId;
     private final String defenderId;
@@ -56,6 +59,37 @@ public class LogEntry implements Serializable {
         return defenderId;
     }
 
+    public String getAttackerName() {
+        return attackerName;
+    }
+
+    public String getDefenderName() {
+        return defenderName;
+    }
+
+    public int getDamage() {
+        return damage;
+    }
+
+    public int getLifeBefore() {
+        return lifeBefore;
+    }
+
+    public int getLifeAfter() {
+        return lifeAfter;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Comprueba si el defensor de este golpe es la Reliquia (no tiene ID de componente).
+     */
+    public boolean isRelicHit() {
+        return defenderId == null;
+    }
+
     /**
      * Comprueba si este golpe resultó en la eliminación del defensor.
      * @return true si la vida después del golpe es 0 o menos.
@@ -66,13 +100,21 @@ public class LogEntry implements Serializable {
 
     /**
      * Genera una representación en String formateada para mostrar en la UI.
+     * Se arma con un StringBuilder (sin String.format ni objetos Date): las listas
+     * de resultados la llaman solo para las filas visibles, pero pueden ser miles.
      * @return String formateado del log.
      */
     @Override
     public String toString() {
-        String time = DATE_FORMAT.format(new Date(timestamp));
-        String killed = wasKilled() ? " [ELIMINADO]" : ""; // Añade si el golpe fue fatal
-        return String.format("[%s] %s atacó a %s | Daño: %d | Vida: %d → %d%s",
-                time, attackerName, defenderName, damage, lifeBefore, lifeAfter, killed);
+        StringBuilder sb = new StringBuilder(96);
+        sb.append('[');
+        TIME_FORMAT.formatTo(Instant.ofEpochMilli(timestamp), sb);
+        sb.append("] ").append(attackerName).append(" atacó a ").append(defenderName)
+                .append(" | Daño: ").append(damage)
+                .append(" | Vida: ").append(lifeBefore).append(" → ").append(lifeAfter);
+        if (wasKilled()) {
+            sb.append(" [ELIMINADO]"); // Añade si el golpe fue fatal
+        }
+        return sb.toString();
     }
 }
\ No newline at end of file
@@ -1,28 +1,30 @@
 package diblo.thewalkingtec.model;
 
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Representa al jugador del juego.
  * Gestiona las monedas, el nivel, el score y el ejército (Army).
+ * Monedas y score son atómicos: se pueden modificar desde los hilos de
+ * componentes y desde la UI sin perder actualizaciones.
  */
 public class Player implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private String name;
     private int level;
-    private int coins; // Monedas para comprar defensas
+    private final AtomicInteger coins = new AtomicInteger(); // Monedas para comprar defensas
     private int capacityBase; // Capacidad base del ejército
     private Army army; // El ejército del jugador (gestiona defensas y espacios)
-    private int score;
+    private final AtomicInteger score = new AtomicInteger();
 
     public Player(String name, int initialCapacity, int initialCoins) {
         this.name = name;
         this.level = 1;
         this.capacityBase = initialCapacity;
-        this.coins = initialCoins;
+        this.coins.set(initialCoins);
         this.army = new Army(initialCapacity); // Crea el ejército con la capacidad inicial
-        this.score = 0;
     }
 
     /**
@@ -33,20 +35,18 @@ public class Player implements Serializable {
      * @return true si la compra y colocación fue exitosa.
      */
     public boolean placeDefense(Defense defense) {
-        if (coins < defense.getCost()) {
-            return false; // No hay suficientes monedas
-        }
-
         if (!army.hasCapacityFor(defense)) {
             return false; // No hay capacidad en el ejército
         }
 
-        // Si se puede añadir al ejército, se cobra
+        // Cobra primero (atómicamente) y devuelve el dinero si el ejército la rechaza
+        if (!spendCoins(defense.getCost())) {
+            return false; // No hay suficientes monedas
+        }
         if (army.addDefense(defense)) {
-            coins -= defense.getCost();
             return true;
         }
-
+        coins.addAndGet(defense.getCost());
         return false;
     }
 
@@ -58,7 +58,7 @@ public class Player implements Serializable {
      */
     public void removeDefense(Defense defense) {
         if (army.removeDefense(defense)) {
-            coins += (int) (defense.getCost() * 0.5); // Recupera 50% del costo
+            coins.addAndGet((int) (defense.getCost() * 0.5)); // Recupera 50% del costo
         }
     }
 
@@ -78,7 +78,7 @@ public class Player implements Serializable {
      * @param amount La cantidad de monedas a añadir.
      */
     public void addCoins(int amount) {
-        coins += amount;
+        coins.addAndGet(amount);
     }
 
     /**
@@ -87,11 +87,14 @@ public class Player implements Serializable {
      * @return true si tenía suficientes monedas y se gastaron, false en caso contrario.
      */
     public boolean spendCoins(int amount) {
-        if (coins >= amount) {
-            coins -= amount;
-            return true;
-        }
-        return false;
+        int current;
+        do {
+            current = coins.get();
+            if (current < amount) {
+                return false;
+            }
+        } while (!coins.compareAndSet(current, current - amount));
+        return true;
     }
 
     /**
@@ -99,7 +102,7 @@ public class Player implements Serializable {
      * @param points Puntos a añadir.
      */
     public void addScore(int points) {
-        score += points;
+        score.addAndGet(points);
     }
 
     /**
@@ -126,21 +129,21 @@ public class Player implements Serializable {
      * @return true si tiene monedas y espacio.
      */
     public boolean canBuy(Defense defense) {
-        return coins >= defense.getCost() && army.hasCapacityFor(defense);
+        return coins.get() >= defense.getCost() && army.hasCapacityFor(defense);
     }
 
     // --- Getters y Setters ---
     public String getName() { return name; }
     public int getLevel() { return level; }
-    public int getCoins() { return coins; }
+    public int getCoins() { return coins.get(); }
     public int getCapacityBase() { return capacityBase; }
     public Army getArmy() { return army; }
-    public int getScore() { return score; }
+    public int getScore() { return score.get(); }
 
     public void setName(String name) { this.name = name; }
     public void setLevel(int level) { this.level = level; }
-    public void setCoins(int coins) { this.coins = coins; }
-    public void setScore(int score) { this.score = score; }
+    public void setCoins(int coins) { this.coins.set(coins); }
+    public void setScore(int score) { this.score.set(score); }
     public void setCapacityBase(int capacityBase) {
         this.capacityBase = capacityBase;
     }
@@ -148,6 +151,6 @@ public class Player implements Serializable {
     @Override
     public String toString() {
         return String.format("Player: %s | Level: %d | Coins: %d | Score: %d | Capacity: %d/%d",
-                name, level, coins, score, army.getUsedSpaces(), army.getMaxCapacity());
+                name, level, coins.get(), score.get(), army.getUsedSpaces(), army.getMaxCapacity());
     }
 }
\ No newline at end of file
@@ -1,24 +1,61 @@
 package diblo.thewalkingtec.model;
 
+import diblo.thewalkingtec.service.Board;
+
 import java.io.Serializable;
-import java.util.Objects;
 
 /**
  * Representa una coordenada (x, y) en la cuadrícula del juego.
  * Esta clase es fundamental para el pathfinding y el posicionamiento.
  * Es Serializable para poder guardar el estado de los componentes.
+ *
+ * Es inmutable: se puede usar sin riesgo como llave de HashMap/HashSet.
+ * Las posiciones dentro del tablero son canónicas (una sola instancia por celda,
+ * obtenida con Position.of), así que pedir una posición no crea objetos.
  */
-public class Position implements Serializable {
+public final class Position implements Serializable {
     private static final long serialVersionUID = 1L;
 
-    private int x;
-    private int y;
+    private static final int GRID = Board.SIZE;
+    // Tabla de instancias canónicas, indexada por getIndex()
+    private static final Position[] CANONICAL = new Position[GRID * GRID];
+
+    static {
+        for (int i = 0; i < GRID; i++) {
+            for (int j = 0; j < GRID; j++) {
+                CANONICAL[i * GRID + j] = new Position(i, j);
+            }
+        }
+    }
+
+    private final int x;
+    private final int y;
 
-    public Position(int x, int y) {
+    private Position(int x, int y) {
         this.x = x;
         this.y = y;
     }
 
+    /**
+     * Obtiene la posición (x, y).
+     * Dentro del tablero devuelve la instancia compartida de esa celda;
+     * fuera de él crea una nueva (ej. al probar un vecino inválido).
+     */
+    public static Position of(int x, int y) {
+        if (x >= 0 && x < GRID && y >= 0 && y < GRID) {
+            return CANONICAL[x * GRID + y];
+        }
+        return new Position(x, y);
+    }
+
+    /**
+     * Obtiene la posición canónica a partir de su índice empaquetado.
+     * @param index Un valor entre 0 y SIZE*SIZE - 1.
+     */
+    public static Position ofIndex(int index) {
+        return CANONICAL[index];
+    }
+
     // Getters
     public int getX() {
         return x;
@@ -27,12 +64,12 @@ public class Position implements Serializable {
         return y;
     }
 
-    // Setters
-    public void setX(int x) {
-        this.x = x;
-    }
-    public void setY(int y) {
-        this.y = y;
+    /**
+     * Índice empaquetado de la celda (x * SIZE + y), útil para arreglos planos.
+     * @return El índice, o -1 si la posición está fuera del tablero.
+     */
+    public int getIndex() {
+        return x >= 0 && x < GRID && y >= 0 && y < GRID ? x * GRID + y : -1;
     }
 
     /**
@@ -60,11 +97,11 @@ public class Position implements Serializable {
     }
 
     /**
-     * Crea una nueva instancia de Position con las mismas coordenadas.
-     * @return Una copia de esta posición.
+     * Al ser inmutable, la "copia" es la misma instancia canónica.
+     * @return Esta posición.
      */
     public Position copy() {
-        return new Position(x, y);
+        return of(x, y);
     }
 
     /**
@@ -85,7 +122,14 @@ public class Position implements Serializable {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        return 31 * x + y; // Sin boxing ni arreglo de varargs
+    }
+
+    /**
+     * Al deserializar, sustituye la copia leída por la instancia canónica.
+     */
+    private Object readResolve() {
+        return of(x, y);
     }
 
     @Override
@@ -8,7 +8,7 @@ import diblo.thewalkingtec.service.GameContext;
 
 import java.util.Comparator;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Representa un zombie enemigo.
@@ -16,7 +16,6 @@ import java.util.Random;
  */
 public class Zombie extends Component {
     private static final long serialVersionUID = 1L;
-    private static final Random RANDOM = new Random(); // Para la IA de tipo RANDOM
 
     // --- Atributos de Configuración ---
     private final double movementSpeed; // Movimientos por segundo
@@ -25,6 +24,8 @@ public class Zombie extends Component {
     // --- Atributos de Estado ---
     private long lastMoveTime;
     private long lastAttackTime;
+    // Flujo aleatorio propio (derivado del RNG de la partida al crearlo o restaurarlo); no se comparte con otros hilos
+    private transient SplittableRandom random;
 
     public Zombie(EnemyConfig config, double boost) {
         super(config.getId(),
@@ -38,8 +39,9 @@ public class Zombie extends Component {
                 config.getImagePath());
 
         this.movementSpeed = config.getSpeed();
-        this.lastMoveTime = 0;
-        this.lastAttackTime = 0;
+        // Valores muy negativos para que actúe en su primer tick (el reloj de juego inicia en 0)
+        this.lastMoveTime = Long.MIN_VALUE / 2;
+        this.lastAttackTime = Long.MIN_VALUE / 2;
 
         // Asignación de IA robusta para prevenir crashes si el config.json es inválido
         AIType parsedAiType;
@@ -62,7 +64,7 @@ public class Zombie extends Component {
      */
     @Override
     public void onTick(GameContext ctx) {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = ctx.getGameTime();
 
         // Control de velocidad de movimiento
         double moveInterval = 1000.0 / movementSpeed;
@@ -77,6 +79,12 @@ public class Zombie extends Component {
             attack(ctx);
             lastAttackTime = currentTime;
         }
+
+        // Próximo instante en que vale la pena ejecutarlo (Game salta los que no toca).
+        // Los intervalos se redondean hacia arriba: con diferencias enteras, d >= intervalo <=> d >= ceil(intervalo).
+        long nextDue = Math.min(lastMoveTime + (long) Math.ceil(moveInterval),
+                lastAttackTime + (long) Math.ceil(attackInterval));
+        ctx.getBoard().getZombieStore().setNextDue(getBoardSlot(), nextDue);
     }
 
     /**
@@ -104,9 +112,8 @@ public class Zombie extends Component {
                 }
             }
 
-            // 3. Solicita el movimiento al tablero.
-            // El tablero (Board.moveComponent) se encarga de la colisión.
-            ctx.getBoard().moveComponent(this, nextPos);
+            // 3. Anota el movimiento; se aplica al final del tick (Board.moveComponent resuelve la colisión)
+            ctx.queueMove(this, nextPos);
         }
     }
 
@@ -117,9 +124,8 @@ public class Zombie extends Component {
     private void attack(GameContext ctx) {
         // 1. Atacar si está ENCIMA de la reliquia (solo para tipo CRASH)
         if (position.equals(ctx.getRelicPosition())) {
-            ctx.damageRelic(damagePerHit);
-            logAttack(null, "Reliquia", damagePerHit, ctx.getRelicLife() + damagePerHit, ctx.getRelicLife());
-            if (aiType == AIType.CRASH) isDestroyed = true; // Se autodestruye
+            ctx.queueRelicDamage(this, damagePerHit); // Se aplica (y registra) al final del tick
+            if (aiType == AIType.CRASH) ctx.queueSelfDestruct(this); // Se autodestruye al aplicarse el golpe
             return;
         }
 
@@ -136,18 +142,15 @@ public class Zombie extends Component {
                 }
 
                 // Si soy aéreo, o la defensa es terrestre, ataco.
-                int lifeBefore = defense.getCurrentLife();
-                defense.receiveDamage(damagePerHit, this.id, this.name);
-                logAttack(defense.getId(), defense.getName(), damagePerHit, lifeBefore, defense.getCurrentLife());
-                if (aiType == AIType.CRASH) isDestroyed = true; // Se autodestruye al atacar
+                ctx.queueDamage(this, defense, damagePerHit); // Se aplica (y registra) al final del tick
+                if (aiType == AIType.CRASH) ctx.queueSelfDestruct(this); // Se autodestruye al aplicarse el golpe
                 return; // Solo ataca un objetivo por tick
             }
 
             // Buscar reliquia adyacente
             if (neighbor.equals(ctx.getRelicPosition())) {
-                ctx.damageRelic(damagePerHit);
-                logAttack(null, "Reliquia", damagePerHit, ctx.getRelicLife() + damagePerHit, ctx.getRelicLife());
-                if (aiType == AIType.CRASH) isDestroyed = true; // Se autodestruye
+                ctx.queueRelicDamage(this, damagePerHit);
+                if (aiType == AIType.CRASH) ctx.queueSelfDestruct(this); // Se autodestruye al aplicarse el golpe
                 return; // Atacó la reliquia, termina el turno
             }
         }
@@ -186,11 +189,11 @@ public class Zombie extends Component {
      * 30% de probabilidad de ir a una defensa aleatoria, 70% de ir a la reliquia.
      */
     private Position generateRandomTarget(GameContext ctx) {
-        if (RANDOM.nextDouble() < 0.3) { // 30% de probabilidad
+        if (random.nextDouble() < 0.3) { // 30% de probabilidad
             List<Defense> defenses = ctx.getBoard().getActiveDefenses();
             if (!defenses.isEmpty()) {
                 // Elige una defensa al azar
-                return defenses.get(RANDOM.nextInt(defenses.size())).getPosition();
+                return defenses.get(random.nextInt(defenses.size())).getPosition();
             }
         }
         // 70% de las veces, o si no hay defensas, va a la reliquia
@@ -200,4 +203,6 @@ public class Zombie extends Component {
     // --- Getters ---
     public double getMovementSpeed() { return movementSpeed; }
     public AIType getAiType() { return aiType; }
+
+    public void setRandom(SplittableRandom random) { this.random = random; }
 }
\ No newline at end of file
@@ -5,7 +5,10 @@ import diblo.thewalkingtec.model.*;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
 
 /**
  * Representa el tablero de juego (cuadrícula 25x25).
@@ -15,21 +18,36 @@ import java.util.stream.Collectors;
 public class Board implements Serializable {
     private static final long serialVersionUID = 1L;
     public static final int SIZE = 25; // Tamaño del tablero (25x25)
+    // Vecinos válidos (Arriba, Abajo, Izq, Der) de cada celda, indexados por Position.getIndex()
+    private static final Position[][] NEIGHBORS = buildNeighborTable();
+    private static final Position[] NO_NEIGHBORS = new Position[0];
 
     private final Cell[][] grid; // La cuadrícula de celdas
-    // Listas para acceso rápido a componentes, evitando iterar la cuadrícula
+    // Listas para acceso rápido a componentes, evitando iterar la cuadrícula.
+    // Cada componente guarda su índice (boardSlot) para poder removerlo en O(1).
     private final List<Defense> activeDefenses;
     private final List<Zombie> activeZombies;
+    // Componentes destruidos durante el tick (se encolan ellos mismos desde cualquier hilo)
+    private final Queue<Component> destroyedQueue;
+    // Estado caliente de los zombies en arreglos paralelos (slot == boardSlot)
+    private final ZombieStore zombieStore;
+    // Hash incremental de los componentes (tipo, celda, vida)
+    private final StateHash stateHash;
+    // Grafo de clusters para rutas largas (se recalcula por partes al cambiar las defensas terrestres)
+    private transient volatile PathHierarchy pathHierarchy;
 
     public Board() {
         grid = new Cell[SIZE][SIZE];
         activeDefenses = new ArrayList<>();
         activeZombies = new ArrayList<>();
+        destroyedQueue = new ConcurrentLinkedQueue<>();
+        zombieStore = new ZombieStore();
+        stateHash = new StateHash();
 
         // Inicializa cada celda en la cuadrícula
         for (int i = 0; i < SIZE; i++) {
             for (int j = 0; j < SIZE; j++) {
-                grid[i][j] = new Cell(new Position(i, j));
+                grid[i][j] = new Cell(Position.of(i, j));
             }
         }
     }
@@ -46,6 +64,7 @@ public class Board implements Serializable {
             return false;
         }
 
+        pos = Position.of(pos.getX(), pos.getY()); // Instancia canónica
         Cell cell = getCell(pos.getX(), pos.getY());
 
         // Regla de colocación: Las unidades terrestres no pueden apilarse.
@@ -57,13 +76,17 @@ public class Board implements Serializable {
 
         cell.addOccupant(component);
         component.setPosition(pos);
+        groundDefenseChanged(component, pos);
 
-        // Añade a las listas de acceso rápido
+        // Añade a las listas de acceso rápido (guardando su índice)
         if (component instanceof Defense) {
+            component.setBoardSlot(activeDefenses.size());
             activeDefenses.add((Defense) component);
         } else if (component instanceof Zombie) {
+            component.setBoardSlot(zombieStore.add((Zombie) component, pos.getX(), pos.getY()));
             activeZombies.add((Zombie) component);
         }
+        stateHash.add(component);
 
         return true;
     }
@@ -79,19 +102,60 @@ public class Board implements Serializable {
         // Quita de la celda
         if (pos != null && isValidPosition(pos)) {
             getCell(pos.getX(), pos.getY()).removeOccupant(component);
+            groundDefenseChanged(component, pos);
         }
 
         // Quita de las listas activas
+        boolean removed = false;
         if (component instanceof Defense) {
-            activeDefenses.remove(component);
+            removed = swapRemove(activeDefenses, component);
         } else if (component instanceof Zombie) {
-            activeZombies.remove(component);
+            int slot = component.getBoardSlot();
+            removed = swapRemove(activeZombies, component);
+            if (removed) {
+                zombieStore.removeAt(slot); // Mismo intercambio que en la lista
+            }
+        }
+        if (removed) {
+            stateHash.remove(component);
+        }
+    }
+
+    /**
+     * Remueve un componente de una lista activa en O(1): mueve el último elemento
+     * a la posición del removido y actualiza su índice guardado.
+     * @return true si el componente estaba en la lista.
+     */
+    private <T extends Component> boolean swapRemove(List<T> list, Component component) {
+        int slot = component.getBoardSlot();
+        if (slot < 0 || slot >= list.size() || list.get(slot) != component) {
+            return false; // No está en la lista (ej. ya fue removido)
+        }
+        T last = list.remove(list.size() - 1);
+        if (last != component) {
+            list.set(slot, last);
+            last.setBoardSlot(slot);
         }
+        component.setBoardSlot(-1);
+        return true;
+    }
+
+    /**
+     * Encola un componente recién destruido para removerlo al final del tick.
+     * Lo llama el propio componente (Component.markDestroyed) desde su hilo.
+     */
+    public void enqueueDestroyed(Component component) {
+        if (component instanceof Zombie && component.getBoardSlot() >= 0) {
+            zombieStore.markDead(component.getBoardSlot()); // Deja de contar en los recorridos
+        }
+        destroyedQueue.add(component);
     }
 
     /**
      * Mueve un componente de una celda a otra, aplicando lógica de colisión.
      * Este es el único método que debe usarse para cambiar la posición de un componente.
+     * Durante el tick los componentes no lo llaman directamente: anotan el paso con
+     * GameContext.queueMove() y el MoveBuffer lo aplica desde el hilo del tick.
      *
      * @param component El componente a mover.
      * @param newPos La nueva posición deseada.
@@ -119,28 +183,43 @@ public class Board implements Serializable {
         }
 
         // Realiza el movimiento
+        Position oldPos = component.getPosition();
         oldCell.removeOccupant(component);
         newCell.addOccupant(component);
-        component.setPosition(newPos);
+        component.setPosition(Position.of(newPos.getX(), newPos.getY()));
+        groundDefenseChanged(component, oldPos);
+        groundDefenseChanged(component, newPos);
+        if (component instanceof Zombie && component.getBoardSlot() >= 0) {
+            zombieStore.setPosition(component.getBoardSlot(), newPos.getX(), newPos.getY());
+        }
+        stateHash.update(component);
         return true;
     }
 
     /**
-     * Itera por todo el tablero y remueve los componentes marcados como 'isDestroyed'.
+     * Remueve del tablero los componentes destruidos durante el tick.
+     * Solo vacía la cola de muertes, así que el costo depende de las muertes
+     * del tick y no del tamaño del tablero ni del número de componentes.
      * Se llama al final de cada gameTick.
      */
     public void cleanupDestroyedComponents() {
-        List<Component> toRemove = new ArrayList<>();
-        // Recorre la cuadrícula buscando componentes destruidos
-        for (Cell[] row : grid) {
-            for (Cell cell : row) {
-                toRemove.addAll(cell.getOccupants().stream()
-                        .filter(Component::isDestroyed)
-                        .collect(Collectors.toList()));
+        cleanupDestroyedComponents(null);
+    }
+
+    /**
+     * Igual que cleanupDestroyedComponents(), avisando de cada componente removido
+     * (ej. para contar las muertes en las estadísticas).
+     *
+     * @param onRemoved Se llama con cada componente quitado del tablero; puede ser null.
+     */
+    public void cleanupDestroyedComponents(Consumer<? super Component> onRemoved) {
+        Component component;
+        while ((component = destroyedQueue.poll()) != null) {
+            if (component.getBoardSlot() >= 0) { // Puede haber sido vendido antes de la limpieza
+                removeComponent(component); // Lo quita de la celda y de las listas activas
+                if (onRemoved != null) onRemoved.accept(component);
             }
         }
-        // Llama a removeComponent para cada uno (esto los quita de las listas activas también)
-        toRemove.forEach(this::removeComponent);
     }
 
     /**
@@ -170,9 +249,8 @@ public class Board implements Serializable {
      */
     public Defense getDefenseAt(Position pos) {
         if (!isValidPosition(pos)) return null;
-        return (Defense) getCell(pos.getX(), pos.getY()).getOccupants().stream()
-                .filter(c -> c instanceof Defense && !c.isDestroyed())
-                .findFirst().orElse(null);
+        return (Defense) getCell(pos.getX(), pos.getY())
+                .findOccupant(c -> c instanceof Defense && !c.isDestroyed());
     }
 
     /**
@@ -181,9 +259,8 @@ public class Board implements Serializable {
      */
     public Zombie getZombieAt(Position pos) {
         if (!isValidPosition(pos)) return null;
-        return (Zombie) getCell(pos.getX(), pos.getY()).getOccupants().stream()
-                .filter(c -> c instanceof Zombie && !c.isDestroyed())
-                .findFirst().orElse(null);
+        return (Zombie) getCell(pos.getX(), pos.getY())
+                .findOccupant(c -> c instanceof Zombie && !c.isDestroyed());
     }
 
     /**
@@ -192,45 +269,59 @@ public class Board implements Serializable {
      */
     public Component getComponentAt(Position pos) {
         if (!isValidPosition(pos)) return null;
-        return getCell(pos.getX(), pos.getY()).getOccupants().stream()
-                .findFirst().orElse(null);
+        return getCell(pos.getX(), pos.getY()).getFirstOccupant();
     }
 
     /**
      * Devuelve las posiciones vecinas válidas (Arriba, Abajo, Izquierda, Derecha).
      * Usado por el PathfindingService y para ataques adyacentes.
      *
+     * El arreglo devuelto es compartido (precalculado): NO debe modificarse.
+     *
      * @param pos La posición central.
-     * @return Una lista de 2 a 4 posiciones vecinas válidas.
+     * @return Un arreglo de 2 a 4 posiciones vecinas válidas (vacío si pos está fuera del tablero).
      */
-    public List<Position> getNeighbors(Position pos) {
-        List<Position> neighbors = new ArrayList<>();
-        // Define los 4 movimientos direccionales
-        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}}; // Arriba, Abajo, Izq, Der
+    public Position[] getNeighbors(Position pos) {
+        int index = pos.getIndex();
+        return index >= 0 ? NEIGHBORS[index] : NO_NEIGHBORS;
+    }
 
-        for (int[] dir : directions) {
-            Position next = new Position(pos.getX() + dir[0], pos.getY() + dir[1]);
-            if (isValidPosition(next)) {
-                neighbors.add(next);
+    /**
+     * Calcula una sola vez los vecinos válidos de cada celda del tablero.
+     */
+    private static Position[][] buildNeighborTable() {
+        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}}; // Arriba, Abajo, Izq, Der
+        Position[][] table = new Position[SIZE * SIZE][];
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                List<Position> neighbors = new ArrayList<>(4);
+                for (int[] dir : directions) {
+                    int nx = x + dir[0];
+                    int ny = y + dir[1];
+                    if (nx >= 0 && nx < SIZE && ny >= 0 && ny < SIZE) {
+                        neighbors.add(Position.of(nx, ny));
+                    }
+                }
+                table[x * SIZE + y] = neighbors.toArray(new Position[0]);
             }
         }
-        return neighbors;
+        return table;
     }
 
     /**
      * Genera una posición aleatoria en uno de los 4 bordes del tablero.
      * Usado para el spawn de zombies.
      *
+     * @param rand El generador de la partida (no se crea uno por llamada).
      * @return Una Posición en el borde (x=0, x=24, y=0, o y=24).
      */
-    public Position getRandomEdgePosition() {
-        java.util.Random rand = new java.util.Random();
+    public Position getRandomEdgePosition(RandomGenerator rand) {
         int side = rand.nextInt(4); // Elige un lado (0=arriba, 1=abajo, 2=izq, 3=der)
         return switch (side) {
-            case 0 -> new Position(0, rand.nextInt(SIZE)); // Borde superior
-            case 1 -> new Position(SIZE - 1, rand.nextInt(SIZE)); // Borde inferior
-            case 2 -> new Position(rand.nextInt(SIZE), 0); // Borde izquierdo
-            default -> new Position(rand.nextInt(SIZE), SIZE - 1); // Borde derecho
+            case 0 -> Position.of(0, rand.nextInt(SIZE)); // Borde superior
+            case 1 -> Position.of(SIZE - 1, rand.nextInt(SIZE)); // Borde inferior
+            case 2 -> Position.of(rand.nextInt(SIZE), 0); // Borde izquierdo
+            default -> Position.of(rand.nextInt(SIZE), SIZE - 1); // Borde derecho
         };
     }
 
@@ -239,8 +330,14 @@ public class Board implements Serializable {
      * Se usa al iniciar un nuevo nivel.
      */
     public void clear() {
+        activeDefenses.forEach(d -> d.setBoardSlot(-1));
+        activeZombies.forEach(z -> z.setBoardSlot(-1));
         activeDefenses.clear();
         activeZombies.clear();
+        zombieStore.clear();
+        stateHash.clear();
+        destroyedQueue.clear();
+        if (pathHierarchy != null) pathHierarchy.markAllChanged();
         for (int i = 0; i < SIZE; i++) {
             for (int j = 0; j < SIZE; j++) {
                 grid[i][j].clear();
@@ -248,6 +345,33 @@ public class Board implements Serializable {
         }
     }
 
+    /**
+     * Avisa al grafo de rutas largas si cambió una celda bloqueada por una defensa terrestre.
+     * Los zombies no cuentan: se mueven cada tick y el refinamiento ya los esquiva.
+     */
+    private void groundDefenseChanged(Component component, Position pos) {
+        if (pathHierarchy != null && component instanceof Defense && !component.getType().isAerial()) {
+            pathHierarchy.markChanged(pos);
+        }
+    }
+
+    /**
+     * Grafo de clusters del tablero para rutas largas (se crea al primer uso).
+     */
+    PathHierarchy getPathHierarchy() {
+        PathHierarchy hierarchy = pathHierarchy;
+        if (hierarchy == null) {
+            synchronized (this) {
+                hierarchy = pathHierarchy;
+                if (hierarchy == null) {
+                    hierarchy = new PathHierarchy(this); // Nace completo por recalcular
+                    pathHierarchy = hierarchy;
+                }
+            }
+        }
+        return hierarchy;
+    }
+
     // --- Getters ---
 
     /** Devuelve una COPIA de la lista de defensas activas. */
@@ -260,6 +384,24 @@ public class Board implements Serializable {
         return new ArrayList<>(activeZombies);
     }
 
+    /** Zombie que ocupa un slot de la lista activa (ver ZombieStore). */
+    public Zombie getZombieInSlot(int slot) {
+        return activeZombies.get(slot);
+    }
+
+    /** Cantidad de zombies en el tablero, sin copiar la lista. */
+    public int getActiveZombieCount() {
+        return activeZombies.size();
+    }
+
+    public ZombieStore getZombieStore() {
+        return zombieStore;
+    }
+
+    public StateHash getStateHash() {
+        return stateHash;
+    }
+
     public int getSize() {
         return SIZE;
     }
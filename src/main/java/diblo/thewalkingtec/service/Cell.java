@@ -2,52 +2,150 @@ package diblo.thewalkingtec.service;
 
 import diblo.thewalkingtec.model.Component;
 import diblo.thewalkingtec.model.Position;
-import diblo.thewalkingtec.model.enums.ComponentType;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * Representa una celda individual en el tablero (Board).
  * Es capaz de contener múltiples componentes, permitiendo que
  * un componente aéreo (Dron) y uno terrestre (Torreta) coexistan.
+ *
+ * Los ocupantes se guardan en un arreglo pequeño que se reemplaza en cada
+ * alta/baja (copy-on-write). Así las lecturas, que son muchísimo más frecuentes
+ * (pathfinding, búsqueda de objetivos), no necesitan candado ni crean copias.
+ * Los conteos por capa (terrestre/aérea) se mantienen al agregar y remover,
+ * por lo que consultar la ocupación es una simple lectura de campo.
  */
 public class Cell implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final Component[] EMPTY = new Component[0];
 
     private final Position position;
-    private final List<Component> occupants; // Lista de componentes en esta celda
+    private volatile Component[] occupants = EMPTY; // Componentes en esta celda (nunca se modifica en sitio)
+
+    // --- Ocupación por capa (actualizada en addOccupant/removeOccupant) ---
+    private volatile int groundCount;
+    private volatile int aerialCount;
+    private volatile Component groundOccupant; // Primer ocupante terrestre, o null
+    private volatile Component aerialOccupant; // Primer ocupante aéreo, o null
 
     public Cell(Position position) {
         this.position = position;
-        this.occupants = new ArrayList<>();
     }
 
     public boolean isEmpty() {
-        return occupants.isEmpty();
+        return occupants.length == 0;
     }
 
-    public void addOccupant(Component component) {
-        if (!occupants.contains(component)) {
-            occupants.add(component);
+    public synchronized void addOccupant(Component component) {
+        Component[] current = occupants;
+        for (Component c : current) {
+            if (c == component) return; // Ya está en la celda
+        }
+        Component[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = component;
+        occupants = updated;
+
+        if (component.getType().isAerial()) {
+            aerialCount++;
+            if (aerialOccupant == null) aerialOccupant = component;
+        } else {
+            groundCount++;
+            if (groundOccupant == null) groundOccupant = component;
+        }
+    }
+
+    public synchronized void removeOccupant(Component component) {
+        Component[] current = occupants;
+        int index = -1;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == component) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) return; // No estaba en la celda
+
+        Component[] updated = EMPTY;
+        if (current.length > 1) {
+            updated = new Component[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        }
+        occupants = updated;
+
+        boolean aerial = component.getType().isAerial();
+        if (aerial) {
+            aerialCount--;
+            if (aerialOccupant == component) aerialOccupant = firstOfLayer(updated, true);
+        } else {
+            groundCount--;
+            if (groundOccupant == component) groundOccupant = firstOfLayer(updated, false);
         }
     }
 
-    public void removeOccupant(Component component) {
-        occupants.remove(component);
+    private static Component firstOfLayer(Component[] candidates, boolean aerial) {
+        for (Component c : candidates) {
+            if (c.getType().isAerial() == aerial) return c;
+        }
+        return null;
     }
 
-    public void clear() {
-        occupants.clear();
+    public synchronized void clear() {
+        occupants = EMPTY;
+        groundCount = 0;
+        aerialCount = 0;
+        groundOccupant = null;
+        aerialOccupant = null;
     }
 
     /**
      * Devuelve una COPIA de la lista de ocupantes.
+     * Para recorridos frecuentes, preferir forEachOccupant() o findOccupant(), que no copian.
      */
     public List<Component> getOccupants() {
-        return new ArrayList<>(occupants);
+        return new ArrayList<>(Arrays.asList(occupants));
+    }
+
+    /**
+     * Recorre los ocupantes sin copiar la lista.
+     * Trabaja sobre una instantánea: si la celda cambia durante el recorrido,
+     * el cambio se verá en la siguiente consulta.
+     */
+    public void forEachOccupant(Consumer<? super Component> action) {
+        for (Component c : occupants) {
+            action.accept(c);
+        }
+    }
+
+    /**
+     * Obtiene el primer ocupante que cumple la condición, sin copiar la lista.
+     * @return El componente encontrado, o null si ninguno cumple.
+     */
+    public Component findOccupant(Predicate<? super Component> filter) {
+        for (Component c : occupants) {
+            if (filter.test(c)) return c;
+        }
+        return null;
+    }
+
+    /**
+     * Obtiene el primer ocupante de la celda (de cualquier tipo).
+     * @return El componente, o null si está vacía.
+     */
+    public Component getFirstOccupant() {
+        Component[] current = occupants;
+        return current.length > 0 ? current[0] : null;
+    }
+
+    public int getOccupantCount() {
+        return occupants.length;
     }
 
     public Position getPosition() {
@@ -56,11 +154,11 @@ public class Cell implements Serializable {
 
     /**
      * Verifica si la celda contiene al menos un componente terrestre (no aéreo).
+     * Es una lectura de campo: se usa en el bucle interno del pathfinding.
      * @return true si hay un componente terrestre.
      */
     public boolean hasGroundOccupant() {
-        // Devuelve true si CUALQUIER ocupante NO es aéreo
-        return occupants.stream().anyMatch(c -> !c.getType().isAerial());
+        return groundCount > 0;
     }
 
     /**
@@ -68,8 +166,25 @@ public class Cell implements Serializable {
      * @return true si hay un componente aéreo.
      */
     public boolean hasAerialOccupant() {
-        // Devuelve true si CUALQUIER ocupante ES aéreo
-        return occupants.stream().anyMatch(c -> c.getType().isAerial());
+        return aerialCount > 0;
+    }
+
+    /** Primer ocupante terrestre de la celda, o null. */
+    public Component getGroundOccupant() {
+        return groundOccupant;
+    }
+
+    /** Primer ocupante aéreo de la celda, o null. */
+    public Component getAerialOccupant() {
+        return aerialOccupant;
+    }
+
+    public int getGroundCount() {
+        return groundCount;
+    }
+
+    public int getAerialCount() {
+        return aerialCount;
     }
 
     /**
@@ -77,9 +192,11 @@ public class Cell implements Serializable {
      * @return Una lista de componentes no aéreos.
      */
     public List<Component> getGroundOccupants() {
-        return occupants.stream()
-                .filter(c -> !c.getType().isAerial())
-                .collect(Collectors.toList());
+        List<Component> ground = new ArrayList<>(groundCount);
+        for (Component c : occupants) {
+            if (!c.getType().isAerial()) ground.add(c);
+        }
+        return ground;
     }
 
     @Override
@@ -88,9 +205,9 @@ public class Cell implements Serializable {
             return "Empty Cell at " + position;
         }
         // Crea un string con los nombres, ej. "Torreta, Dron"
-        String occupantNames = occupants.stream()
+        String occupantNames = Arrays.stream(occupants)
                 .map(Component::getName)
                 .collect(Collectors.joining(", "));
         return "Cell at " + position + " occupied by " + occupantNames;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,257 @@
+package diblo.thewalkingtec.service;
+
+import diblo.thewalkingtec.model.Component;
+import diblo.thewalkingtec.model.Defense;
+import diblo.thewalkingtec.model.enums.ComponentType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estadísticas de combate del nivel, acumuladas durante el tick.
+ *
+ * Todo son contadores primitivos indexados por tipo: por id de configuración
+ * (ej. "turret", "zombie_tank") y por ComponentType. Se alimentan desde la fase de
+ * daño del DamageBuffer, la limpieza del Board y las colocaciones, así que el reporte
+ * de fin de nivel cuesta O(tipos) en vez de recorrer componentes y logs.
+ *
+ * Además guarda los componentes destruidos del nivel (en orden de muerte), que el
+ * Board ya limpió, para que el reporte de fin de nivel pueda mostrarlos con su log.
+ *
+ * El DPS se mide sobre una ventana deslizante de DPS_WINDOW_TICKS ticks
+ * (un anillo con el daño de cada tick y su suma corriente).
+ *
+ * Escribe el hilo del tick; la UI lee con snapshot(). Ambos usan el monitor del objeto
+ * (la fase de daño lo toma una sola vez por tick, no por golpe).
+ */
+public class CombatStats {
+
+    public static final int DPS_WINDOW_TICKS = 50; // 5 s de juego
+    private static final double SECONDS_PER_TICK = 0.1;
+    private static final int KINDS = ComponentType.values().length;
+
+    // --- Por id de configuración (índice asignado la primera vez que aparece el id) ---
+    private final Map<String, Integer> idIndex = new HashMap<>();
+    private String[] ids = new String[8];
+    private ComponentType[] kinds = new ComponentType[8];
+    private boolean[] defenses = new boolean[8]; // Bando (el ComponentType no lo define: hay zombies CONTACT)
+    private long[] damageDealt = new long[8];
+    private long[] damageTaken = new long[8];
+    private long[] hits = new long[8];
+    private long[] relicDamage = new long[8]; // Daño a la reliquia (solo enemigos)
+    private int[] kills = new int[8];
+    private int[] deaths = new int[8];
+    private int[] placed = new int[8];
+    private int[] removed = new int[8]; // Vendidas (defensas)
+    private int typeCount;
+
+    // --- Por ComponentType (índice = ordinal) ---
+    private final long[] damageDealtByKind = new long[KINDS];
+    private final long[] damageTakenByKind = new long[KINDS];
+
+    // --- Ventana deslizante de DPS (defensas / enemigos) ---
+    private final long[] defenseWindow = new long[DPS_WINDOW_TICKS];
+    private final long[] enemyWindow = new long[DPS_WINDOW_TICKS];
+    private long defenseWindowSum;
+    private long enemyWindowSum;
+    private long defenseTickDamage;
+    private long enemyTickDamage;
+    private int windowPos;
+    private int windowFilled; // Ticks válidos en la ventana (al inicio del nivel es < DPS_WINDOW_TICKS)
+
+    private long totalRelicDamage;
+    private final List<Component> fallen = new ArrayList<>(); // Destruidos y ya limpiados del tablero
+
+    /**
+     * Un golpe aplicado a un componente.
+     * @param dealt Daño efectivo (sin contar el exceso sobre la vida que le quedaba).
+     * @param killed true si este golpe dejó al objetivo en 0.
+     */
+    synchronized void recordHit(Component attacker, Component target, int dealt, boolean killed) {
+        int a = indexOf(attacker);
+        int t = indexOf(target);
+        damageDealt[a] += dealt;
+        hits[a]++;
+        damageTaken[t] += dealt;
+        damageDealtByKind[attacker.getType().ordinal()] += dealt;
+        damageTakenByKind[target.getType().ordinal()] += dealt;
+        if (killed) kills[a]++;
+        addToTick(attacker, dealt);
+    }
+
+    /**
+     * Un golpe aplicado a la reliquia.
+     */
+    synchronized void recordRelicHit(Component attacker, int dealt) {
+        int a = indexOf(attacker);
+        damageDealt[a] += dealt;
+        hits[a]++;
+        relicDamage[a] += dealt;
+        damageDealtByKind[attacker.getType().ordinal()] += dealt;
+        totalRelicDamage += dealt;
+        addToTick(attacker, dealt);
+    }
+
+    /** Un componente entró al tablero (defensa comprada o zombie generado). */
+    synchronized void recordPlaced(Component component) {
+        placed[indexOf(component)]++;
+    }
+
+    /** Una defensa fue vendida. */
+    synchronized void recordRemoved(Component component) {
+        removed[indexOf(component)]++;
+    }
+
+    /** Un componente destruido salió del tablero (por daño o autodestrucción). */
+    synchronized void recordDeath(Component component) {
+        deaths[indexOf(component)]++;
+        fallen.add(component);
+    }
+
+    private void addToTick(Component attacker, int dealt) {
+        if (attacker instanceof Defense) {
+            defenseTickDamage += dealt;
+        } else {
+            enemyTickDamage += dealt;
+        }
+    }
+
+    /**
+     * Cierra el tick: el daño del tick entra a la ventana y sale el más viejo.
+     */
+    synchronized void endTick() {
+        defenseWindowSum += defenseTickDamage - defenseWindow[windowPos];
+        enemyWindowSum += enemyTickDamage - enemyWindow[windowPos];
+        defenseWindow[windowPos] = defenseTickDamage;
+        enemyWindow[windowPos] = enemyTickDamage;
+        defenseTickDamage = 0;
+        enemyTickDamage = 0;
+        windowPos = (windowPos + 1) % DPS_WINDOW_TICKS;
+        if (windowFilled < DPS_WINDOW_TICKS) windowFilled++;
+    }
+
+    /**
+     * Reinicia todo (inicio de nivel). Los índices de tipo se conservan.
+     */
+    synchronized void reset() {
+        Arrays.fill(damageDealt, 0);
+        Arrays.fill(damageTaken, 0);
+        Arrays.fill(hits, 0);
+        Arrays.fill(relicDamage, 0);
+        Arrays.fill(kills, 0);
+        Arrays.fill(deaths, 0);
+        Arrays.fill(placed, 0);
+        Arrays.fill(removed, 0);
+        Arrays.fill(damageDealtByKind, 0);
+        Arrays.fill(damageTakenByKind, 0);
+        Arrays.fill(defenseWindow, 0);
+        Arrays.fill(enemyWindow, 0);
+        defenseWindowSum = enemyWindowSum = 0;
+        defenseTickDamage = enemyTickDamage = 0;
+        windowPos = windowFilled = 0;
+        totalRelicDamage = 0;
+        fallen.clear();
+    }
+
+    /** DPS de las defensas en la ventana deslizante (daño por segundo de juego). */
+    public synchronized double getDefenseDps() {
+        return windowFilled == 0 ? 0 : defenseWindowSum / (windowFilled * SECONDS_PER_TICK);
+    }
+
+    /** DPS de los enemigos (a defensas y reliquia) en la ventana deslizante. */
+    public synchronized double getEnemyDps() {
+        return windowFilled == 0 ? 0 : enemyWindowSum / (windowFilled * SECONDS_PER_TICK);
+    }
+
+    public synchronized long getTotalRelicDamage() {
+        return totalRelicDamage;
+    }
+
+    /**
+     * Componentes destruidos en el nivel (ya fuera del tablero), en orden de muerte.
+     */
+    public synchronized List<Component> getFallen() {
+        return List.copyOf(fallen);
+    }
+
+    /**
+     * Copia inmutable de los contadores, para la UI o los reportes. O(tipos).
+     */
+    public synchronized Snapshot snapshot() {
+        List<TypeStats> types = new ArrayList<>(typeCount);
+        for (int i = 0; i < typeCount; i++) {
+            if (placed[i] == 0 && hits[i] == 0 && damageTaken[i] == 0) continue; // No participó en este nivel
+            types.add(new TypeStats(ids[i], kinds[i], defenses[i], damageDealt[i], damageTaken[i], hits[i],
+                    relicDamage[i], kills[i], deaths[i], placed[i], removed[i]));
+        }
+        return new Snapshot(List.copyOf(types), damageDealtByKind.clone(), damageTakenByKind.clone(),
+                getDefenseDps(), getEnemyDps(), totalRelicDamage);
+    }
+
+    private int indexOf(Component component) {
+        Integer index = idIndex.get(component.getId());
+        if (index != null) return index;
+
+        if (typeCount == ids.length) {
+            int capacity = typeCount * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            defenses = Arrays.copyOf(defenses, capacity);
+            damageDealt = Arrays.copyOf(damageDealt, capacity);
+            damageTaken = Arrays.copyOf(damageTaken, capacity);
+            hits = Arrays.copyOf(hits, capacity);
+            relicDamage = Arrays.copyOf(relicDamage, capacity);
+            kills = Arrays.copyOf(kills, capacity);
+            deaths = Arrays.copyOf(deaths, capacity);
+            placed = Arrays.copyOf(placed, capacity);
+            removed = Arrays.copyOf(removed, capacity);
+        }
+        ids[typeCount] = component.getId();
+        kinds[typeCount] = component.getType();
+        defenses[typeCount] = component instanceof Defense;
+        idIndex.put(component.getId(), typeCount);
+        return typeCount++;
+    }
+
+    /**
+     * Contadores de un id de configuración.
+     */
+    public record TypeStats(String id, ComponentType kind, boolean defense, long damageDealt, long damageTaken,
+                            long hits, long relicDamage, int kills, int deaths, int placed, int removed) {
+
+        /** Cuántos siguen en el tablero (colocados - destruidos - vendidos). */
+        public int alive() {
+            return placed - deaths - removed;
+        }
+    }
+
+    /**
+     * Estado de las estadísticas en un momento dado.
+     */
+    public record Snapshot(List<TypeStats> types, long[] damageDealtByKind, long[] damageTakenByKind,
+                           double defenseDps, double enemyDps, long totalRelicDamage) {
+
+        public long damageDealtBy(ComponentType kind) {
+            return damageDealtByKind[kind.ordinal()];
+        }
+
+        public long damageTakenBy(ComponentType kind) {
+            return damageTakenByKind[kind.ordinal()];
+        }
+
+        public int totalPlaced(boolean defenses) {
+            return types.stream().filter(t -> t.defense() == defenses).mapToInt(TypeStats::placed).sum();
+        }
+
+        public int totalDeaths(boolean defenses) {
+            return types.stream().filter(t -> t.defense() == defenses).mapToInt(TypeStats::deaths).sum();
+        }
+
+        public int totalAlive(boolean defenses) {
+            return types.stream().filter(t -> t.defense() == defenses).mapToInt(TypeStats::alive).sum();
+        }
+    }
+}
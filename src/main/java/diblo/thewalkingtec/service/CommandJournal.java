@@ -0,0 +1,260 @@
+package diblo.thewalkingtec.service;
+
+import diblo.thewalkingtec.model.Position;
+import diblo.thewalkingtec.util.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diario de comandos de una partida: registra, con su número de tick, las únicas
+ * entradas externas del juego (colocar/remover defensa, pausa, reanudar, siguiente
+ * nivel, reiniciar nivel) y checkpoints con el hash del estado.
+ *
+ * Con la semilla del encabezado y la misma configuración, ReplayEngine puede volver
+ * a ejecutar la partida sin interfaz y verificar los checkpoints.
+ *
+ * Formato binario, solo de anexado:
+ *   Encabezado: MAGIC (int), VERSION (short), semilla (long), huella del config (int),
+ *               intervalo de checkpoints (int), nombre del jugador (UTF).
+ *   Registro:   tipo (byte), delta de tick respecto al registro anterior (varint), datos del tipo.
+ * Cada registro se vacía a disco al escribirse, así que un cierre abrupto pierde como mucho el último.
+ */
+public class CommandJournal implements Closeable {
+
+    private static final int MAGIC = 0x54574A31; // "TWJ1"
+    private static final short VERSION = 1;
+    public static final String EXTENSION = ".twj";
+
+    public enum CommandType {
+        PLACE(1), REMOVE(2), PAUSE(3), RESUME(4), NEXT_LEVEL(5), RESTART_LEVEL(6), CHECKPOINT(7);
+
+        private final byte code;
+
+        CommandType(int code) {
+            this.code = (byte) code;
+        }
+
+        static CommandType fromCode(byte code) throws IOException {
+            for (CommandType type : values()) {
+                if (type.code == code) return type;
+            }
+            throw new IOException("Tipo de comando desconocido en el diario: " + code);
+        }
+    }
+
+    /**
+     * Encabezado del diario.
+     */
+    public record Header(long seed, int configFingerprint, int checkpointInterval, String playerName) {}
+
+    /**
+     * Un registro del diario. Los campos que no aplican al tipo valen null / -1 / 0.
+     *
+     * @param tick Ticks completados cuando se aplicó el comando (o tick del checkpoint).
+     */
+    public record Command(CommandType type, long tick, String defenseId, int x, int y, long stateHash) {
+        public Position position() {
+            return Position.of(x, y);
+        }
+    }
+
+    private final DataOutputStream out;
+    private final Header header;
+    private long lastTick;
+    private boolean closed;
+
+    private CommandJournal(DataOutputStream out, Header header) {
+        this.out = out;
+        this.header = header;
+    }
+
+    /**
+     * Crea un diario nuevo (sobrescribe si existe) y escribe su encabezado.
+     */
+    public static CommandJournal create(Path path, Header header) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path.toFile())));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(header.seed());
+        out.writeInt(header.configFingerprint());
+        out.writeInt(header.checkpointInterval());
+        out.writeUTF(header.playerName() == null ? "" : header.playerName());
+        out.flush();
+        return new CommandJournal(out, header);
+    }
+
+    /**
+     * Borra los diarios (*.twj) más viejos de una carpeta hasta dejar como mucho 'keep'.
+     * Un archivo que no se puede borrar solo se registra en el log.
+     * @return Cantidad de diarios borrados.
+     */
+    public static int prune(Path directory, int keep) throws IOException {
+        if (!Files.isDirectory(directory)) return 0;
+        List<Path> journals = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            files.forEach(journals::add);
+        }
+        if (journals.size() <= keep) return 0;
+
+        Map<Path, Long> modified = new HashMap<>();
+        for (Path file : journals) {
+            modified.put(file, Files.getLastModifiedTime(file).toMillis());
+        }
+        journals.sort(Comparator.comparing((Path file) -> modified.get(file)).thenComparing(Path::getFileName));
+
+        int deleted = 0;
+        for (Path file : journals.subList(0, journals.size() - Math.max(0, keep))) {
+            try {
+                Files.deleteIfExists(file);
+                deleted++;
+            } catch (IOException e) {
+                Logger.warning("No se pudo borrar el diario viejo " + file + ": " + e.getMessage());
+            }
+        }
+        return deleted;
+    }
+
+    // --- Escritura (puede llamarse desde la UI y desde el hilo del tick) ---
+
+    public void recordPlace(long tick, String defenseId, Position pos) {
+        write(CommandType.PLACE, tick, defenseId, pos.getX(), pos.getY(), 0);
+    }
+
+    public void recordRemove(long tick, Position pos) {
+        write(CommandType.REMOVE, tick, null, pos.getX(), pos.getY(), 0);
+    }
+
+    public void recordPause(long tick) { write(CommandType.PAUSE, tick, null, -1, -1, 0); }
+    public void recordResume(long tick) { write(CommandType.RESUME, tick, null, -1, -1, 0); }
+    public void recordNextLevel(long tick) { write(CommandType.NEXT_LEVEL, tick, null, -1, -1, 0); }
+    public void recordRestartLevel(long tick) { write(CommandType.RESTART_LEVEL, tick, null, -1, -1, 0); }
+
+    public void recordCheckpoint(long tick, long stateHash) {
+        write(CommandType.CHECKPOINT, tick, null, -1, -1, stateHash);
+    }
+
+    private synchronized void write(CommandType type, long tick, String defenseId, int x, int y, long hash) {
+        if (closed) return;
+        try {
+            out.writeByte(type.code);
+            writeVarLong(out, tick - lastTick); // Los ticks solo avanzan: el delta es chico
+            lastTick = tick;
+            switch (type) {
+                case PLACE -> {
+                    out.writeUTF(defenseId);
+                    out.writeByte(x);
+                    out.writeByte(y);
+                }
+                case REMOVE -> {
+                    out.writeByte(x);
+                    out.writeByte(y);
+                }
+                case CHECKPOINT -> out.writeLong(hash);
+                default -> { }
+            }
+            out.flush();
+        } catch (IOException e) {
+            closed = true; // Un diario incompleto sigue siendo reproducible hasta este punto
+            Logger.error("No se pudo escribir el diario de comandos; se desactiva", e);
+        }
+    }
+
+    public Header getHeader() {
+        return header;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            out.close();
+        } catch (IOException e) {
+            Logger.error("Error al cerrar el diario de comandos", e);
+        }
+    }
+
+    // --- Lectura ---
+
+    /**
+     * Contenido completo de un diario (los diarios son pequeños: se leen de una vez).
+     */
+    public record Contents(Header header, List<Command> commands) {}
+
+    /**
+     * Lee un diario. Un registro truncado al final (ej. cierre abrupto) se ignora.
+     */
+    public static Contents read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path.toFile())))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("No es un diario de comandos: " + path);
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("Versión de diario no soportada: " + version);
+            }
+            Header header = new Header(in.readLong(), in.readInt(), in.readInt(), in.readUTF());
+
+            List<Command> commands = new ArrayList<>();
+            long tick = 0;
+            while (true) {
+                int code = in.read();
+                if (code < 0) break; // Fin del archivo
+                try {
+                    CommandType type = CommandType.fromCode((byte) code);
+                    tick += readVarLong(in);
+                    commands.add(switch (type) {
+                        case PLACE -> new Command(type, tick, in.readUTF(), in.readByte(), in.readByte(), 0);
+                        case REMOVE -> new Command(type, tick, null, in.readByte(), in.readByte(), 0);
+                        case CHECKPOINT -> new Command(type, tick, null, -1, -1, in.readLong());
+                        default -> new Command(type, tick, null, -1, -1, 0);
+                    });
+                } catch (EOFException e) {
+                    break; // Último registro incompleto
+                }
+            }
+            return new Contents(header, commands);
+        }
+    }
+
+    // --- Varint (LEB128 sin signo) ---
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+            shift += 7;
+            if (shift > 63) throw new IOException("Varint inválido en el diario");
+        }
+    }
+}
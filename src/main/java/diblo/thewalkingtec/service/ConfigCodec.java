@@ -0,0 +1,331 @@
+package diblo.thewalkingtec.service;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import diblo.thewalkingtec.model.config.DefenseConfig;
+import diblo.thewalkingtec.model.config.EnemyConfig;
+import diblo.thewalkingtec.model.config.GameConfig;
+import diblo.thewalkingtec.model.config.LevelConfig;
+import diblo.thewalkingtec.model.config.WaveConfig;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lectura y escritura de config.json campo por campo con JsonReader/JsonWriter (sin reflexión).
+ *
+ * Recorre el JSON una sola vez y arma directamente los objetos de configuración, sin árbol
+ * intermedio ni acceso reflectivo a los campos. Los campos desconocidos se saltan y los
+ * nulos se omiten al escribir, así que el JSON es el mismo que generaba Gson por reflexión
+ * (mismo orden de campos): la huella de ConfigurationManager.fingerprint no cambia.
+ *
+ * GAME_CONFIG permite registrar el códec en un Gson (ver ConfigurationManager).
+ */
+public final class ConfigCodec {
+
+    private static final String INDENT = "  "; // Igual que GsonBuilder.setPrettyPrinting()
+
+    private ConfigCodec() {}
+
+    /**
+     * TypeAdapter de GameConfig basado en este códec.
+     */
+    public static final TypeAdapter<GameConfig> GAME_CONFIG = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, GameConfig config) throws IOException {
+            writeGameConfig(out, config);
+        }
+
+        @Override
+        public GameConfig read(JsonReader in) throws IOException {
+            return readGameConfig(in);
+        }
+    };
+
+    /**
+     * Lee una configuración desde un archivo (lectura con buffer sobre NIO).
+     * @return La configuración, o null si el documento es "null".
+     * @throws IOException Si no se puede leer o el JSON es inválido.
+     */
+    public static GameConfig read(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Lee una configuración desde un Reader (no lo cierra).
+     */
+    public static GameConfig read(Reader reader) throws IOException {
+        JsonReader in = new JsonReader(reader);
+        in.setLenient(true); // Acepta lo mismo que Gson.fromJson (comentarios, comillas simples...)
+        try {
+            return readGameConfig(in);
+        } catch (IllegalStateException | NumberFormatException e) {
+            // Un tipo inesperado (ej. texto donde va un número): se reporta como archivo inválido
+            throw new IOException("JSON de configuración inválido: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Escribe una configuración en un archivo, con sangría (config.json se edita a mano).
+     */
+    public static void write(GameConfig config, Path path) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            write(config, writer, true);
+        }
+    }
+
+    /**
+     * Escribe una configuración en un Writer (no lo cierra).
+     * @param pretty true para escribir con sangría.
+     */
+    public static void write(GameConfig config, Writer writer, boolean pretty) throws IOException {
+        JsonWriter out = new JsonWriter(writer);
+        if (pretty) out.setIndent(INDENT);
+        out.setSerializeNulls(false); // Como Gson: un campo null no se escribe
+        writeGameConfig(out, config);
+        out.flush();
+    }
+
+    // --- Lectura ---
+
+    private static GameConfig readGameConfig(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        GameConfig config = new GameConfig();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "defenses" -> config.setDefenses(readList(in, ConfigCodec::readDefense));
+                case "enemies" -> config.setEnemies(readList(in, ConfigCodec::readEnemy));
+                case "levels" -> config.setLevels(readList(in, ConfigCodec::readLevel));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return config;
+    }
+
+    private static DefenseConfig readDefense(JsonReader in) throws IOException {
+        DefenseConfig defense = new DefenseConfig();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) { // Campo null: queda el valor por defecto
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id" -> defense.setId(in.nextString());
+                case "name" -> defense.setName(in.nextString());
+                case "type" -> defense.setType(in.nextString());
+                case "baseHealth" -> defense.setBaseHealth(in.nextInt());
+                case "baseDamage" -> defense.setBaseDamage(in.nextInt());
+                case "range" -> defense.setRange(in.nextInt());
+                case "cost" -> defense.setCost(in.nextInt());
+                case "fields" -> defense.setFields(in.nextInt());
+                case "unlockLevel" -> defense.setUnlockLevel(in.nextInt());
+                case "imagePath" -> defense.setImagePath(in.nextString());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return defense;
+    }
+
+    private static EnemyConfig readEnemy(JsonReader in) throws IOException {
+        EnemyConfig enemy = new EnemyConfig();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id" -> enemy.setId(in.nextString());
+                case "name" -> enemy.setName(in.nextString());
+                case "type" -> enemy.setType(in.nextString());
+                case "aiType" -> enemy.setAiType(in.nextString());
+                case "baseHealth" -> enemy.setBaseHealth(in.nextInt());
+                case "baseDamage" -> enemy.setBaseDamage(in.nextInt());
+                case "speed" -> enemy.setSpeed(in.nextDouble());
+                case "cost" -> enemy.setCost(in.nextInt());
+                case "fields" -> enemy.setFields(in.nextInt());
+                case "unlockLevel" -> enemy.setUnlockLevel(in.nextInt());
+                case "imagePath" -> enemy.setImagePath(in.nextString());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return enemy;
+    }
+
+    private static LevelConfig readLevel(JsonReader in) throws IOException {
+        LevelConfig level = new LevelConfig();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "levelNumber" -> level.setLevelNumber(in.nextInt());
+                case "playerArmySize" -> level.setPlayerArmySize(in.nextInt());
+                case "startingMoney" -> level.setStartingMoney(in.nextInt());
+                case "enemyWaves" -> level.setEnemyWaves(readList(in, ConfigCodec::readWave));
+                case "defenseBoostPercent" -> level.setDefenseBoostPercent(in.nextDouble());
+                case "enemyBoostPercent" -> level.setEnemyBoostPercent(in.nextDouble());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return level;
+    }
+
+    private static WaveConfig readWave(JsonReader in) throws IOException {
+        WaveConfig wave = new WaveConfig();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "zombieId" -> wave.setZombieId(in.nextString());
+                case "quantity" -> wave.setQuantity(in.nextInt());
+                case "delaySeconds" -> wave.setDelaySeconds(in.nextInt());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return wave;
+    }
+
+    /**
+     * Lee un arreglo JSON con el lector de elementos dado. Un arreglo null queda como null
+     * (la validación de ConfigurationManager lo reporta) y los elementos null se saltan.
+     */
+    private static <T> List<T> readList(JsonReader in, ElementReader<T> elementReader) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<T> list = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+            } else {
+                list.add(elementReader.read(in));
+            }
+        }
+        in.endArray();
+        return list;
+    }
+
+    @FunctionalInterface
+    private interface ElementReader<T> {
+        T read(JsonReader in) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ElementWriter<T> {
+        void write(JsonWriter out, T value) throws IOException;
+    }
+
+    // --- Escritura (mismo orden de campos que las clases de configuración) ---
+
+    private static void writeGameConfig(JsonWriter out, GameConfig config) throws IOException {
+        if (config == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        writeList(out, "defenses", config.getDefenses(), ConfigCodec::writeDefense);
+        writeList(out, "enemies", config.getEnemies(), ConfigCodec::writeEnemy);
+        writeList(out, "levels", config.getLevels(), ConfigCodec::writeLevel);
+        out.endObject();
+    }
+
+    private static void writeDefense(JsonWriter out, DefenseConfig defense) throws IOException {
+        out.beginObject();
+        out.name("id").value(defense.getId());
+        out.name("name").value(defense.getName());
+        out.name("type").value(defense.getType());
+        out.name("baseHealth").value(defense.getBaseHealth());
+        out.name("baseDamage").value(defense.getBaseDamage());
+        out.name("range").value(defense.getRange());
+        out.name("cost").value(defense.getCost());
+        out.name("fields").value(defense.getFields());
+        out.name("unlockLevel").value(defense.getUnlockLevel());
+        out.name("imagePath").value(defense.getImagePath());
+        out.endObject();
+    }
+
+    private static void writeEnemy(JsonWriter out, EnemyConfig enemy) throws IOException {
+        out.beginObject();
+        out.name("id").value(enemy.getId());
+        out.name("name").value(enemy.getName());
+        out.name("type").value(enemy.getType());
+        out.name("aiType").value(enemy.getAiType());
+        out.name("baseHealth").value(enemy.getBaseHealth());
+        out.name("baseDamage").value(enemy.getBaseDamage());
+        out.name("speed").value(enemy.getSpeed());
+        out.name("cost").value(enemy.getCost());
+        out.name("fields").value(enemy.getFields());
+        out.name("unlockLevel").value(enemy.getUnlockLevel());
+        out.name("imagePath").value(enemy.getImagePath());
+        out.endObject();
+    }
+
+    private static void writeLevel(JsonWriter out, LevelConfig level) throws IOException {
+        out.beginObject();
+        out.name("levelNumber").value(level.getLevelNumber());
+        out.name("playerArmySize").value(level.getPlayerArmySize());
+        out.name("startingMoney").value(level.getStartingMoney());
+        writeList(out, "enemyWaves", level.getEnemyWaves(), ConfigCodec::writeWave);
+        out.name("defenseBoostPercent").value(level.getDefenseBoostPercent());
+        out.name("enemyBoostPercent").value(level.getEnemyBoostPercent());
+        out.endObject();
+    }
+
+    private static void writeWave(JsonWriter out, WaveConfig wave) throws IOException {
+        out.beginObject();
+        out.name("zombieId").value(wave.getZombieId());
+        out.name("quantity").value(wave.getQuantity());
+        out.name("delaySeconds").value(wave.getDelaySeconds());
+        out.endObject();
+    }
+
+    private static <T> void writeList(JsonWriter out, String name, List<T> list,
+                                      ElementWriter<T> elementWriter) throws IOException {
+        out.name(name);
+        if (list == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (T element : list) {
+            if (element == null) {
+                out.nullValue();
+            } else {
+                elementWriter.write(out, element);
+            }
+        }
+        out.endArray();
+    }
+}
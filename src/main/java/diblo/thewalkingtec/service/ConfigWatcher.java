@@ -0,0 +1,138 @@
+package diblo.thewalkingtec.service;
+
+import diblo.thewalkingtec.model.config.GameConfig;
+import diblo.thewalkingtec.util.Logger;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Vigila el archivo de configuración y recarga sus cambios mientras se juega.
+ *
+ * Un hilo de fondo espera eventos del WatchService sobre la carpeta del archivo. Cuando
+ * el archivo cambia, espera DEBOUNCE_MS a que el editor termine de escribir (suelen
+ * llegar varios eventos por guardado), lo lee y valida con ConfigurationManager.readConfig()
+ * y, si es válido y distinto del anterior, lo ofrece a la partida (normalmente
+ * Game.applyConfig, que hace el cambio entre dos ticks). Solo si la partida lo acepta
+ * pasa a ser también la configuración global (la de las partidas nuevas).
+ *
+ * Un archivo inválido o rechazado solo se registra en el log: todo sigue con la configuración anterior.
+ */
+public class ConfigWatcher implements AutoCloseable {
+
+    private static final long DEBOUNCE_MS = 300;
+
+    private final Path file;
+    private final Predicate<GameConfig> onReload;
+    private final WatchService watchService;
+    private final Thread thread;
+    private int lastFingerprint; // Huella de la última configuración entregada
+
+    /**
+     * Empieza a vigilar 'file' de inmediato.
+     * @param file Ruta del config.json en uso.
+     * @param onReload Recibe cada configuración nueva ya validada (desde el hilo del watcher)
+     *                 y devuelve false si no la puede aplicar.
+     * @throws IOException Si no se puede registrar la carpeta en el WatchService.
+     */
+    public ConfigWatcher(Path file, Predicate<GameConfig> onReload) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.onReload = onReload;
+        GameConfig current = ConfigurationManager.getConfig();
+        this.lastFingerprint = current != null ? ConfigurationManager.fingerprint(current) : 0;
+
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+
+        this.thread = new Thread(this::watchLoop, "config-watcher");
+        this.thread.setDaemon(true); // No impide cerrar la aplicación
+        this.thread.start();
+        Logger.info("Vigilando cambios en: " + this.file);
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = drainEvents(key);
+
+                // Espera a que terminen de llegar los eventos del mismo guardado
+                while (changed) {
+                    WatchKey more = watchService.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+                    if (more == null) break;
+                    drainEvents(more);
+                }
+                if (changed) reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // close(): termina el hilo
+        }
+    }
+
+    /**
+     * Consume los eventos de la llave y la rearma.
+     * @return true si alguno es del archivo vigilado.
+     */
+    private boolean drainEvents(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true; // Se perdieron eventos: por las dudas se relee
+            } else if (file.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    private void reload() {
+        GameConfig config;
+        try {
+            config = ConfigurationManager.readConfig(file.toString());
+        } catch (IOException | RuntimeException e) { // Archivo a medio escribir o con valores inválidos
+            Logger.warning("Configuración modificada pero inválida, se ignora: " + e.getMessage());
+            return;
+        }
+
+        int fingerprint = ConfigurationManager.fingerprint(config);
+        if (fingerprint == lastFingerprint) return; // Se guardó sin cambios
+
+        boolean accepted;
+        try {
+            accepted = onReload.test(config);
+        } catch (RuntimeException e) {
+            Logger.error("Error al aplicar la configuración recargada", e);
+            return;
+        }
+        if (!accepted) {
+            Logger.warning("La partida rechazó la configuración modificada; se mantiene la anterior");
+            return;
+        }
+        lastFingerprint = fingerprint;
+        ConfigurationManager.replaceConfig(config); // Las partidas nuevas también la usan
+        Logger.info("Configuración recargada desde: " + file);
+    }
+
+    /**
+     * Deja de vigilar y termina el hilo.
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            Logger.warning("No se pudo cerrar el WatchService: " + e.getMessage());
+        }
+        thread.interrupt();
+    }
+}
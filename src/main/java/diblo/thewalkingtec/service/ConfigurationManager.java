@@ -3,24 +3,38 @@ package diblo.thewalkingtec.service;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import diblo.thewalkingtec.model.config.*;
+import diblo.thewalkingtec.model.enums.ComponentType;
 import diblo.thewalkingtec.util.Logger;
 
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.EOFException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
 
 /**
  * Gestor estático para cargar, mantener y proveer la configuración del juego (config.json).
  * Esta clase debe ser cargada al inicio de la aplicación, antes de crear
  * una instancia de Game.
+ *
+ * Para simulaciones (varias partidas con configuraciones distintas a la vez) están
+ * readConfig(), createDefaultGameConfig() y copyOf(), que devuelven objetos
+ * independientes sin tocar la configuración global.
  */
 public class ConfigurationManager {
 
-    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
-    private static GameConfig gameConfig; // La configuración cargada en memoria
+    // Usa el códec manual (sin reflexión) también para copyOf() y fingerprint()
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(GameConfig.class, ConfigCodec.GAME_CONFIG)
+            .setPrettyPrinting()
+            .create();
+    private static volatile GameConfig gameConfig; // La configuración cargada en memoria (la reemplaza ConfigWatcher)
+    private static volatile String configPath; // Archivo del que se cargó (null = solo en memoria)
 
     /**
      * Obtiene la configuración global del juego.
@@ -30,28 +44,86 @@ public class ConfigurationManager {
         return gameConfig;
     }
 
+    /**
+     * Ruta del archivo cargado con loadConfig(), o null si no se cargó ninguno.
+     */
+    public static String getConfigPath() {
+        return configPath;
+    }
+
     /**
      * Carga el archivo de configuración desde una ruta específica.
      * @param path La ruta al archivo config.json.
      * @throws IOException Si el archivo no se encuentra o está corrupto.
      */
     public static void loadConfig(String path) throws IOException {
-        File file = new File(path);
-        if (!file.exists()) {
+        gameConfig = readConfig(path);
+        configPath = path;
+        Logger.info("Configuración cargada desde: " + path);
+    }
+
+    /**
+     * Reemplaza la configuración global por una ya validada y aceptada por la partida
+     * en curso (recarga en caliente).
+     */
+    static void replaceConfig(GameConfig config) {
+        gameConfig = config;
+    }
+
+    /**
+     * Lee y valida un archivo de configuración SIN reemplazar la configuración global.
+     * @param path La ruta al archivo config.json.
+     * @return Una configuración nueva e independiente.
+     * @throws IOException Si el archivo no se encuentra, está corrupto o es inválido.
+     */
+    public static GameConfig readConfig(String path) throws IOException {
+        Path file = Path.of(path);
+        if (!Files.exists(file)) {
             throw new IOException("Archivo de configuración no encontrado: " + path);
         }
 
-        try (FileReader reader = new FileReader(path)) {
-            // Deserializa el JSON a las clases Config
-            gameConfig = GSON.fromJson(reader, GameConfig.class);
+        GameConfig config;
+        try {
+            // Deserializa el JSON a las clases Config (códec en streaming, ver ConfigCodec)
+            config = ConfigCodec.read(file);
+        } catch (EOFException e) {
+            config = null; // Archivo vacío o cortado
+        }
+        if (config == null) {
+            throw new IOException("El archivo de configuración está vacío o corrupto");
+        }
 
-            if (gameConfig == null) {
-                throw new IOException("El archivo de configuración está vacío o corrupto");
-            }
+        validateConfig(config); // Valida que las listas principales no estén vacías
+        return config;
+    }
 
-            validateConfig(); // Valida que las listas principales no estén vacías
-            Logger.info("Configuración cargada desde: " + path);
-        }
+    /**
+     * Crea una copia profunda de una configuración (ej. para generar variantes de balance).
+     */
+    public static GameConfig copyOf(GameConfig config) {
+        return GSON.fromJson(GSON.toJsonTree(config), GameConfig.class);
+    }
+
+    /**
+     * Huella (CRC32 de su JSON) de una configuración. Sirve para detectar que un
+     * diario de comandos se está reproduciendo con un config distinto al grabado.
+     */
+    public static int fingerprint(GameConfig config) {
+        CRC32 crc = new CRC32();
+        crc.update(GSON.toJson(config).getBytes(StandardCharsets.UTF_8));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Construye la configuración por defecto en memoria, sin escribir archivos
+     * ni tocar la configuración global.
+     */
+    public static GameConfig createDefaultGameConfig() {
+        GameConfig config = new GameConfig();
+        config.setDefenses(createDefaultDefenses());
+        config.setEnemies(createDefaultEnemies());
+        config.setLevels(createDefaultLevels());
+        return config;
     }
 
     /**
@@ -62,31 +134,69 @@ public class ConfigurationManager {
      * @throws IOException Si hay un error de escritura.
      */
     public static void createDefaultConfig(String path) throws IOException {
-        gameConfig = new GameConfig();
-        gameConfig.setDefenses(createDefaultDefenses());
-        gameConfig.setEnemies(createDefaultEnemies());
-        gameConfig.setLevels(createDefaultLevels());
-
-        try (FileWriter writer = new FileWriter(path)) {
-            // Serializa el objeto GameConfig por defecto a JSON
-            GSON.toJson(gameConfig, writer);
-            Logger.info("Configuración por defecto creada en: " + path);
-        }
+        gameConfig = createDefaultGameConfig();
+
+        // Serializa el objeto GameConfig por defecto a JSON
+        ConfigCodec.write(gameConfig, Path.of(path));
+        Logger.info("Configuración por defecto creada en: " + path);
     }
 
     /**
-     * Valida que la configuración cargada contenga las listas esenciales.
+     * Valida que la configuración cargada contenga las listas esenciales y que sus
+     * referencias se puedan resolver: tipos de componente existentes y oleadas que
+     * nombran enemigos definidos. Un error así no se nota al cargar, sino a mitad de
+     * partida (al comprar o al generar zombies).
      */
-    private static void validateConfig() throws IOException {
-        if (gameConfig.getDefenses() == null || gameConfig.getDefenses().isEmpty()) {
+    private static void validateConfig(GameConfig config) throws IOException {
+        if (config.getDefenses() == null || config.getDefenses().isEmpty()) {
             throw new IOException("La configuración no tiene defensas definidas");
         }
-        if (gameConfig.getEnemies() == null || gameConfig.getEnemies().isEmpty()) {
+        if (config.getEnemies() == null || config.getEnemies().isEmpty()) {
             throw new IOException("La configuración no tiene enemigos definidos");
         }
-        if (gameConfig.getLevels() == null || gameConfig.getLevels().isEmpty()) {
+        if (config.getLevels() == null || config.getLevels().isEmpty()) {
             throw new IOException("La configuración no tiene niveles definidos");
         }
+        try {
+            for (DefenseConfig defense : config.getDefenses()) {
+                checkComponentType(defense.getId(), defense.getType());
+            }
+            for (EnemyConfig enemy : config.getEnemies()) {
+                checkComponentType(enemy.getId(), enemy.getType());
+            }
+            for (LevelConfig level : config.getLevels()) {
+                if (level.getEnemyWaves() != null) validateWaves(config.getEnemies(), level);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    /**
+     * Verifica que cada oleada del nivel use un enemigo definido en 'enemies'
+     * (si no, Game.createZombie falla en cada spawn y la oleada nunca termina).
+     * @throws IllegalArgumentException Con la primera oleada inválida.
+     */
+    public static void validateWaves(List<EnemyConfig> enemies, LevelConfig level) {
+        Set<String> enemyIds = new HashSet<>();
+        for (EnemyConfig enemy : enemies) enemyIds.add(enemy.getId());
+        for (WaveConfig wave : level.getEnemyWaves()) {
+            if (!enemyIds.contains(wave.getZombieId())) {
+                throw new IllegalArgumentException("Oleada con zombie desconocido en el nivel "
+                        + level.getLevelNumber() + ": " + wave.getZombieId());
+            }
+        }
+    }
+
+    /**
+     * Verifica que 'type' sea un ComponentType (igual que lo interpretan Defense y Zombie).
+     */
+    private static void checkComponentType(String id, String type) {
+        try {
+            ComponentType.valueOf(String.valueOf(type).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tipo desconocido para '" + id + "': " + type);
+        }
     }
 
     /**
@@ -0,0 +1,211 @@
+package diblo.thewalkingtec.service;
+
+import diblo.thewalkingtec.model.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Buffer de daño por tick.
+ *
+ * Durante la fase concurrente los atacantes no tocan a sus objetivos: solo anotan
+ * registros (objetivo, daño, atacante) en arreglos propios de su hilo, sin candados.
+ * Al terminar la fase, el hilo del tick los aplica todos en un orden fijo
+ * (por índice de atacante y, dentro de cada atacante, en el orden en que atacó),
+ * así que el resultado del combate no depende de cómo se repartieron los hilos.
+ *
+ * Los índices son las posiciones de los componentes en la lista del tick
+ * (Component.getTickIndex()); la reliquia usa el índice RELIC y la autodestrucción
+ * del propio atacante (zombies CRASH) el índice SELF_DESTRUCT.
+ */
+public class DamageBuffer {
+
+    public static final int RELIC = -1; // Índice de objetivo reservado para la reliquia
+    public static final int SELF_DESTRUCT = -2; // El atacante muere al aplicarse este registro
+
+    /**
+     * Registros anotados por un hilo. Solo su dueño escribe; el hilo del tick
+     * los lee cuando ya terminó la fase concurrente (invokeAll da la visibilidad).
+     */
+    private static final class Chunk {
+        final Thread owner;
+        int[] targets = new int[64];
+        int[] amounts = new int[64];
+        int[] attackers = new int[64];
+        int size;
+
+        Chunk(Thread owner) {
+            this.owner = owner;
+        }
+
+        void add(int target, int amount, int attacker) {
+            if (size == targets.length) {
+                int capacity = size * 2;
+                targets = Arrays.copyOf(targets, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                attackers = Arrays.copyOf(attackers, capacity);
+            }
+            targets[size] = target;
+            amounts[size] = amount;
+            attackers[size] = attacker;
+            size++;
+        }
+    }
+
+    private final ThreadLocal<Chunk> localChunk = ThreadLocal.withInitial(this::register);
+    private final List<Chunk> chunks = new ArrayList<>(); // Todos los chunks vivos (protegida por sí misma)
+
+    // --- Arreglos de la fase de aplicación (solo los usa el hilo del tick; se reutilizan) ---
+    private int[] sortedTargets = new int[256];
+    private int[] sortedAmounts = new int[256];
+    private int[] sortedAttackers = new int[256];
+    private int[] attackerOffsets = new int[64];
+
+    private Chunk register() {
+        Chunk chunk = new Chunk(Thread.currentThread());
+        synchronized (chunks) {
+            chunks.add(chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * Anota daño de un componente a otro. Se llama desde los hilos de componentes.
+     * Los objetivos que no están en la lista de este tick (ej. colocados a mitad del tick) se ignoran.
+     */
+    public void queue(Component attacker, Component target, int amount) {
+        int targetIndex = target.getTickIndex();
+        if (targetIndex < 0 || attacker.getTickIndex() < 0) return;
+        localChunk.get().add(targetIndex, amount, attacker.getTickIndex());
+    }
+
+    /**
+     * Anota daño de un componente a la reliquia.
+     */
+    public void queueRelic(Component attacker, int amount) {
+        if (attacker.getTickIndex() < 0) return;
+        localChunk.get().add(RELIC, amount, attacker.getTickIndex());
+    }
+
+    /**
+     * Anota la autodestrucción de un componente. Se anota después de su golpe, así que
+     * el golpe cuenta y la muerte ocurre en la fase de aplicación, no a mitad del tick.
+     */
+    public void queueSelfDestruct(Component attacker) {
+        if (attacker.getTickIndex() < 0) return;
+        localChunk.get().add(SELF_DESTRUCT, 0, attacker.getTickIndex());
+    }
+
+    /**
+     * Aplica todos los registros del tick en orden determinista y vacía el buffer.
+     * Debe llamarse desde el hilo del tick, después de que terminaron los componentes.
+     *
+     * Un golpe sobre un objetivo que ya murió (antes en esta misma pasada) o que ya
+     * no está en el tablero se descarta. Las muertes se encolan como siempre
+     * (Component.markDestroyed) y el Board las limpia a continuación.
+     *
+     * @param components La lista de componentes del tick (la que definió los índices).
+     * @param game El juego, para aplicar el daño a la reliquia y acumular las estadísticas.
+     * @return Cantidad de golpes aplicados.
+     */
+    public int apply(List<Component> components, Game game) {
+        int total = collectSorted(components.size());
+        int applied = 0;
+        CombatStats stats = game.getCombatStats();
+
+        synchronized (stats) { // Un solo candado por tick para todos los golpes
+            for (int k = 0; k < total; k++) {
+                Component attacker = components.get(sortedAttackers[k]);
+                int amount = sortedAmounts[k];
+                int targetIndex = sortedTargets[k];
+
+                if (targetIndex == SELF_DESTRUCT) {
+                    attacker.destroy();
+                    continue; // No es un golpe
+                }
+                if (targetIndex == RELIC) {
+                    int before = game.damageRelic(attacker, amount); // También lo anota en el RelicHitLog
+                    stats.recordRelicHit(attacker, Math.min(amount, before));
+                } else {
+                    Component target = components.get(targetIndex);
+                    if (target.isDestroyed() || target.getBoardSlot() < 0) continue;
+                    int before = target.receiveDamage(amount, attacker.getId(), attacker.getName());
+                    attacker.logAttack(target.getId(), target.getName(), amount, before, Math.max(0, before - amount));
+                    stats.recordHit(attacker, target, Math.min(amount, before), before > 0 && before <= amount);
+                }
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Descarta lo anotado sin aplicarlo (ej. si un tick falló a mitad de camino).
+     */
+    public void discard() {
+        synchronized (chunks) {
+            for (Chunk chunk : chunks) {
+                chunk.size = 0;
+            }
+        }
+    }
+
+    /**
+     * Junta los registros de todos los hilos ordenados por atacante (counting sort estable).
+     * Cada atacante corre en un solo hilo, así que sus golpes quedan en el orden en que los hizo.
+     * También olvida los chunks de hilos que ya terminaron (ej. pool reemplazado, hilos virtuales).
+     *
+     * @return Cantidad de registros en los arreglos sorted*.
+     */
+    private int collectSorted(int attackerCount) {
+        if (attackerOffsets.length < attackerCount + 1) {
+            attackerOffsets = new int[Math.max(attackerCount + 1, attackerOffsets.length * 2)];
+        }
+        Arrays.fill(attackerOffsets, 0, attackerCount + 1, 0);
+
+        synchronized (chunks) {
+            // 1. Conteo por atacante
+            int total = 0;
+            for (Chunk chunk : chunks) {
+                for (int i = 0; i < chunk.size; i++) {
+                    attackerOffsets[chunk.attackers[i] + 1]++;
+                }
+                total += chunk.size;
+            }
+            ensureSortedCapacity(total);
+
+            // 2. Sumas prefijas: inicio de cada atacante en los arreglos ordenados
+            for (int a = 0; a < attackerCount; a++) {
+                attackerOffsets[a + 1] += attackerOffsets[a];
+            }
+
+            // 3. Reparto (estable) y vaciado de los chunks
+            Iterator<Chunk> it = chunks.iterator();
+            while (it.hasNext()) {
+                Chunk chunk = it.next();
+                for (int i = 0; i < chunk.size; i++) {
+                    int slot = attackerOffsets[chunk.attackers[i]]++;
+                    sortedTargets[slot] = chunk.targets[i];
+                    sortedAmounts[slot] = chunk.amounts[i];
+                    sortedAttackers[slot] = chunk.attackers[i];
+                }
+                chunk.size = 0;
+                if (!chunk.owner.isAlive()) {
+                    it.remove(); // Su ThreadLocal se fue con el hilo
+                }
+            }
+            return total;
+        }
+    }
+
+    private void ensureSortedCapacity(int total) {
+        if (sortedTargets.length < total) {
+            int capacity = Math.max(total, sortedTargets.length * 2);
+            sortedTargets = new int[capacity];
+            sortedAmounts = new int[capacity];
+            sortedAttackers = new int[capacity];
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package diblo.thewalkingtec.service;
+
+import diblo.thewalkingtec.model.config.DefenseConfig;
+import diblo.thewalkingtec.model.config.EnemyConfig;
+import diblo.thewalkingtec.model.config.GameConfig;
+import diblo.thewalkingtec.model.config.LevelConfig;
+import diblo.thewalkingtec.service.HeadlessSimulation.DefenseLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Vista previa de dificultad de un solo nivel: lo juega muchas veces sin interfaz
+ * (HeadlessSimulation) con cada disposición predefinida de defensas y resume
+ * cuántas veces se gana, cuánto daño recibe la reliquia y cuánto tarda en limpiarse.
+ *
+ * Pensada para el editor: no toca la interfaz ni la configuración global. Cada prueba
+ * es una partida independiente de un nivel, con semilla base + número de prueba (las
+ * mismas semillas para todas las disposiciones, así se comparan entre sí).
+ */
+public final class DifficultyPreview {
+
+    public static final int DEFAULT_TRIALS = 16;
+    private static final int MAX_TICKS = 6_000; // 10 minutos de juego: más que eso cuenta como no terminado
+    private static final double TICKS_PER_SECOND = 10.0;
+
+    private DifficultyPreview() {}
+
+    /**
+     * Arma una configuración de un solo nivel (copia profunda: el editor puede seguir
+     * cambiando sus listas mientras corre la simulación).
+     * @throws IllegalArgumentException Si el nivel no tiene oleadas o alguna usa un zombie inexistente
+     *         (la oleada nunca terminaría de aparecer).
+     */
+    public static GameConfig singleLevelConfig(List<DefenseConfig> defenses, List<EnemyConfig> enemies,
+                                               LevelConfig level) {
+        if (level.getEnemyWaves() == null || level.getEnemyWaves().isEmpty()) {
+            throw new IllegalArgumentException("El nivel no tiene oleadas");
+        }
+        ConfigurationManager.validateWaves(enemies, level);
+
+        GameConfig config = new GameConfig();
+        config.setDefenses(new ArrayList<>(defenses));
+        config.setEnemies(new ArrayList<>(enemies));
+        config.setLevels(new ArrayList<>(List.of(level)));
+        return ConfigurationManager.copyOf(config);
+    }
+
+    /**
+     * Corre 'trials' partidas por cada disposición en el pool dado y espera los resultados.
+     * @param config Configuración de un solo nivel (ver singleLevelConfig).
+     * @return Un resumen por disposición, en el orden de DefenseLayout.values().
+     */
+    public static List<LayoutStats> run(GameConfig config, int trials, long baseSeed, ExecutorService pool)
+            throws InterruptedException, ExecutionException {
+        List<List<Future<HeadlessSimulation.Result>>> futures = new ArrayList<>();
+        for (DefenseLayout layout : DefenseLayout.values()) {
+            List<Future<HeadlessSimulation.Result>> perLayout = new ArrayList<>(trials);
+            for (int t = 0; t < trials; t++) {
+                HeadlessSimulation simulation = new HeadlessSimulation(config, baseSeed + t, MAX_TICKS);
+                simulation.setLayout(layout);
+                perLayout.add(pool.submit(simulation::run));
+            }
+            futures.add(perLayout);
+        }
+
+        List<LayoutStats> stats = new ArrayList<>();
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                List<HeadlessSimulation.Result> results = new ArrayList<>(trials);
+                for (Future<HeadlessSimulation.Result> future : futures.get(i)) {
+                    results.add(future.get());
+                }
+                stats.add(aggregate(DefenseLayout.values()[i], results));
+            }
+        } finally {
+            // Cancelado o con error: no deja partidas huérfanas ocupando el pool
+            futures.forEach(perLayout -> perLayout.forEach(f -> f.cancel(true)));
+        }
+        return stats;
+    }
+
+    private static LayoutStats aggregate(DefenseLayout layout, List<HeadlessSimulation.Result> results) {
+        int wins = 0, timeouts = 0;
+        long relicDamage = 0, clearTicks = 0;
+        for (HeadlessSimulation.Result r : results) {
+            relicDamage += r.relicDamage();
+            if (r.timedOut()) timeouts++;
+            if (r.won()) {
+                wins++;
+                clearTicks += r.levelDurationTicks()[0];
+            }
+        }
+        int n = Math.max(1, results.size());
+        double clearSeconds = wins == 0 ? 0 : clearTicks / (double) wins / TICKS_PER_SECOND;
+        return new LayoutStats(layout, results.size(), wins / (double) n, relicDamage / (double) n,
+                clearSeconds, timeouts);
+    }
+
+    /**
+     * Resumen de una disposición.
+     *
+     * @param winRate Fracción de partidas ganadas (0 a 1).
+     * @param averageRelicDamage Daño promedio a la reliquia (una derrota cuenta como la vida entera).
+     * @param averageClearSeconds Segundos de juego promedio hasta limpiar el nivel, solo entre las victorias.
+     * @param timeouts Partidas que no terminaron en MAX_TICKS.
+     */
+    public record LayoutStats(DefenseLayout layout, int trials, double winRate, double averageRelicDamage,
+                              double averageClearSeconds, int timeouts) {
+    }
+}
@@ -0,0 +1,40 @@
+package diblo.thewalkingtec.service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Backend de ejecución para el .run() de los componentes en cada tick.
+ * Se elige en Game con setExecutionMode(); el cambio se aplica al inicio del siguiente tick.
+ */
+public enum ExecutionMode {
+    FIXED_POOL("Pool fijo (10 hilos)"),
+    WORK_STEALING("Fork/Join (un hilo por núcleo)"),
+    VIRTUAL_THREADS("Hilos virtuales (uno por tarea)"),
+    INLINE("Un solo hilo (sin pool)");
+
+    static final int FIXED_POOL_SIZE = 10; // Tamaño histórico del pool fijo
+
+    private final String displayName;
+
+    ExecutionMode(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Crea el ExecutorService de este modo.
+     * @return El executor, o null para INLINE (los componentes corren en el hilo del tick).
+     */
+    public ExecutorService createExecutor() {
+        return switch (this) {
+            case FIXED_POOL -> Executors.newFixedThreadPool(FIXED_POOL_SIZE);
+            case WORK_STEALING -> Executors.newWorkStealingPool(); // Paralelismo = núcleos disponibles
+            case VIRTUAL_THREADS -> Executors.newVirtualThreadPerTaskExecutor();
+            case INLINE -> null;
+        };
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -6,13 +6,13 @@ import diblo.thewalkingtec.model.config.GameConfig;
 import diblo.thewalkingtec.model.config.LevelConfig;
 import diblo.thewalkingtec.model.config.WaveConfig;
 import diblo.thewalkingtec.util.Logger;
-import diblo.thewalkingtec.util.RandomUtils;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Motor principal del juego.
@@ -27,14 +27,13 @@ public class Game implements Serializable {
     private static final int TICKS_PER_SECOND = 10; // 10 actualizaciones de lógica por segundo
     private static final int TICK_INTERVAL_MS = 1000 / TICKS_PER_SECOND; // (100ms)
     public static final int RELIC_BASE_LIFE = 1000;
-    private static final int THREAD_POOL_SIZE = 10; // Hilos para mover componentes
 
     // --- Estado Principal (Serializado) ---
     private Board board;
     private Player player;
     private int currentLevelIndex;
     private Position relicPosition;
-    private int relicLife;
+    private final AtomicInteger relicLife = new AtomicInteger(); // La golpean zombies desde varios hilos
     private double currentDefenseBoost; // Boost de este nivel
     private double currentEnemyBoost;   // Boost de este nivel
     private boolean running;
@@ -44,13 +43,27 @@ public class Game implements Serializable {
     private int currentWaveIndex;
     private long lastSpawnTime;
     private long waveDelayTimer; // Temporizador para retraso entre oleadas
+    private long gameTimeMillis; // Reloj de simulación (avanza TICK_INTERVAL_MS por tick)
+    private long tickCount;      // Ticks simulados desde el inicio de la partida
+    private transient long lastTickHash; // Hash del estado al terminar el último tick
+    private volatile ExecutionMode executionMode = ExecutionMode.FIXED_POOL; // Backend de los componentes
+    private long seed;     // Semilla de esta partida (para reproducir simulaciones)
 
     // --- Componentes Transitorios (No serializados, se recrean) ---
     private transient GameContext context;
     private transient PathfindingService pathfindingService;
-    private transient GameConfig gameConfig; // Se obtiene de ConfigurationManager
+    private transient volatile GameConfig gameConfig; // Se obtiene de ConfigurationManager (applyConfig la reemplaza)
     private transient ScheduledExecutorService gameLoopExecutor; // Ejecuta el gameTick
     private transient ExecutorService componentExecutor; // Ejecuta el .run() de cada componente
+    private transient ExecutionMode componentExecutorMode; // Modo con el que se creó componentExecutor
+    private transient GameLoopController loopController; // Mide ticks y gestiona atrasos
+    private transient DamageBuffer damageBuffer; // Daño anotado durante el tick, aplicado al final
+    private transient MoveBuffer moveBuffer; // Movimientos anotados durante el tick, aplicados después del daño
+    private transient CombatStats combatStats; // Contadores de combate del nivel actual
+    private transient RelicHitLog relicHitLog; // Golpes a la reliquia en el nivel actual
+    private transient RandomProvider randomProvider; // RNG sembrado de la partida (flujo principal + uno por entidad)
+    private transient CommandJournal commandJournal; // Graba las entradas del jugador (null = sin grabar)
+    private transient StateJournal stateJournal; // Cambios de estado entre fotos (null = sin diario)
     private transient List<GameEventListener> listeners; // Para notificar a la UI
 
     /**
@@ -59,17 +72,32 @@ public class Game implements Serializable {
      * @throws IllegalStateException Si ConfigurationManager no se ha cargado primero.
      */
     public Game(String playerName) {
+        this(playerName, ConfigurationManager.getConfig(), System.nanoTime());
+    }
+
+    /**
+     * Crea una partida con su propia configuración y semilla, sin depender del
+     * ConfigurationManager global. Varias instancias pueden correr en paralelo.
+     *
+     * @param playerName El nombre del jugador.
+     * @param config La configuración de esta partida (no debe modificarse mientras corre).
+     * @param seed Semilla del RNG de la partida.
+     * @throws IllegalStateException Si config es null.
+     */
+    public Game(String playerName, GameConfig config, long seed) {
         // Validación crítica: El config debe estar cargado ANTES de crear un Game
-        this.gameConfig = ConfigurationManager.getConfig();
+        this.gameConfig = config;
         if (this.gameConfig == null) {
             throw new IllegalStateException("GameConfig no está inicializado. Asegúrate de cargar la configuración antes de crear Game.");
         }
+        this.seed = seed;
+        this.randomProvider = new RandomProvider(seed);
 
         this.board = new Board();
         this.player = new Player(playerName, 20, 500); // Valores por defecto
         this.pathfindingService = new PathfindingService();
-        this.relicPosition = new Position(Board.SIZE / 2, Board.SIZE / 2); // Centro
-        this.relicLife = RELIC_BASE_LIFE;
+        this.relicPosition = Position.of(Board.SIZE / 2, Board.SIZE / 2); // Centro
+        this.relicLife.set(RELIC_BASE_LIFE);
         this.context = new GameContext(board, player, relicPosition, pathfindingService, this);
         this.currentLevelIndex = 0;
         this.running = false;
@@ -77,6 +105,12 @@ public class Game implements Serializable {
         this.listeners = new ArrayList<>();
         this.currentDefenseBoost = 0;
         this.currentEnemyBoost = 0;
+        this.loopController = new GameLoopController(TICK_INTERVAL_MS, pathfindingService,
+                GameLoopController.OverrunPolicy.CATCH_UP);
+        this.damageBuffer = new DamageBuffer();
+        this.moveBuffer = new MoveBuffer();
+        this.combatStats = new CombatStats();
+        this.relicHitLog = new RelicHitLog();
 
         Logger.info("Game creado para jugador: " + playerName);
     }
@@ -96,27 +130,74 @@ public class Game implements Serializable {
 
         // Reconstruye los componentes transitorios
         if (gameLoopExecutor == null) gameLoopExecutor = Executors.newSingleThreadScheduledExecutor();
-        if (componentExecutor == null) componentExecutor = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
+        ensureComponentExecutor();
         if (listeners == null) listeners = new ArrayList<>();
 
         if (isNewGame) {
             startLevel(currentLevelIndex); // Inicia el nivel 0
         }
 
-        // Inicia el bucle de juego
-        gameLoopExecutor.scheduleAtFixedRate(this::gameTick, 0, TICK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        // Inicia el bucle de juego (el controlador decide cuántos ticks ejecutar en cada llamada)
+        gameLoopExecutor.scheduleAtFixedRate(this::runLoop, 0, TICK_INTERVAL_MS, TimeUnit.MILLISECONDS);
         notifyGameStarted();
         Logger.info("Juego iniciado (nuevo: " + isNewGame + ")");
     }
 
     /**
-     * El corazón del juego. Se ejecuta cada TICK_INTERVAL_MS (100ms).
+     * Inicia una partida nueva sin el scheduler: los ticks se ejecutan con step().
+     * Pensado para benchmarks y simulaciones sin interfaz.
+     */
+    public void startHeadless() {
+        running = true;
+        paused = false;
+        ensureComponentExecutor();
+        if (listeners == null) listeners = new ArrayList<>();
+        startLevel(currentLevelIndex);
+    }
+
+    /**
+     * Ejecuta ticks de forma síncrona en el hilo que llama.
+     * Se detiene antes si el juego se pausa (ej. nivel completado) o termina.
+     *
+     * @param ticks Máximo de ticks a ejecutar.
+     * @return Los ticks realmente ejecutados.
+     */
+    public int step(int ticks) {
+        int executed = 0;
+        while (executed < ticks && running && !paused) {
+            gameTick();
+            executed++;
+        }
+        return executed;
+    }
+
+    /**
+     * Llamado por el scheduler cada TICK_INTERVAL_MS.
+     * Delega en el GameLoopController, que mide el tick y aplica la política de atraso.
+     */
+    private void runLoop() {
+        if (!running || paused) {
+            loopController.idle(); // Evita acumular atraso mientras está pausado
+            return;
+        }
+        loopController.runScheduled(this::gameTick);
+    }
+
+    /**
+     * El corazón del juego. Simula TICK_INTERVAL_MS (100ms) de juego.
      * Gestiona el spawn, la ejecución de la IA de componentes y la limpieza.
+     *
+     * Es synchronized igual que las entradas del jugador (placeDefense, pause, ...),
+     * así cada entrada cae entre dos ticks y el diario la graba con un tick exacto.
      */
-    private void gameTick() {
+    private synchronized void gameTick() {
         if (!running || paused) return; // No hace nada si está pausado o detenido
 
         try {
+            // 0. Avanza el reloj de simulación (los cooldowns usan este reloj, no el de pared)
+            gameTimeMillis += TICK_INTERVAL_MS;
+            tickCount++;
+
             // 1. Lógica de Spawning
             spawnZombies();
 
@@ -125,40 +206,96 @@ public class Game implements Serializable {
             activeComponents.addAll(board.getActiveDefenses());
             activeComponents.addAll(board.getActiveZombies());
 
-            // Inyecta el contexto actual a todos
-            for (Component component : activeComponents) {
+            // Inyecta el contexto actual a todos y les asigna su índice del tick
+            for (int i = 0; i < activeComponents.size(); i++) {
+                Component component = activeComponents.get(i);
                 component.setContext(context);
+                component.setTickIndex(i);
             }
 
-            // Crea una tarea (Callable) para el .run() de cada componente
-            List<Callable<Void>> tasks = new ArrayList<>();
-            for (Component component : activeComponents) {
-                tasks.add(() -> {
-                    component.run(); // Llama a onTick() -> move() y attack()
-                    return null;
-                });
-            }
+            damageBuffer.discard(); // Por si un tick anterior falló antes de aplicar
+            moveBuffer.begin(activeComponents.size());
+            runComponents(activeComponents);
 
-            // Ejecuta todas las tareas en el pool de hilos y espera a que terminen
-            componentExecutor.invokeAll(tasks);
+            // 3. Fase de daño: un solo hilo aplica lo anotado, en orden determinista
+            damageBuffer.apply(activeComponents, this);
+            moveBuffer.apply(activeComponents, board); // Después del daño: los muertos ya no se mueven
+            combatStats.endTick();
 
-            // 3. Limpieza y Verificación
-            board.cleanupDestroyedComponents(); // Remueve muertos del tablero
+            // 4. Limpieza y Verificación
+            board.cleanupDestroyedComponents(combatStats::recordDeath); // Remueve muertos del tablero
             player.getArmy().cleanupDestroyed(); // Remueve defensas muertas del ejército
 
-            // 4. Comprueba condiciones de victoria/derrota
+            // 5. Comprueba condiciones de victoria/derrota
             checkLevelConditions();
 
+            // 6. Hash del estado del tick (incremental: no recorre los componentes)
+            lastTickHash = getStateHash();
+            if (commandJournal != null && tickCount % commandJournal.getHeader().checkpointInterval() == 0) {
+                commandJournal.recordCheckpoint(tickCount, lastTickHash);
+            }
+            if (stateJournal != null) stateJournal.capture(this); // Solo lo que cambió en el tick
+            notifyTickCompleted(tickCount, lastTickHash);
+
         } catch (Exception e) {
             Logger.error("Error en game tick", e);
         }
     }
 
+    /**
+     * Ejecuta el .run() de cada componente con el backend seleccionado y espera a que terminen.
+     */
+    private void runComponents(List<Component> activeComponents) throws InterruptedException {
+        ExecutorService executor = ensureComponentExecutor();
+        ZombieStore zombies = board.getZombieStore();
+        if (executor == null) {
+            // INLINE: sin cambios de hilo ni tareas intermedias
+            for (Component component : activeComponents) {
+                if (component instanceof Zombie && !zombies.isDue(component.getBoardSlot(), gameTimeMillis)) continue;
+                component.run(); // Llama a onTick() -> move() y attack()
+            }
+            return;
+        }
+
+        // Crea una tarea (Callable) para el .run() de cada componente.
+        // Los zombies en cooldown (según su nextDue en el ZombieStore) no generan tarea.
+        List<Callable<Void>> tasks = new ArrayList<>(activeComponents.size());
+        for (Component component : activeComponents) {
+            if (component instanceof Zombie && !zombies.isDue(component.getBoardSlot(), gameTimeMillis)) continue;
+            tasks.add(() -> {
+                component.run(); // Llama a onTick() -> move() y attack()
+                return null;
+            });
+        }
+
+        // Ejecuta todas las tareas y espera a que terminen
+        executor.invokeAll(tasks);
+    }
+
+    /**
+     * Crea (o recrea, si cambió el modo) el executor de componentes.
+     * Se llama desde el hilo del tick, así que el executor viejo nunca se apaga
+     * mientras tiene tareas de un tick en curso.
+     *
+     * @return El executor actual, o null en modo INLINE.
+     */
+    private ExecutorService ensureComponentExecutor() {
+        ExecutionMode mode = executionMode;
+        if (mode != componentExecutorMode) {
+            if (componentExecutor != null) {
+                componentExecutor.shutdown();
+            }
+            componentExecutor = mode.createExecutor();
+            componentExecutorMode = mode;
+        }
+        return componentExecutor;
+    }
+
     /**
      * Gestiona la lógica de generación de zombies para la oleada actual.
      */
     private void spawnZombies() {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = gameTimeMillis;
         LevelConfig currentLevel = getCurrentLevel();
 
         // Si hay un delay entre oleadas, solo descuenta el timer y retorna
@@ -174,8 +311,10 @@ public class Game implements Serializable {
                 WaveConfig wave = currentLevel.getEnemyWaves().get(currentWaveIndex);
                 Zombie zombie = createZombie(wave.getZombieId());
                 if (zombie != null) {
-                    Position spawnPos = board.getRandomEdgePosition(); // Posición aleatoria en el borde
+                    zombie.setContext(context); // Para que pueda encolarse al morir
+                    Position spawnPos = board.getRandomEdgePosition(randomProvider.main()); // Posición aleatoria en el borde
                     if (board.placeComponent(zombie, spawnPos)) {
+                        combatStats.recordPlaced(zombie);
                         zombiesSpawnedInWave++;
                         lastSpawnTime = currentTime;
                         notifyZombieSpawned(zombie); // Notifica a la UI
@@ -197,7 +336,7 @@ public class Game implements Serializable {
 
         // Condición de Victoria de Oleada
         // Si ya se spawnearon todos Y no quedan zombies activos
-        if (zombiesSpawnedInWave >= zombiesToSpawnInWave && board.getActiveZombies().isEmpty()) {
+        if (zombiesSpawnedInWave >= zombiesToSpawnInWave && board.getActiveZombieCount() == 0) {
             // Si quedan más oleadas en este nivel
             if (currentWaveIndex + 1 < getCurrentLevel().getEnemyWaves().size()) {
                 startNextWave();
@@ -223,8 +362,8 @@ public class Game implements Serializable {
         LevelConfig level = getCurrentLevel();
 
         // Crecimiento aleatorio 5-20% (requisito PDF)
-        currentDefenseBoost = level.getDefenseBoostPercent() / 100.0 + RandomUtils.randomDouble(0.05, 0.20);
-        currentEnemyBoost = level.getEnemyBoostPercent() / 100.0 + RandomUtils.randomDouble(0.05, 0.20);
+        currentDefenseBoost = level.getDefenseBoostPercent() / 100.0 + randomBoost();
+        currentEnemyBoost = level.getEnemyBoostPercent() / 100.0 + randomBoost();
 
         Logger.info(String.format("Nivel %d - Boost Defensas: %.2f%%, Boost Enemigos: %.2f%%",
                 level.getLevelNumber(), currentDefenseBoost * 100, currentEnemyBoost * 100));
@@ -234,6 +373,8 @@ public class Game implements Serializable {
         player.setCoins(level.getStartingMoney());
 
         board.clear(); // Limpia el tablero
+        combatStats.reset(); // Las estadísticas son por nivel
+        relicHitLog.reset();
         healRelic(); // Restaura la vida de la reliquia
         player.getArmy().clear(); // Limpia el ejército
 
@@ -244,6 +385,11 @@ public class Game implements Serializable {
         Logger.info("Nivel " + level.getLevelNumber() + " iniciado");
     }
 
+    /** Crecimiento aleatorio entre 5% y 20%, con el RNG de la partida. */
+    private double randomBoost() {
+        return 0.05 + 0.15 * randomProvider.main().nextDouble();
+    }
+
     /**
      * Avanza al siguiente índice de oleada y configura los contadores de spawn.
      */
@@ -256,6 +402,38 @@ public class Game implements Serializable {
         Logger.info("Oleada " + (currentWaveIndex + 1) + " iniciada: " + zombiesToSpawnInWave + " zombies");
     }
 
+    /**
+     * Reemplaza la configuración de la partida en curso (recarga en caliente de config.json).
+     *
+     * Es synchronized como gameTick, así que el cambio cae entre dos ticks. Solo afecta lo
+     * que se cree de aquí en adelante (zombies generados, defensas compradas, oleadas y niveles
+     * siguientes); los componentes que ya están en el tablero conservan sus estadísticas.
+     *
+     * @return false si la configuración no es compatible con el punto actual de la partida
+     *         (le faltan el nivel o la oleada en curso); en ese caso no se aplica.
+     */
+    public synchronized boolean applyConfig(GameConfig newConfig) {
+        if (currentLevelIndex >= newConfig.getLevels().size()) {
+            Logger.warning("Configuración recargada sin el nivel " + (currentLevelIndex + 1) + ": no se aplica");
+            return false;
+        }
+        List<WaveConfig> waves = newConfig.getLevels().get(currentLevelIndex).getEnemyWaves();
+        if (currentWaveIndex >= 0 && (waves == null || currentWaveIndex >= waves.size())) {
+            Logger.warning("Configuración recargada sin la oleada en curso (" + (currentWaveIndex + 1) + "): no se aplica");
+            return false;
+        }
+
+        this.gameConfig = newConfig;
+        if (commandJournal != null) {
+            // El diario solo guarda la huella del config inicial: lo grabado hasta aquí sigue
+            // siendo reproducible, lo que venga después ya no.
+            Logger.warning("La configuración cambió durante la grabación: se cierra el diario en el tick " + tickCount);
+            closeCommandJournal();
+        }
+        Logger.info("Configuración aplicada en el tick " + tickCount);
+        return true;
+    }
+
     /**
      * Factory method para crear un Zombie basado en su ID del config.
      * @param zombieId El ID (ej. "zombie_basic").
@@ -267,7 +445,9 @@ public class Game implements Serializable {
                 .findFirst()
                 .orElse(null);
         if (enemyConfig != null) {
-            return new Zombie(enemyConfig, currentEnemyBoost); // Aplica boost de enemigo
+            Zombie zombie = new Zombie(enemyConfig, currentEnemyBoost); // Aplica boost de enemigo
+            zombie.setRandom(randomProvider.split()); // Flujo propio, derivado en orden de creación
+            return zombie;
         }
         Logger.warning("No se encontró enemigo con ID: " + zombieId);
         return null;
@@ -301,37 +481,46 @@ public class Game implements Serializable {
         player.addScore(levelBonus);
 
         notifyLevelCompleted(getCurrentLevel());
-        pause(); // Pausa el juego para mostrar la pantalla de victoria
+        doPause(); // Pausa el juego para mostrar la pantalla de victoria (no es una entrada del jugador)
     }
 
     /**
      * Inicia el siguiente nivel. Llamado por la UI después de que el jugador
      * presiona "Siguiente Nivel" en la pantalla de victoria.
      */
-    public void nextLevel() {
+    public synchronized void nextLevel() {
+        if (commandJournal != null) commandJournal.recordNextLevel(tickCount);
         if (currentLevelIndex + 1 < gameConfig.getLevels().size()) {
             startLevel(currentLevelIndex + 1);
-            resume();
+            doResume();
         } else {
             // Si era el último nivel (ej. Nivel 10)
             gameWon();
         }
+        if (stateJournal != null) stateJournal.capture(this);
     }
 
     /**
      * Lógica para que el jugador coloque una defensa en el tablero.
      * Valida monedas y espacio.
      */
-    public boolean placeDefense(Defense defense, Position position) {
+    public synchronized boolean placeDefense(Defense defense, Position position) {
         // Esta validación es solo para la UI, la lógica real está en Player
         if (player.getCoins() < defense.getCost()) {
             Logger.warning("No hay suficientes monedas para colocar defensa");
             return false;
         }
 
+        defense.setContext(context); // Necesario para sus hooks (ej. aviso de destrucción al Army)
         if (board.placeComponent(defense, position)) {
             // Cobra al jugador y añade al ejército (lógica en Player)
-            player.placeDefense(defense);
+            if (!player.placeDefense(defense)) {
+                board.removeComponent(defense); // Sin monedas o sin capacidad: se deshace la colocación
+                return false;
+            }
+            if (commandJournal != null) commandJournal.recordPlace(tickCount, defense.getId(), position);
+            if (stateJournal != null) stateJournal.capture(this); // Puede colocarse en pausa: no espera al tick
+            combatStats.recordPlaced(defense);
             notifyDefensePlaced(defense, position);
             Logger.info("Defensa colocada: " + defense.getName() + " en " + position);
             return true;
@@ -343,9 +532,14 @@ public class Game implements Serializable {
     /**
      * Lógica para que el jugador "venda" una defensa.
      */
-    public void removeDefense(Defense defense) {
+    public synchronized void removeDefense(Defense defense) {
+        if (commandJournal != null && defense.getPosition() != null) {
+            commandJournal.recordRemove(tickCount, defense.getPosition());
+        }
+        if (defense.getBoardSlot() >= 0) combatStats.recordRemoved(defense);
         board.removeComponent(defense);
         player.removeDefense(defense); // El jugador recupera 50% del costo
+        if (stateJournal != null) stateJournal.capture(this);
         notifyDefenseRemoved(defense);
         Logger.info("Defensa removida: " + defense.getName());
     }
@@ -368,11 +562,38 @@ public class Game implements Serializable {
         notifyGameLost();
     }
 
+    /**
+     * Reinicia el nivel actual (botón "Reintentar" de la UI).
+     */
+    public synchronized void restartLevel() {
+        if (commandJournal != null) commandJournal.recordRestartLevel(tickCount);
+        startLevel(currentLevelIndex);
+        if (stateJournal != null) stateJournal.capture(this);
+    }
+
+    /**
+     * Cierra el diario de comandos (si hay) con un checkpoint del estado actual.
+     */
+    private void closeCommandJournal() {
+        if (this.commandJournal != null) {
+            this.commandJournal.recordCheckpoint(tickCount, getStateHash());
+            this.commandJournal.close();
+            this.commandJournal = null;
+        }
+    }
+
     /**
      * Detiene permanentemente los hilos del bucle de juego.
+     * Cierra el diario con un último checkpoint del estado final.
      */
-    public void stop() {
+    public synchronized void stop() {
         this.running = false;
+        closeCommandJournal();
+        if (this.stateJournal != null) {
+            this.stateJournal.capture(this);
+            this.stateJournal.close();
+            this.stateJournal = null;
+        }
         if (this.gameLoopExecutor != null) {
             this.gameLoopExecutor.shutdownNow();
             this.gameLoopExecutor = null;
@@ -381,16 +602,28 @@ public class Game implements Serializable {
             this.componentExecutor.shutdownNow();
             this.componentExecutor = null;
         }
+        this.componentExecutorMode = null;
         Logger.info("Juego detenido");
     }
 
-    public void pause() {
+    public synchronized void pause() {
+        if (commandJournal != null) commandJournal.recordPause(tickCount);
+        doPause();
+    }
+
+    public synchronized void resume() {
+        if (commandJournal != null) commandJournal.recordResume(tickCount);
+        doResume();
+    }
+
+    // Pausa/reanuda sin grabar: para las transiciones que hace el propio motor
+    private void doPause() {
         this.paused = true;
         notifyGamePaused();
         Logger.info("Juego pausado");
     }
 
-    public void resume() {
+    private void doResume() {
         this.paused = false;
         notifyGameResumed();
         Logger.info("Juego reanudado");
@@ -411,28 +644,107 @@ public class Game implements Serializable {
     public boolean isRunning() { return running; }
     public boolean isPaused() { return paused; }
     public Position getRelicPosition() { return relicPosition; }
-    public int getRelicLife() { return relicLife; }
+    public int getRelicLife() { return relicLife.get(); }
     public int getMaxRelicLife() { return RELIC_BASE_LIFE; }
     public double getCurrentDefenseBoost() { return currentDefenseBoost; }
     public double getCurrentEnemyBoost() { return currentEnemyBoost; }
+    public long getGameTimeMillis() { return gameTimeMillis; }
+    public long getTickCount() { return tickCount; }
+    public GameLoopController getLoopController() { return loopController; }
+    public DamageBuffer getDamageBuffer() { return damageBuffer; }
+    public MoveBuffer getMoveBuffer() { return moveBuffer; }
+    public CombatStats getCombatStats() { return combatStats; }
+    public RelicHitLog getRelicHitLog() { return relicHitLog; }
+    public ExecutionMode getExecutionMode() { return executionMode; }
+    public long getSeed() { return seed; }
+    public RandomProvider getRandomProvider() { return randomProvider; }
+    public CommandJournal getCommandJournal() { return commandJournal; }
+    public long getLastTickHash() { return lastTickHash; }
+
+    /**
+     * Hash del estado actual: componentes del tablero (mantenido de forma incremental
+     * por el Board), vida de la reliquia y economía del jugador.
+     * Coincide con StateHasher.compute(this) entre ticks.
+     */
+    public long getStateHash() {
+        return board.getStateHash().value()
+                + StateHasher.relicHash(relicLife.get())
+                + StateHasher.coinsHash(player.getCoins())
+                + StateHasher.scoreHash(player.getScore());
+    }
 
     // --- Setters ---
-    public void setRelicLife(int relicLife) { this.relicLife = relicLife; }
+    public void setRelicLife(int relicLife) { this.relicLife.set(relicLife); }
     public void setCurrentLevelIndex(int currentLevelIndex) { this.currentLevelIndex = currentLevelIndex; }
 
     /**
-     * Aplica daño a la reliquia (sincronizado).
+     * Activa la grabación de entradas del jugador. Debe llamarse antes de start(true):
+     * el diario solo reproduce partidas desde su inicio (con la semilla de su encabezado).
+     * Sirve con cualquier modo de ejecución: daño y movimientos se aplican en orden fijo al
+     * final del tick, así que el resultado no depende del reparto entre hilos.
      */
-    public synchronized void damageRelic(int damage) {
-        this.relicLife = Math.max(0, this.relicLife - damage);
+    public synchronized void setCommandJournal(CommandJournal commandJournal) {
+        this.commandJournal = commandJournal;
+    }
+
+    public StateJournal getStateJournal() { return stateJournal; }
+
+    /**
+     * Activa (o con null, desactiva) el diario de estado. El diario anterior se cierra.
+     */
+    public synchronized void setStateJournal(StateJournal stateJournal) {
+        if (this.stateJournal != null && this.stateJournal != stateJournal) {
+            this.stateJournal.close();
+        }
+        this.stateJournal = stateJournal;
+    }
+
+    /**
+     * Cambia la política que se aplica cuando un tick excede su presupuesto.
+     */
+    public void setOverrunPolicy(GameLoopController.OverrunPolicy policy) {
+        loopController.setPolicy(policy);
+        Logger.info("Política de atraso del bucle: " + policy);
+    }
+
+    /**
+     * Cambia el backend que ejecuta los componentes. Se aplica al inicio del siguiente tick.
+     */
+    public void setExecutionMode(ExecutionMode mode) {
+        this.executionMode = Objects.requireNonNull(mode);
+        Logger.info("Modo de ejecución de componentes: " + mode.getDisplayName());
+    }
+
+    /**
+     * Aplica daño a la reliquia con un bucle CAS (sin candados).
+     * @return La vida de la reliquia justo antes de este golpe.
+     */
+    public int damageRelic(int damage) {
+        int before;
+        do {
+            before = relicLife.get();
+        } while (!relicLife.compareAndSet(before, Math.max(0, before - damage)));
+        return before;
+    }
+
+    /**
+     * Aplica el golpe de un enemigo a la reliquia y lo anota en el log del atacante
+     * y en el RelicHitLog del nivel.
+     * @return La vida de la reliquia justo antes de este golpe.
+     */
+    public int damageRelic(Component attacker, int damage) {
+        int before = damageRelic(damage);
+        LogEntry entry = attacker.logAttack(null, "Reliquia", damage, before, Math.max(0, before - damage));
+        relicHitLog.record(entry, Math.min(damage, before));
+        return before;
     }
 
     public void healRelic() {
-        this.relicLife = RELIC_BASE_LIFE;
+        this.relicLife.set(RELIC_BASE_LIFE);
     }
 
     public boolean isRelicDestroyed() {
-        return this.relicLife <= 0;
+        return this.relicLife.get() <= 0;
     }
 
     /**
@@ -447,6 +759,17 @@ public class Game implements Serializable {
         this.gameConfig = ConfigurationManager.getConfig(); // Obtiene el config global
         this.context = new GameContext(this.board, this.player, this.relicPosition, this.pathfindingService, this);
         this.listeners = new ArrayList<>();
+        this.loopController = new GameLoopController(TICK_INTERVAL_MS, pathfindingService,
+                GameLoopController.OverrunPolicy.CATCH_UP);
+        if (this.executionMode == null) this.executionMode = ExecutionMode.FIXED_POOL; // Guardados antiguos
+        this.randomProvider = new RandomProvider(seed); // Flujos nuevos: la semilla reproduce desde el inicio, no desde el guardado
+        for (Zombie zombie : board.getActiveZombies()) {
+            zombie.setRandom(randomProvider.split()); // En el orden del tablero, antes del primer tick
+        }
+        this.damageBuffer = new DamageBuffer();
+        this.moveBuffer = new MoveBuffer();
+        this.combatStats = new CombatStats(); // Las estadísticas del nivel en curso no se guardan
+        this.relicHitLog = new RelicHitLog();
 
         if (this.gameConfig == null) {
             throw new IOException("No se pudo restaurar GameConfig después de deserializar. Asegúrate de que ConfigurationManager esté cargado.");
@@ -485,6 +808,10 @@ public class Game implements Serializable {
         if (listeners == null) return;
         for (GameEventListener listener : listeners) listener.onGameResumed();
     }
+    private void notifyTickCompleted(long tick, long stateHash) {
+        if (listeners == null) return;
+        for (GameEventListener listener : listeners) listener.onTickCompleted(tick, stateHash);
+    }
     private void notifyZombieSpawned(Zombie zombie) {
         if (listeners == null) return;
         for (GameEventListener listener : listeners) listener.onZombieSpawned(zombie);
@@ -505,7 +832,7 @@ public class Game implements Serializable {
     @Override
     public String toString() {
         return String.format("Game [Nivel: %d, Jugador: %s, Reliquia: %d/%d]",
-                currentLevelIndex + 1, player.getName(), relicLife, RELIC_BASE_LIFE);
+                currentLevelIndex + 1, player.getName(), relicLife.get(), RELIC_BASE_LIFE);
     }
 
     /**
@@ -524,5 +851,6 @@ public class Game implements Serializable {
         default void onDefensePlaced(Defense defense, Position position) {}
         default void onDefenseRemoved(Defense defense) {}
         default void onMaxLevelReached() {} // Evento para cuando se acaban los niveles
+        default void onTickCompleted(long tick, long stateHash) {} // Cada tick, desde el hilo del juego
     }
 }
\ No newline at end of file
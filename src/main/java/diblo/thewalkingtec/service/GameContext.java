@@ -1,5 +1,6 @@
 package diblo.thewalkingtec.service;
 
+import diblo.thewalkingtec.model.Component;
 import diblo.thewalkingtec.model.Player;
 import diblo.thewalkingtec.model.Position;
 
@@ -28,11 +29,42 @@ public class GameContext {
     }
 
     /**
-     * Delega el daño a la reliquia al objeto Game (para sincronización).
+     * Delega el daño a la reliquia al objeto Game (actualización atómica, sin candados).
      * @param damage El daño a infligir.
+     * @return La vida de la reliquia justo antes de este golpe.
      */
-    public synchronized void damageRelic(int damage) {
-        game.damageRelic(damage);
+    public int damageRelic(int damage) {
+        return game.damageRelic(damage);
+    }
+
+    /**
+     * Anota daño de un componente a otro para la fase de aplicación del tick.
+     * El objetivo NO cambia hasta que termina la fase concurrente.
+     */
+    public void queueDamage(Component attacker, Component target, int damage) {
+        game.getDamageBuffer().queue(attacker, target, damage);
+    }
+
+    /**
+     * Anota daño a la reliquia para la fase de aplicación del tick.
+     */
+    public void queueRelicDamage(Component attacker, int damage) {
+        game.getDamageBuffer().queueRelic(attacker, damage);
+    }
+
+    /**
+     * Anota el siguiente paso de un componente; el tablero lo mueve (con su colisión)
+     * al terminar la fase concurrente del tick.
+     */
+    public void queueMove(Component component, Position target) {
+        game.getMoveBuffer().queue(component, target);
+    }
+
+    /**
+     * Anota la autodestrucción del componente; muere en la fase de aplicación del tick.
+     */
+    public void queueSelfDestruct(Component component) {
+        game.getDamageBuffer().queueSelfDestruct(component);
     }
 
     /**
@@ -64,6 +96,10 @@ public class GameContext {
     public PathfindingService getPathfindingService() { return pathfindingService; }
     public int getRelicLife() { return game.getRelicLife(); }
     public int getMaxRelicLife() { return game.getMaxRelicLife(); }
+    /** Reloj de simulación en milisegundos (usado para los cooldowns de los componentes). */
+    public long getGameTime() { return game.getGameTimeMillis(); }
+    /** RNG sembrado de la partida (las entidades piden su propio flujo con split()). */
+    public RandomProvider getRandomProvider() { return game.getRandomProvider(); }
 
     @Override
     public String toString() {
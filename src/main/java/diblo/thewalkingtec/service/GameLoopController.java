@@ -0,0 +1,202 @@
+package diblo.thewalkingtec.service;
+
+import diblo.thewalkingtec.util.Logger;
+
+/**
+ * Controlador del bucle de juego.
+ * Mide la duración de cada tick, detecta cuándo un tick excede su presupuesto
+ * (el intervalo de tick) y decide cómo recuperarse según la política configurada.
+ *
+ * El scheduler sigue llamando a runScheduled() a ritmo fijo; el controlador compara
+ * los ticks que "se deben" según el reloj real con los ticks ya simulados, de modo
+ * que las ejecuciones que el scheduler encola una tras otra después de un tick lento
+ * no se ejecutan a ciegas.
+ *
+ * Todas las decisiones quedan registradas como métricas (ticks, excesos, frames
+ * descartados, sub-pasos de recuperación, cambios de presupuesto de pathfinding).
+ */
+public class GameLoopController {
+
+    /**
+     * Política a aplicar cuando el bucle se atrasa respecto al reloj real.
+     */
+    public enum OverrunPolicy {
+        DROP_FRAMES, // Ejecuta un solo tick y descarta los atrasados
+        CATCH_UP,    // Ejecuta sub-pasos extra (acotados) para ponerse al día
+        DEGRADE      // Descarta atrasados y reduce el presupuesto de pathfinding
+    }
+
+    private static final int MAX_CATCH_UP_STEPS = 4; // Evita la "espiral de la muerte"
+    // Presupuestos de nodos expandidos por búsqueda, de menor a mayor degradación
+    private static final int[] DEGRADE_BUDGETS = {Integer.MAX_VALUE, 2000, 600, 150};
+    private static final int RECOVERY_TICKS = 50; // Ticks holgados antes de recuperar un nivel
+    private static final long WARNING_INTERVAL_NANOS = 5_000_000_000L; // Máx. 1 aviso cada 5s
+
+    private final long tickIntervalNanos;
+    private final PathfindingService pathfindingService;
+    private volatile OverrunPolicy policy;
+
+    // --- Estado del reloj ---
+    private long baselineNanos = -1; // Instante de referencia (-1 = sin iniciar o pausado)
+    private long simulatedTicks;     // Ticks contabilizados desde baselineNanos
+    private int degradeLevel;        // Índice en DEGRADE_BUDGETS
+    private int calmTicks;           // Ticks consecutivos por debajo de la mitad del presupuesto
+    private long lastWarningNanos;
+
+    // --- Métricas ---
+    private volatile long totalTicks;
+    private volatile long overrunTicks;
+    private volatile long droppedFrames;
+    private volatile long catchUpSteps;
+    private volatile long degradeEvents;
+    private volatile long recoveryEvents;
+    private volatile long lastTickNanos;
+    private volatile long maxTickNanos;
+    private volatile double averageTickNanos;
+
+    public GameLoopController(long tickIntervalMs, PathfindingService pathfindingService, OverrunPolicy policy) {
+        this.tickIntervalNanos = tickIntervalMs * 1_000_000L;
+        this.pathfindingService = pathfindingService;
+        this.policy = policy;
+    }
+
+    /**
+     * Punto de entrada del scheduler. Decide cuántos ticks ejecutar ahora
+     * (0, 1 o varios) según el atraso acumulado y la política actual.
+     *
+     * @param tick La lógica de un tick de juego.
+     */
+    public void runScheduled(Runnable tick) {
+        long now = System.nanoTime();
+        if (baselineNanos < 0) {
+            baselineNanos = now;
+            simulatedTicks = 0;
+        }
+
+        long owed = (now - baselineNanos) / tickIntervalNanos + 1 - simulatedTicks;
+        if (owed <= 0) {
+            return; // Ejecución encolada por el scheduler que ya fue cubierta
+        }
+
+        int steps = policy == OverrunPolicy.CATCH_UP ? (int) Math.min(owed, MAX_CATCH_UP_STEPS) : 1;
+        for (int i = 0; i < steps; i++) {
+            runMeasured(tick);
+        }
+
+        // Lo que no se ejecutó se descarta: el reloj de simulación no intenta recuperarlo
+        simulatedTicks += owed;
+        if (owed > steps) droppedFrames += owed - steps;
+        if (steps > 1) catchUpSteps += steps - 1;
+
+        if (policy == OverrunPolicy.DEGRADE) {
+            adjustBudget();
+        }
+    }
+
+    /**
+     * Se llama mientras el juego está pausado o detenido.
+     * Reinicia la referencia de tiempo para que al reanudar no se acumule atraso.
+     */
+    public void idle() {
+        baselineNanos = -1;
+    }
+
+    /**
+     * Ejecuta un tick midiendo su duración y registrando si excedió el intervalo.
+     */
+    private void runMeasured(Runnable tick) {
+        long start = System.nanoTime();
+        tick.run();
+        long duration = System.nanoTime() - start;
+
+        totalTicks++;
+        lastTickNanos = duration;
+        if (duration > maxTickNanos) maxTickNanos = duration;
+        // Media móvil exponencial (suaviza picos aislados)
+        averageTickNanos = averageTickNanos == 0 ? duration : averageTickNanos * 0.95 + duration * 0.05;
+
+        if (duration > tickIntervalNanos) {
+            overrunTicks++;
+            long now = System.nanoTime();
+            if (now - lastWarningNanos >= WARNING_INTERVAL_NANOS) {
+                lastWarningNanos = now;
+                Logger.warning(String.format("Tick excedido: %.1f ms (límite %d ms, política %s). %s",
+                        duration / 1_000_000.0, tickIntervalNanos / 1_000_000, policy, getMetricsSummary()));
+            }
+        }
+    }
+
+    /**
+     * Política DEGRADE: baja el presupuesto de pathfinding cuando un tick se excede
+     * y lo recupera gradualmente tras RECOVERY_TICKS ticks holgados.
+     */
+    private void adjustBudget() {
+        if (lastTickNanos > tickIntervalNanos) {
+            calmTicks = 0;
+            if (degradeLevel < DEGRADE_BUDGETS.length - 1) {
+                degradeLevel++;
+                degradeEvents++;
+                applyBudget();
+                Logger.info("Presupuesto de pathfinding reducido a " + DEGRADE_BUDGETS[degradeLevel] + " nodos");
+            }
+        } else if (lastTickNanos < tickIntervalNanos / 2 && degradeLevel > 0) {
+            if (++calmTicks >= RECOVERY_TICKS) {
+                calmTicks = 0;
+                degradeLevel--;
+                recoveryEvents++;
+                applyBudget();
+                Logger.info("Presupuesto de pathfinding recuperado a " + budgetLabel(DEGRADE_BUDGETS[degradeLevel]));
+            }
+        } else {
+            calmTicks = 0;
+        }
+    }
+
+    private void applyBudget() {
+        pathfindingService.setDefaultMaxExpandedNodes(DEGRADE_BUDGETS[degradeLevel]);
+    }
+
+    private static String budgetLabel(int budget) {
+        return budget == Integer.MAX_VALUE ? "ilimitado" : budget + " nodos";
+    }
+
+    /**
+     * Cambia la política. Al abandonar DEGRADE se restaura el presupuesto completo.
+     */
+    public void setPolicy(OverrunPolicy policy) {
+        if (this.policy == OverrunPolicy.DEGRADE && policy != OverrunPolicy.DEGRADE) {
+            degradeLevel = 0;
+            calmTicks = 0;
+            applyBudget();
+        }
+        this.policy = policy;
+    }
+
+    // --- Getters de Métricas ---
+    public OverrunPolicy getPolicy() { return policy; }
+    public long getTotalTicks() { return totalTicks; }
+    public long getOverrunTicks() { return overrunTicks; }
+    public long getDroppedFrames() { return droppedFrames; }
+    public long getCatchUpSteps() { return catchUpSteps; }
+    public long getDegradeEvents() { return degradeEvents; }
+    public long getRecoveryEvents() { return recoveryEvents; }
+    public int getCurrentPathfindingBudget() { return DEGRADE_BUDGETS[degradeLevel]; }
+    public double getLastTickMillis() { return lastTickNanos / 1_000_000.0; }
+    public double getMaxTickMillis() { return maxTickNanos / 1_000_000.0; }
+    public double getAverageTickMillis() { return averageTickNanos / 1_000_000.0; }
+
+    /**
+     * Resumen de métricas en una línea (para el log o la UI).
+     */
+    public String getMetricsSummary() {
+        return String.format("Ticks: %d | Excedidos: %d | Descartados: %d | Sub-pasos: %d | " +
+                        "Degradaciones: %d/%d | Presupuesto: %s | Prom: %.1f ms | Máx: %.1f ms",
+                totalTicks, overrunTicks, droppedFrames, catchUpSteps, degradeEvents, recoveryEvents,
+                budgetLabel(getCurrentPathfindingBudget()), getAverageTickMillis(), getMaxTickMillis());
+    }
+
+    @Override
+    public String toString() {
+        return "GameLoopController [" + policy + "] " + getMetricsSummary();
+    }
+}
@@ -0,0 +1,230 @@
+package diblo.thewalkingtec.service;
+
+import diblo.thewalkingtec.model.Defense;
+import diblo.thewalkingtec.model.Position;
+import diblo.thewalkingtec.model.config.DefenseConfig;
+import diblo.thewalkingtec.model.config.GameConfig;
+import diblo.thewalkingtec.model.config.LevelConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Corre una partida completa sin interfaz ni scheduler, con su propia configuración
+ * y semilla, y devuelve un resumen (victoria, daño a la reliquia, duración de niveles).
+ *
+ * El "jugador" es automático: al empezar cada nivel gasta sus monedas en las defensas
+ * desbloqueadas según una disposición predefinida (DefenseLayout; por defecto, en anillos
+ * alrededor de la reliquia, de adentro hacia afuera).
+ * Al completar un nivel pasa al siguiente hasta ganar, perder o agotar el máximo de ticks.
+ *
+ * No usa estado estático: varias simulaciones pueden correr en paralelo (una por hilo).
+ */
+public class HeadlessSimulation {
+
+    private static final int STEP_CHUNK = 100; // Ticks por llamada a Game.step
+    private static final Position RELIC = Position.of(Board.SIZE / 2, Board.SIZE / 2);
+    private static final int PERIMETER_RADIUS = 4; // Distancia a la reliquia del perímetro (DefenseLayout.PERIMETER)
+
+    /**
+     * Disposiciones predefinidas del jugador automático: en qué celdas coloca y qué compra.
+     */
+    public enum DefenseLayout {
+        /** Todas las defensas desbloqueadas, en rotación, de la reliquia hacia afuera. */
+        RINGS("Anillos", p -> p.manhattanDistanceTo(RELIC)),
+        /** Solo defensas que hacen daño (sin muros), de la reliquia hacia afuera. */
+        DAMAGE_ONLY("Solo daño", p -> p.manhattanDistanceTo(RELIC)),
+        /** Todas las defensas, empezando por un anillo a PERIMETER_RADIUS de la reliquia. */
+        PERIMETER("Perímetro", p -> Math.abs(p.manhattanDistanceTo(RELIC) - PERIMETER_RADIUS));
+
+        private final String displayName;
+        private final List<Position> placementOrder;
+
+        /**
+         * @param rank Prioridad de cada celda (menor se ocupa antes; empates por índice).
+         */
+        DefenseLayout(String displayName, ToIntFunction<Position> rank) {
+            this.displayName = displayName;
+            this.placementOrder = buildPlacementOrder(Comparator.comparingInt(rank));
+        }
+
+        public String getDisplayName() { return displayName; }
+
+        /** Celdas del tablero en el orden en que se ocupan. */
+        List<Position> placementOrder() { return placementOrder; }
+
+        /** Si esta disposición compra el tipo de defensa. */
+        boolean buys(DefenseConfig defense) {
+            return this != DAMAGE_ONLY || defense.getBaseDamage() > 0;
+        }
+    }
+
+    private final GameConfig config;
+    private final long seed;
+    private final int maxTicks;
+    private ExecutionMode executionMode = ExecutionMode.INLINE; // El paralelismo está entre partidas
+    private DefenseLayout layout = DefenseLayout.RINGS;
+
+    /**
+     * @param config Configuración de la partida (solo se lee; puede compartirse entre simulaciones).
+     * @param seed Semilla del RNG de la partida.
+     * @param maxTicks Límite de ticks (a 10 ticks/s de juego) antes de cortar la simulación.
+     */
+    public HeadlessSimulation(GameConfig config, long seed, int maxTicks) {
+        this.config = config;
+        this.seed = seed;
+        this.maxTicks = maxTicks;
+    }
+
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    public void setLayout(DefenseLayout layout) {
+        this.layout = layout;
+    }
+
+    /**
+     * Ejecuta la partida hasta su final (o hasta maxTicks).
+     */
+    public Result run() {
+        Game game = new Game("sim-" + seed, config, seed);
+        game.setExecutionMode(executionMode);
+        Tracker tracker = new Tracker(game);
+        game.addGameEventListener(tracker);
+
+        try {
+            game.startHeadless();
+            int ticks = 0;
+            while (ticks < maxTicks) {
+                if (tracker.deployPending) {
+                    tracker.deployPending = false;
+                    deployDefenses(game);
+                }
+
+                ticks += game.step(Math.min(STEP_CHUNK, maxTicks - ticks));
+
+                if (!game.isRunning()) break; // Ganó o perdió
+                if (game.isPaused()) {
+                    if (!tracker.levelDone) break; // Pausa inesperada: no hay nada más que simular
+                    tracker.levelDone = false;
+                    game.nextLevel(); // Siguiente nivel (o victoria si era el último)
+                }
+            }
+            boolean timedOut = game.isRunning() && !tracker.won && ticks >= maxTicks;
+            if (tracker.lost) {
+                tracker.relicDamage += Game.RELIC_BASE_LIFE; // El nivel perdido costó la reliquia entera
+            }
+            return new Result(seed, tracker.won, tracker.lost, timedOut, tracker.levelsCompleted,
+                    config.getLevels().size(), tracker.relicDamage, game.getTickCount(),
+                    tracker.levelDurations.stream().mapToLong(Long::longValue).toArray());
+        } finally {
+            game.stop();
+        }
+    }
+
+    /**
+     * Gasta las monedas del nivel en defensas desbloqueadas (en rotación),
+     * ocupando las celdas libres en el orden de la disposición.
+     */
+    private void deployDefenses(Game game) {
+        int levelNumber = game.getCurrentLevel().getLevelNumber();
+        List<DefenseConfig> unlocked = new ArrayList<>();
+        for (DefenseConfig dc : config.getDefenses()) {
+            if (dc.getUnlockLevel() <= levelNumber && layout.buys(dc)) unlocked.add(dc);
+        }
+        if (unlocked.isEmpty()) return;
+        unlocked.sort(Comparator.comparing(DefenseConfig::getId)); // Orden estable entre corridas
+        int cheapest = unlocked.stream().mapToInt(DefenseConfig::getCost).min().orElse(0);
+
+        int next = 0;
+        int failuresInARow = 0;
+        for (Position pos : layout.placementOrder()) {
+            if (game.getPlayer().getCoins() < cheapest || failuresInARow >= unlocked.size()) break;
+            if (pos.equals(game.getRelicPosition()) || game.getBoard().getCell(pos.getX(), pos.getY()).hasGroundOccupant()) {
+                continue;
+            }
+            // Prueba los tipos en rotación hasta que alguno quepa (monedas y espacios)
+            failuresInARow = 0;
+            while (failuresInARow < unlocked.size()) {
+                DefenseConfig dc = unlocked.get(next);
+                next = (next + 1) % unlocked.size();
+                Defense defense = game.createDefense(dc.getId());
+                if (defense != null && game.getPlayer().canBuy(defense) && game.placeDefense(defense, pos)) {
+                    break;
+                }
+                failuresInARow++;
+            }
+        }
+    }
+
+    private static List<Position> buildPlacementOrder(Comparator<Position> order) {
+        List<Position> cells = new ArrayList<>(Board.SIZE * Board.SIZE);
+        for (int i = 0; i < Board.SIZE * Board.SIZE; i++) {
+            cells.add(Position.ofIndex(i));
+        }
+        cells.sort(order.thenComparingInt(Position::getIndex));
+        return List.copyOf(cells);
+    }
+
+    /**
+     * Escucha los eventos de la partida y acumula las métricas.
+     */
+    private static final class Tracker implements Game.GameEventListener {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Game game;
+        boolean deployPending;
+        boolean levelDone;
+        boolean won;
+        boolean lost;
+        int levelsCompleted;
+        long relicDamage;
+        long levelStartTick;
+        final List<Long> levelDurations = new ArrayList<>();
+
+        Tracker(Game game) {
+            this.game = game;
+        }
+
+        @Override
+        public void onLevelStarted(LevelConfig level) {
+            deployPending = true;
+            levelStartTick = game.getTickCount();
+        }
+
+        @Override
+        public void onLevelCompleted(LevelConfig level) {
+            levelDone = true;
+            levelsCompleted++;
+            relicDamage += Game.RELIC_BASE_LIFE - game.getRelicLife();
+            levelDurations.add(game.getTickCount() - levelStartTick);
+        }
+
+        @Override
+        public void onGameWon() { won = true; }
+
+        @Override
+        public void onGameLost() { lost = true; }
+
+        @Override
+        public void onMaxLevelReached() { won = true; }
+    }
+
+    /**
+     * Resumen de una simulación.
+     *
+     * @param levelDurationTicks Duración (en ticks) de cada nivel completado, en orden.
+     */
+    public record Result(long seed, boolean won, boolean lost, boolean timedOut, int levelsCompleted,
+                         int totalLevels, long relicDamage, long ticks, long[] levelDurationTicks) {
+
+        /** Duración promedio (en ticks) de los niveles completados; 0 si no completó ninguno. */
+        public double averageLevelDurationTicks() {
+            return Arrays.stream(levelDurationTicks).average().orElse(0);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package diblo.thewalkingtec.service;
+
+import diblo.thewalkingtec.model.Component;
+import diblo.thewalkingtec.model.Position;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Buffer de movimientos por tick.
+ *
+ * Igual que con el daño (DamageBuffer), durante la fase concurrente nadie mueve nada en
+ * el tablero: cada componente solo anota a qué celda quiere ir. Al terminar la fase, el
+ * hilo del tick aplica los movimientos por índice de componente (Component.getTickIndex()),
+ * con la colisión de Board.moveComponent. Si dos componentes quieren la misma celda, gana
+ * siempre el de menor índice, no el hilo que llegó primero.
+ *
+ * Como cada componente se mueve a lo sumo una vez por tick, basta un arreglo indexado por
+ * índice de tick: cada hilo escribe solo los casilleros de sus componentes, sin candados
+ * (invokeAll da la visibilidad al hilo del tick).
+ */
+public class MoveBuffer {
+
+    private Position[] targets = new Position[256]; // Celda pedida por índice de tick; null = no se mueve
+    private int size; // Componentes del tick actual
+
+    /**
+     * Prepara el buffer para un tick con 'componentCount' componentes (descarta lo anterior).
+     * Se llama desde el hilo del tick, antes de la fase concurrente.
+     */
+    void begin(int componentCount) {
+        if (targets.length < componentCount) {
+            targets = new Position[Math.max(componentCount, targets.length * 2)];
+        } else {
+            Arrays.fill(targets, 0, size, null);
+        }
+        size = componentCount;
+    }
+
+    /**
+     * Anota el siguiente paso de un componente. Se llama desde los hilos de componentes.
+     * Si el componente lo anota dos veces en el mismo tick, vale el último.
+     */
+    public void queue(Component mover, Position target) {
+        int index = mover.getTickIndex();
+        if (index < 0 || index >= size) return; // No participa en este tick
+        targets[index] = target;
+    }
+
+    /**
+     * Aplica los movimientos anotados en orden de índice y vacía el buffer.
+     * Los componentes que murieron en la fase de daño no se mueven.
+     *
+     * @param components La lista de componentes del tick (la que definió los índices).
+     * @return Cantidad de movimientos realizados (los bloqueados no cuentan).
+     */
+    public int apply(List<Component> components, Board board) {
+        int moved = 0;
+        int count = Math.min(size, components.size());
+        for (int i = 0; i < count; i++) {
+            Position target = targets[i];
+            if (target == null) continue;
+            targets[i] = null;
+            Component mover = components.get(i);
+            if (mover.isDestroyed() || mover.getBoardSlot() < 0) continue;
+            if (board.moveComponent(mover, target)) moved++;
+        }
+        size = 0;
+        return moved;
+    }
+}
@@ -0,0 +1,484 @@
+package diblo.thewalkingtec.service;
+
+import diblo.thewalkingtec.model.Defense;
+import diblo.thewalkingtec.model.Position;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Abstracción jerárquica del tablero para rutas largas (HPA*).
+ *
+ * El tablero se divide en clusters de CLUSTER_SIZE x CLUSTER_SIZE celdas. En cada borde
+ * entre dos clusters vecinos, cada tramo continuo de celdas libres a ambos lados es una
+ * "entrada" (un par de celdas, una por lado). Dentro de cada cluster se precalcula la
+ * distancia entre sus entradas (BFS sin salir del cluster). Así una ruta larga se planifica
+ * sobre unas pocas entradas en vez de sobre todas las celdas, y después PathfindingService
+ * la refina: los tramos entre entradas se guardan al primer uso y solo el primero y el
+ * último se buscan con A* en cada consulta.
+ *
+ * Solo cuentan como obstáculos las defensas terrestres: los zombies se mueven cada tick, así
+ * que se respetan al refinar (con la ocupación real), no en el grafo. El Board avisa con
+ * markChanged cuando coloca o quita una defensa terrestre; solo se recalculan ese cluster y
+ * sus vecinos (los que comparten sus bordes), la próxima vez que se pida una ruta.
+ */
+final class PathHierarchy {
+
+    static final int CLUSTER_SIZE = 5; // Divide exacto el tablero de 25x25
+    private static final int CLUSTERS = (Board.SIZE + CLUSTER_SIZE - 1) / CLUSTER_SIZE; // Por lado
+    private static final int LONG_ENTRANCE = 6; // Tramos de este largo o más llevan dos entradas (una en cada punta)
+    private static final int[] NO_PAIRS = new int[0];
+    static final int[] UNREACHABLE = new int[0]; // findWaypoints: el grafo entero no conecta from con to
+    // Peso de la heurística en el grafo abstracto. Las entradas en la mitad de cada borde hacen que
+    // casi ninguna ruta iguale la distancia Manhattan: con peso 1 el A* revisa todas las entradas del
+    // rectángulo entre from y to antes de aceptar la ruta. Con 1.1 la ruta queda a lo sumo un 10% más larga.
+    private static final double HEURISTIC_WEIGHT = 1.1;
+
+    private final Board board;
+    private final boolean[] dirty = new boolean[CLUSTERS * CLUSTERS];
+    private volatile boolean anyDirty = true; // Al crearse, todo está por calcular
+
+    // Entradas de cada borde como pares planos [celdaA, celdaB, ...] (índices de Position.getIndex()).
+    // nextXBorders[c]: borde entre el cluster c y el de x + 1; nextYBorders[c]: entre c y el de y + 1.
+    private final int[][] nextXBorders = new int[CLUSTERS * CLUSTERS][];
+    private final int[][] nextYBorders = new int[CLUSTERS * CLUSTERS][];
+    // Grafo de cada cluster. Se reemplaza entero al recalcular (las búsquedas en curso ven el anterior).
+    private final Cluster[] clusters = new Cluster[CLUSTERS * CLUSTERS];
+
+    PathHierarchy(Board board) {
+        this.board = board;
+        Arrays.fill(dirty, true);
+    }
+
+    /**
+     * Avisa que cambió la ocupación terrestre fija de una celda (se colocó o quitó una defensa).
+     */
+    synchronized void markChanged(Position pos) {
+        dirty[clusterOf(pos.getIndex())] = true;
+        anyDirty = true;
+    }
+
+    /**
+     * Marca todo el tablero para recalcular (ej. Board.clear).
+     */
+    synchronized void markAllChanged() {
+        Arrays.fill(dirty, true);
+        anyDirty = true;
+    }
+
+    /**
+     * Planifica una ruta sobre el grafo de entradas.
+     *
+     * @param from Celda de inicio.
+     * @param to Celda destino (puede estar ocupada: es el objetivo del ataque).
+     * @param maxExpandedNodes Límite de nodos abstractos a expandir.
+     * @return Los índices de celda de los puntos de paso (from, entradas..., to); UNREACHABLE si
+     *         las defensas terrestres cortan toda ruta, o null si se agotó el límite.
+     */
+    int[] findWaypoints(Position from, Position to, int maxExpandedNodes) {
+        refresh();
+        int start = from.getIndex();
+        int goal = to.getIndex();
+        Cluster startCluster = clusters[clusterOf(start)];
+        // Distancias de from a las entradas de su cluster, y de to a las de los clusters desde donde se le llega
+        int[] startReach = startCluster.reach(start, board);
+        int[] startCosts = startCluster.costsTo(startReach);
+        Map<Integer, int[]> goalCosts = goalCosts(to);
+
+        Map<Integer, Step> steps = new HashMap<>();
+        // En empate de F gana el más avanzado: en zonas abiertas muchas entradas empatan y así
+        // no se expanden todas antes de seguir
+        PriorityQueue<Open> openSet = new PriorityQueue<>(
+                Comparator.comparingDouble(Open::fScore).thenComparing(Comparator.comparingInt(Open::gScore).reversed()));
+        Step first = new Step(start, null, 0);
+        steps.put(start, first);
+        openSet.add(new Open(first, HEURISTIC_WEIGHT * from.manhattanDistanceTo(to)));
+
+        int expanded = 0;
+        while (!openSet.isEmpty()) {
+            Open open = openSet.poll();
+            Step current = open.step;
+            if (current.closed || open.gScore() != current.gScore) continue; // Entrada vieja de la cola
+            if (current.cell == goal) {
+                return waypoints(current);
+            }
+            current.closed = true;
+            if (++expanded > maxExpandedNodes) return null;
+
+            if (current.cell == start) {
+                for (int i = 0; i < startCosts.length; i++) {
+                    relax(steps, openSet, current, startCluster.nodes[i], startCosts[i], to);
+                }
+                relax(steps, openSet, current, goal, directCost(startCluster, startReach, to), to);
+            }
+            int clusterIndex = clusterOf(current.cell);
+            Cluster cluster = clusters[clusterIndex];
+            int slot = cluster.slotOf(current.cell);
+            if (slot < 0) continue; // El inicio no es una entrada (o el cluster se recalculó)
+            int n = cluster.nodes.length;
+            for (int j = 0; j < n; j++) {
+                relax(steps, openSet, current, cluster.nodes[j], cluster.distances[slot * n + j], to);
+            }
+            for (int partner : cluster.links[slot]) {
+                relax(steps, openSet, current, partner, 1, to);
+            }
+            int[] costs = goalCosts.get(clusterIndex);
+            if (costs != null) {
+                relax(steps, openSet, current, goal, costs[slot], to);
+            }
+        }
+        return UNREACHABLE;
+    }
+
+    /**
+     * Distancias desde 'to' a las entradas de cada cluster desde el que se lo puede alcanzar
+     * directamente, por índice de cluster. Normalmente es solo el suyo, pero si 'to' es una
+     * defensa en un borde puede que solo se llegue desde la celda vecina del otro lado.
+     */
+    private Map<Integer, int[]> goalCosts(Position to) {
+        int goal = to.getIndex();
+        Map<Integer, int[]> costs = new HashMap<>();
+        costs.put(clusterOf(goal), clusters[clusterOf(goal)].distancesFrom(goal, board));
+        for (Position neighbor : board.getNeighbors(to)) {
+            int cell = neighbor.getIndex();
+            if (sameCluster(cell, goal) || !isFree(cell)) continue;
+            int[] viaNeighbor = clusters[clusterOf(cell)].distancesFrom(cell, board);
+            for (int i = 0; i < viaNeighbor.length; i++) {
+                if (viaNeighbor[i] >= 0) viaNeighbor[i]++; // El paso final de la vecina a 'to'
+            }
+            costs.merge(clusterOf(cell), viaNeighbor, PathHierarchy::minCosts);
+        }
+        return costs;
+    }
+
+    /**
+     * Costo de ir de from a to sin salir del cluster de from (o -1): sirve cuando to está
+     * en el cluster vecino pero se le llega desde una celda del cluster de from.
+     */
+    private int directCost(Cluster startCluster, int[] startReach, Position to) {
+        int best = startCluster.costTo(startReach, to.getIndex());
+        for (Position neighbor : board.getNeighbors(to)) {
+            int d = startCluster.costTo(startReach, neighbor.getIndex());
+            if (d >= 0 && (best < 0 || d + 1 < best)) best = d + 1;
+        }
+        return best;
+    }
+
+    private static int[] minCosts(int[] a, int[] b) {
+        int[] result = a.clone();
+        for (int i = 0; i < result.length; i++) {
+            if (b[i] >= 0 && (result[i] < 0 || b[i] < result[i])) result[i] = b[i];
+        }
+        return result;
+    }
+
+    private static void relax(Map<Integer, Step> steps, PriorityQueue<Open> openSet, Step current,
+                              int cell, int cost, Position to) {
+        if (cost < 0 || cell == current.cell) return; // Sin camino dentro del cluster
+        int tentative = current.gScore + cost;
+        Step next = steps.get(cell);
+        if (next == null) {
+            next = new Step(cell, current, tentative);
+            steps.put(cell, next);
+        } else if (next.closed || tentative >= next.gScore) {
+            return;
+        } else {
+            next.parent = current;
+            next.gScore = tentative;
+        }
+        openSet.add(new Open(next, tentative + HEURISTIC_WEIGHT * Position.ofIndex(cell).manhattanDistanceTo(to)));
+    }
+
+    private static int[] waypoints(Step end) {
+        List<Integer> cells = new ArrayList<>();
+        for (Step s = end; s != null; s = s.parent) cells.add(s.cell);
+        int[] result = new int[cells.size()];
+        for (int i = 0; i < result.length; i++) result[i] = cells.get(result.length - 1 - i);
+        return result;
+    }
+
+    /**
+     * Recalcula los clusters marcados: primero las entradas de sus bordes y después el grafo
+     * de ellos y de sus vecinos (sus entradas están en esos mismos bordes).
+     */
+    private void refresh() {
+        if (!anyDirty) return;
+        synchronized (this) {
+            if (!anyDirty) return;
+            boolean[] rebuild = new boolean[clusters.length];
+            for (int c = 0; c < clusters.length; c++) {
+                if (!dirty[c]) continue;
+                int cx = c / CLUSTERS, cy = c % CLUSTERS;
+                nextXBorders[c] = cx + 1 < CLUSTERS ? scanBorder(cx, cy, true) : NO_PAIRS;
+                nextYBorders[c] = cy + 1 < CLUSTERS ? scanBorder(cx, cy, false) : NO_PAIRS;
+                if (cx > 0) nextXBorders[c - CLUSTERS] = scanBorder(cx - 1, cy, true);
+                if (cy > 0) nextYBorders[c - 1] = scanBorder(cx, cy - 1, false);
+                rebuild[c] = true;
+                if (cx > 0) rebuild[c - CLUSTERS] = true;
+                if (cx + 1 < CLUSTERS) rebuild[c + CLUSTERS] = true;
+                if (cy > 0) rebuild[c - 1] = true;
+                if (cy + 1 < CLUSTERS) rebuild[c + 1] = true;
+            }
+            for (int c = 0; c < clusters.length; c++) {
+                if (rebuild[c]) clusters[c] = buildCluster(c);
+            }
+            Arrays.fill(dirty, false);
+            anyDirty = false;
+        }
+    }
+
+    /**
+     * Busca las entradas del borde entre el cluster (cx, cy) y el siguiente en x (alongX) o en y.
+     */
+    private int[] scanBorder(int cx, int cy, boolean alongX) {
+        // Fila (o columna) del lado del cluster (cx, cy) y tramo que recorre el borde
+        int edge = (alongX ? cx + 1 : cy + 1) * CLUSTER_SIZE - 1;
+        int from = (alongX ? cy : cx) * CLUSTER_SIZE;
+        int to = Math.min(from + CLUSTER_SIZE, Board.SIZE);
+        List<Integer> pairs = new ArrayList<>();
+        int runStart = -1;
+        for (int k = from; k <= to; k++) {
+            boolean open = k < to && isFree(cellAt(alongX, edge, k)) && isFree(cellAt(alongX, edge + 1, k));
+            if (open && runStart < 0) {
+                runStart = k;
+            } else if (!open && runStart >= 0) {
+                int runEnd = k - 1;
+                if (runEnd - runStart + 1 >= LONG_ENTRANCE) {
+                    addPair(pairs, alongX, edge, runStart);
+                    addPair(pairs, alongX, edge, runEnd);
+                } else {
+                    addPair(pairs, alongX, edge, (runStart + runEnd) / 2);
+                }
+                runStart = -1;
+            }
+        }
+        return pairs.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void addPair(List<Integer> pairs, boolean alongX, int edge, int k) {
+        pairs.add(cellAt(alongX, edge, k));
+        pairs.add(cellAt(alongX, edge + 1, k));
+    }
+
+    private static int cellAt(boolean alongX, int edge, int k) {
+        return alongX ? edge * Board.SIZE + k : k * Board.SIZE + edge;
+    }
+
+    /**
+     * Arma el grafo de un cluster: sus entradas (de sus cuatro bordes), la celda del otro
+     * lado de cada una y las distancias entre ellas sin salir del cluster.
+     */
+    private Cluster buildCluster(int c) {
+        int cx = c / CLUSTERS, cy = c % CLUSTERS;
+        Map<Integer, List<Integer>> linksByCell = new LinkedHashMap<>();
+        collect(linksByCell, nextXBorders[c], 0);
+        collect(linksByCell, nextYBorders[c], 0);
+        if (cx > 0) collect(linksByCell, nextXBorders[c - CLUSTERS], 1);
+        if (cy > 0) collect(linksByCell, nextYBorders[c - 1], 1);
+
+        int n = linksByCell.size();
+        int[] nodes = new int[n];
+        int[][] links = new int[n][];
+        int i = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : linksByCell.entrySet()) {
+            nodes[i] = entry.getKey();
+            links[i] = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+            i++;
+        }
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<Position>[] paths = (List<Position>[]) new List<?>[n * n]; // Rutas internas, se llenan al pedirlas
+        Cluster cluster = new Cluster(cx, cy, nodes, links, new int[n * n], paths);
+        for (int a = 0; a < n; a++) {
+            System.arraycopy(cluster.distancesFrom(nodes[a], board), 0, cluster.distances, a * n, n);
+        }
+        return cluster;
+    }
+
+    /**
+     * Agrega las entradas de un borde: 'side' 0 toma la primera celda de cada par como propia,
+     * 'side' 1 la segunda (el cluster está del otro lado del borde).
+     */
+    private static void collect(Map<Integer, List<Integer>> linksByCell, int[] pairs, int side) {
+        if (pairs == null) return;
+        for (int p = 0; p < pairs.length; p += 2) {
+            linksByCell.computeIfAbsent(pairs[p + side], k -> new ArrayList<>()).add(pairs[p + 1 - side]);
+        }
+    }
+
+    private boolean isFree(int cell) {
+        return isFree(board, cell);
+    }
+
+    /**
+     * Una celda está libre para el grafo si no tiene una defensa terrestre.
+     */
+    private static boolean isFree(Board board, int cell) {
+        Position pos = Position.ofIndex(cell);
+        return !(board.getCell(pos.getX(), pos.getY()).getGroundOccupant() instanceof Defense);
+    }
+
+    private static int clusterOf(int cell) {
+        return (cell / Board.SIZE / CLUSTER_SIZE) * CLUSTERS + (cell % Board.SIZE / CLUSTER_SIZE);
+    }
+
+    /**
+     * Límites (inclusive) del cluster de una celda: {minX, minY, maxX, maxY}.
+     */
+    static int[] clusterBounds(int cell) {
+        int c = clusterOf(cell);
+        int minX = c / CLUSTERS * CLUSTER_SIZE, minY = c % CLUSTERS * CLUSTER_SIZE;
+        return new int[]{minX, minY, Math.min(minX + CLUSTER_SIZE, Board.SIZE) - 1,
+                Math.min(minY + CLUSTER_SIZE, Board.SIZE) - 1};
+    }
+
+    static boolean sameCluster(int a, int b) {
+        return clusterOf(a) == clusterOf(b);
+    }
+
+    /**
+     * Tramo entre dos puntos de paso consecutivos que son entradas: el precalculado dentro del
+     * cluster si ambas son del mismo, o el cruce del borde si son vecinas. No considera zombies.
+     * @return El tramo (inicio y fin incluidos), o null si no son entradas del mismo cluster ni vecinas.
+     */
+    List<Position> innerPath(int fromCell, int toCell) {
+        Position from = Position.ofIndex(fromCell);
+        Position to = Position.ofIndex(toCell);
+        if (!sameCluster(fromCell, toCell)) {
+            return from.manhattanDistanceTo(to) == 1 ? List.of(from, to) : null;
+        }
+        Cluster cluster = clusters[clusterOf(fromCell)];
+        int i = cluster.slotOf(fromCell), j = cluster.slotOf(toCell);
+        return i < 0 || j < 0 ? null : cluster.path(i, j, board);
+    }
+
+    /**
+     * Grafo de un cluster (inmutable una vez armado, salvo el caché de tramos).
+     * distances[i * n + j] es la distancia de la entrada i a la j sin salir del cluster, o -1.
+     * paths[i * n + j] es ese tramo, calculado al primer uso (ver path).
+     */
+    private record Cluster(int cx, int cy, int[] nodes, int[][] links, int[] distances, List<Position>[] paths) {
+
+        /**
+         * Tramo más corto de la entrada i a la j dentro del cluster, o null si no hay.
+         * Si dos hilos lo piden a la vez lo calculan los dos: da el mismo resultado.
+         */
+        List<Position> path(int i, int j, Board board) {
+            int n = nodes.length;
+            List<Position> cached = paths[i * n + j];
+            if (cached != null || distances[i * n + j] < 0) return cached;
+
+            // Camina desde j hacia i por celdas con distancia decreciente (BFS desde i)
+            int[] reach = reach(nodes[i], board);
+            Position[] steps = new Position[distances[i * n + j] + 1];
+            Position current = Position.ofIndex(nodes[j]);
+            for (int k = steps.length - 1; k > 0; k--) {
+                steps[k] = current;
+                int d = costTo(reach, current.getIndex());
+                for (Position previous : board.getNeighbors(current)) {
+                    if (costTo(reach, previous.getIndex()) == d - 1) {
+                        current = previous;
+                        break;
+                    }
+                }
+            }
+            steps[0] = current;
+            List<Position> path = List.of(steps); // Inmutable: se puede compartir entre hilos
+            paths[i * n + j] = path;
+            return path;
+        }
+
+        int slotOf(int cell) {
+            for (int i = 0; i < nodes.length; i++) {
+                if (nodes[i] == cell) return i;
+            }
+            return -1;
+        }
+
+        /**
+         * Distancia desde 'origin' a cada entrada (en el orden de nodes), o -1 si no se llega.
+         */
+        int[] distancesFrom(int origin, Board board) {
+            return costsTo(reach(origin, board));
+        }
+
+        int[] costsTo(int[] reach) {
+            int[] result = new int[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                result[i] = costTo(reach, nodes[i]);
+            }
+            return result;
+        }
+
+        /**
+         * Distancia a una celda según el resultado de reach(), o -1 si está fuera del cluster o no se llega.
+         */
+        int costTo(int[] reach, int cell) {
+            Position pos = Position.ofIndex(cell);
+            int lx = pos.getX() - cx * CLUSTER_SIZE, ly = pos.getY() - cy * CLUSTER_SIZE;
+            int height = height();
+            if (lx < 0 || lx >= reach.length / height || ly < 0 || ly >= height) return -1;
+            return reach[lx * height + ly];
+        }
+
+        private int height() {
+            return Math.min((cy + 1) * CLUSTER_SIZE, Board.SIZE) - cy * CLUSTER_SIZE;
+        }
+
+        /**
+         * BFS desde 'origin' sin salir del cluster ni pisar defensas terrestres
+         * (el origen puede estar ocupado: es el destino de la ruta).
+         * @return La distancia a cada celda del cluster (índice local x * alto + y), o -1 si no se llega.
+         */
+        int[] reach(int origin, Board board) {
+            int minX = cx * CLUSTER_SIZE, minY = cy * CLUSTER_SIZE;
+            int width = Math.min(minX + CLUSTER_SIZE, Board.SIZE) - minX;
+            int height = height();
+            int[] dist = new int[width * height];
+            Arrays.fill(dist, -1);
+            ArrayDeque<Position> queue = new ArrayDeque<>();
+            Position start = Position.ofIndex(origin);
+            dist[(start.getX() - minX) * height + start.getY() - minY] = 0;
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                Position current = queue.poll();
+                int d = dist[(current.getX() - minX) * height + current.getY() - minY];
+                for (Position next : board.getNeighbors(current)) {
+                    int lx = next.getX() - minX, ly = next.getY() - minY;
+                    if (lx < 0 || lx >= width || ly < 0 || ly >= height) continue;
+                    if (dist[lx * height + ly] >= 0 || !isFree(board, next.getIndex())) continue;
+                    dist[lx * height + ly] = d + 1;
+                    queue.add(next);
+                }
+            }
+            return dist;
+        }
+    }
+
+    /** Nodo de la búsqueda abstracta (uno por celda visitada). */
+    private static final class Step {
+        final int cell;
+        Step parent;
+        int gScore;
+        boolean closed;
+
+        Step(int cell, Step parent, int gScore) {
+            this.cell = cell;
+            this.parent = parent;
+            this.gScore = gScore;
+        }
+    }
+
+    /** Entrada de la cola: guarda el gScore con que se insertó para descartar las viejas. */
+    private record Open(Step step, double fScore, int gScore) {
+        Open(Step step, double fScore) {
+            this(step, fScore, step.gScore);
+        }
+    }
+}
@@ -4,29 +4,71 @@ import diblo.thewalkingtec.model.Position;
 import diblo.thewalkingtec.model.enums.ComponentType;
 
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Servicio de búsqueda de rutas (Pathfinding) usando el algoritmo A* (A-Star).
  * Este servicio encuentra el camino más corto (o una aproximación)
  * desde una posición 'from' a una 'to', respetando los obstáculos.
+ *
+ * Las rutas terrestres largas (ver hierarchyMinDistance) se planifican primero sobre el
+ * grafo de clusters del tablero (PathHierarchy) y se refinan con A* dentro de cada cluster;
+ * si eso no sirve (sin ruta, límite agotado o un zombie tapando un tramo) se usa el A* normal.
+ *
+ * La búsqueda sobre todo el tablero puede ser A* o Jump Point Search (ver SearchStrategy).
  */
 public class PathfindingService {
 
     /**
-     * Sobrecarga simple de findPath (para componentes terrestres, sin límite).
+     * Límite de nodos expandidos usado por las sobrecargas sin límite explícito.
+     * Por defecto no hay límite; el GameLoopController lo reduce (política DEGRADE)
+     * cuando los ticks se exceden de su presupuesto.
+     */
+    private volatile int defaultMaxExpandedNodes = Integer.MAX_VALUE;
+
+    /**
+     * Distancia Manhattan desde la que una ruta terrestre usa el grafo de clusters.
+     * Con rutas cortas el A* sobre celdas es más rápido (y exacto): en el tablero de 25x25
+     * la distancia máxima es 48, así que ahí no se usa. Integer.MAX_VALUE lo desactiva siempre.
+     */
+    private volatile int hierarchyMinDistance = 64;
+
+    private volatile SearchStrategy searchStrategy = SearchStrategy.A_STAR;
+
+    // Direcciones de movimiento (sin diagonales), en el mismo orden que Board.getNeighbors
+    private static final int[][] DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+    // Nodos expandidos por todas las búsquedas (para benchmarks y diagnóstico)
+    private final LongAdder expandedNodes = new LongAdder();
+
+    /**
+     * Sobrecarga simple de findPath (para componentes terrestres, límite por defecto).
      */
     public List<Position> findPath(Board board, Position from, Position to) {
-        // Por defecto, asume un componente terrestre y sin límite de búsqueda
-        return findPath(board, from, to, ComponentType.CONTACT, Integer.MAX_VALUE, 1.0);
+        // Por defecto, asume un componente terrestre
+        return findPath(board, from, to, ComponentType.CONTACT, defaultMaxExpandedNodes, 1.0);
     }
 
     /**
      * Sobrecarga de findPath que considera el tipo de componente.
      */
     public List<Position> findPath(Board board, Position from, Position to, ComponentType moverType) {
-        return findPath(board, from, to, moverType, Integer.MAX_VALUE, 1.0);
+        return findPath(board, from, to, moverType, defaultMaxExpandedNodes, 1.0);
     }
 
+    public int getDefaultMaxExpandedNodes() { return defaultMaxExpandedNodes; }
+    public void setDefaultMaxExpandedNodes(int maxExpandedNodes) { this.defaultMaxExpandedNodes = maxExpandedNodes; }
+    public int getHierarchyMinDistance() { return hierarchyMinDistance; }
+    public void setHierarchyMinDistance(int hierarchyMinDistance) { this.hierarchyMinDistance = hierarchyMinDistance; }
+    public SearchStrategy getSearchStrategy() { return searchStrategy; }
+    public void setSearchStrategy(SearchStrategy searchStrategy) { this.searchStrategy = Objects.requireNonNull(searchStrategy); }
+
+    /**
+     * Total de nodos expandidos desde que se creó el servicio (todas las búsquedas, todos los hilos).
+     * En Jump Point Search solo cuentan los puntos de salto, no las celdas recorridas al saltar.
+     */
+    public long getExpandedNodeCount() { return expandedNodes.sum(); }
+
     /**
      * Implementación principal del algoritmo A*.
      *
@@ -35,6 +77,7 @@ public class PathfindingService {
      * @param to Posición final (objetivo).
      * @param moverType El tipo de componente que se mueve (AERIAL o terrestre).
      * @param maxExpandedNodes Límite de nodos a expandir (para evitar lag).
+     *                         En las rutas por clusters limita los nodos del grafo abstracto.
      * @param heuristicWeight Peso de la heurística (1.0 = A* estándar, >1.0 = Búsqueda "Greedy").
      * @return Una lista de Posiciones (la ruta), o null si no se encontró.
      */
@@ -45,24 +88,94 @@ public class PathfindingService {
             return Collections.singletonList(from); // Ya está en el destino
         }
 
-        Set<Position> closedSet = new HashSet<>(); // Nodos ya evaluados
+        if (!moverType.isAerial() && from.manhattanDistanceTo(to) >= hierarchyMinDistance
+                && board.isValidPosition(from) && board.isValidPosition(to)
+                && !PathHierarchy.sameCluster(from.getIndex(), to.getIndex())) {
+            int[] waypoints = board.getPathHierarchy().findWaypoints(from, to, maxExpandedNodes);
+            if (waypoints == PathHierarchy.UNREACHABLE && maxExpandedNodes == Integer.MAX_VALUE) {
+                return null; // Las defensas cortan el paso (con límite, el A* normal devuelve la mejor parcial)
+            }
+            List<Position> path = waypoints == null || waypoints == PathHierarchy.UNREACHABLE
+                    ? null : refine(board, waypoints, moverType);
+            if (path != null) return path;
+        }
+        if (searchStrategy == SearchStrategy.JUMP_POINT && board.isValidPosition(from) && board.isValidPosition(to)) {
+            return jumpPointSearch(board, from, to, moverType, maxExpandedNodes, heuristicWeight);
+        }
+        return search(board, from, to, moverType, maxExpandedNodes, heuristicWeight,
+                new int[]{0, 0, Board.SIZE - 1, Board.SIZE - 1});
+    }
+
+    /**
+     * Refina los puntos de paso del grafo de clusters tramo a tramo.
+     * Los tramos entre entradas salen del caché de cada cluster (solo esquivan defensas);
+     * el primero y el último se buscan con A* dentro de su cluster (o de dos vecinos, si
+     * cruzan un borde) con la ocupación real: los zombies cercanos sí importan para el
+     * próximo paso, los lejanos ya se habrán movido cuando se llegue a ellos.
+     *
+     * @return La ruta completa, o null para que se busque con A* en todo el tablero.
+     */
+    private List<Position> refine(Board board, int[] waypoints, ComponentType moverType) {
+        PathHierarchy hierarchy = board.getPathHierarchy();
+        List<Position> path = new ArrayList<>();
+        path.add(Position.ofIndex(waypoints[0]));
+        for (int i = 1; i < waypoints.length; i++) {
+            Position a = Position.ofIndex(waypoints[i - 1]);
+            Position b = Position.ofIndex(waypoints[i]);
+            if (i > 1 && i < waypoints.length - 1) {
+                List<Position> inner = hierarchy.innerPath(a.getIndex(), b.getIndex());
+                if (inner == null) return null; // El cluster se recalculó durante la búsqueda
+                path.addAll(inner.subList(1, inner.size()));
+                continue;
+            }
+            int[] bounds = PathHierarchy.clusterBounds(a.getIndex());
+            if (!PathHierarchy.sameCluster(a.getIndex(), b.getIndex())) { // Cruza a un cluster vecino
+                int[] other = PathHierarchy.clusterBounds(b.getIndex());
+                bounds = new int[]{Math.min(bounds[0], other[0]), Math.min(bounds[1], other[1]),
+                        Math.max(bounds[2], other[2]), Math.max(bounds[3], other[3])};
+            }
+            List<Position> leg = search(board, a, b, moverType, Integer.MAX_VALUE, 1.0, bounds);
+            if (leg == null) return null; // Los zombies tapan el tramo dentro del cluster
+            // El primer punto de paso ocupado por otro terrestre: el A* normal lo rodea en vez de esperar
+            if (i == 1 && i < waypoints.length - 1 && board.getCell(b.getX(), b.getY()).hasGroundOccupant()) {
+                return null;
+            }
+            path.addAll(leg.subList(1, leg.size()));
+        }
+        return path;
+    }
+
+    /**
+     * A* sobre celdas, sin salir del rectángulo 'bounds' ({minX, minY, maxX, maxY}, inclusive).
+     * 'from' y 'to' deben estar dentro de él.
+     */
+    private List<Position> search(Board board, Position from, Position to, ComponentType moverType,
+                                  int maxExpandedNodes, double heuristicWeight, int[] bounds) {
+        int minX = bounds[0], minY = bounds[1];
+        int width = bounds[2] - minX + 1, height = bounds[3] - minY + 1;
+
+        // Nodos creados y evaluados, indexados por su celda dentro del rectángulo (sin hashing por vecino)
+        boolean[] closedSet = new boolean[width * height];
+        Node[] allNodes = new Node[width * height];
         // Cola de prioridad que ordena por fScore (el costo estimado total)
         PriorityQueue<Node> openSet = new PriorityQueue<>(Comparator.comparingDouble(n -> n.fScore));
-        Map<Position, Node> allNodes = new HashMap<>(); // Acceso rápido a todos los nodos creados
 
         // 1. Inicializar con el nodo de inicio
         Node startNode = new Node(from, 0.0, from.manhattanDistanceTo(to));
         startNode.fScore = startNode.gScore + heuristicWeight * startNode.hScore; // f = g + (w * h)
 
         openSet.add(startNode);
-        allNodes.put(from, startNode);
+        startNode.open = true;
+        allNodes[(from.getX() - minX) * height + from.getY() - minY] = startNode;
 
+        int toIndex = (to.getX() - minX) * height + to.getY() - minY; // Las comparaciones con el destino se hacen por índice
         int expanded = 0; // Contador de nodos expandidos
         Node bestSeen = startNode; // La mejor aproximación encontrada (el más cercano al 'to')
 
         // 2. Bucle principal de A*
         while (!openSet.isEmpty()) {
             Node current = openSet.poll(); // Obtiene el nodo con el menor fScore
+            current.open = false;
 
             // Actualiza la mejor aproximación (el que tenga menor hScore)
             if (current.hScore < bestSeen.hScore) {
@@ -70,27 +183,33 @@ public class PathfindingService {
             }
 
             // Si es el destino, hemos terminado
-            if (current.position.equals(to)) {
+            int currentIndex = (current.position.getX() - minX) * height + current.position.getY() - minY;
+            if (currentIndex == toIndex) {
+                expandedNodes.add(expanded);
                 return reconstructPath(current);
             }
 
-            closedSet.add(current.position); // Marca como visitado
+            closedSet[currentIndex] = true; // Marca como visitado
 
             // Control de límite de expansión (para rendimiento)
             expanded++;
             if (expanded > maxExpandedNodes) {
+                expandedNodes.add(expanded);
                 return reconstructPath(bestSeen); // Devuelve la mejor ruta parcial
             }
 
             // 3. Explorar vecinos
             for (Position neighborPos : board.getNeighbors(current.position)) {
-                if (closedSet.contains(neighborPos)) continue; // Ignora si ya se evaluó
+                int localX = neighborPos.getX() - minX, localY = neighborPos.getY() - minY;
+                if (localX < 0 || localX >= width || localY < 0 || localY >= height) continue; // Fuera del rectángulo
+                int neighborIndex = localX * height + localY;
+                if (closedSet[neighborIndex]) continue; // Ignora si ya se evaluó
 
                 // Regla de colisión:
                 // Si NO soy Aéreo, compruebo si el vecino tiene un ocupante terrestre.
                 if (!moverType.isAerial()) {
                     // (Ignoramos la colisión si el vecino es el destino final)
-                    if (!neighborPos.equals(to) && board.getCell(neighborPos.getX(), neighborPos.getY()).hasGroundOccupant()) {
+                    if (neighborIndex != toIndex && board.getCell(neighborPos.getX(), neighborPos.getY()).hasGroundOccupant()) {
                         continue; // Es un obstáculo terrestre, ignorar vecino
                     }
                 }
@@ -98,11 +217,11 @@ public class PathfindingService {
 
                 double tentativeGScore = current.gScore + 1.0; // Costo de moverse al vecino (1)
 
-                Node neighborNode = allNodes.get(neighborPos);
+                Node neighborNode = allNodes[neighborIndex];
                 if (neighborNode == null) {
                     // Si es un nodo nuevo, se crea con G infinito
                     neighborNode = new Node(neighborPos, Double.POSITIVE_INFINITY, neighborPos.manhattanDistanceTo(to));
-                    allNodes.put(neighborPos, neighborNode);
+                    allNodes[neighborIndex] = neighborNode;
                 }
 
                 // Si la ruta actual NO es mejor que la que ya tenía, ignorar
@@ -117,17 +236,175 @@ public class PathfindingService {
                 neighborNode.fScore = neighborNode.gScore + heuristicWeight * neighborNode.hScore;
 
                 // Re-insertar en la cola de prioridad para reordenar
-                if (openSet.contains(neighborNode)) {
+                if (neighborNode.open) {
                     openSet.remove(neighborNode);
                 }
                 openSet.add(neighborNode);
+                neighborNode.open = true;
             }
         }
 
         // No se encontró camino (destino inalcanzable)
+        expandedNodes.add(expanded);
         return null;
     }
 
+    /**
+     * Jump Point Search adaptado a 4 direcciones, sobre todo el tablero.
+     *
+     * Con costo uniforme hay muchas rutas óptimas equivalentes (las "escaleras" entre dos celdas)
+     * y el A* las expande casi todas. JPS avanza en línea recta sin encolar las celdas intermedias
+     * y solo se detiene (punto de salto) en el destino o donde un obstáculo abre un desvío que no
+     * se podía tomar antes. El resultado tiene el mismo largo que el de A*, aunque puede pasar
+     * por otras celdas. Con límite de expansión devuelve la mejor ruta parcial, igual que A*.
+     */
+    private List<Position> jumpPointSearch(Board board, Position from, Position to, ComponentType moverType,
+                                           int maxExpandedNodes, double heuristicWeight) {
+        JumpScanner scanner = new JumpScanner(board, moverType.isAerial(), to);
+        boolean[] closedSet = new boolean[Board.SIZE * Board.SIZE];
+        Node[] allNodes = new Node[Board.SIZE * Board.SIZE];
+        PriorityQueue<Node> openSet = new PriorityQueue<>(Comparator.comparingDouble(n -> n.fScore));
+
+        Node startNode = new Node(from, 0.0, from.manhattanDistanceTo(to));
+        startNode.fScore = heuristicWeight * startNode.hScore;
+        openSet.add(startNode);
+        startNode.open = true;
+        allNodes[from.getIndex()] = startNode;
+
+        int toIndex = to.getIndex();
+        int expanded = 0;
+        Node bestSeen = startNode;
+
+        while (!openSet.isEmpty()) {
+            Node current = openSet.poll();
+            current.open = false;
+            if (current.hScore < bestSeen.hScore) {
+                bestSeen = current;
+            }
+            if (current.position.getIndex() == toIndex) {
+                expandedNodes.add(expanded);
+                return fillJumps(reconstructPath(current));
+            }
+            closedSet[current.position.getIndex()] = true;
+            expanded++;
+            if (expanded > maxExpandedNodes) {
+                expandedNodes.add(expanded);
+                return fillJumps(reconstructPath(bestSeen));
+            }
+
+            int x = current.position.getX(), y = current.position.getY();
+            for (int[] direction : DIRECTIONS) {
+                if (!scanner.isUnpruned(current, direction[0], direction[1])) continue;
+                Position jumpPoint = scanner.jump(x + direction[0], y + direction[1], direction[0], direction[1]);
+                if (jumpPoint == null || closedSet[jumpPoint.getIndex()]) continue;
+
+                // Entre el nodo y su punto de salto hay una línea recta libre: el costo es la distancia
+                double tentativeGScore = current.gScore + current.position.manhattanDistanceTo(jumpPoint);
+                Node jumpNode = allNodes[jumpPoint.getIndex()];
+                if (jumpNode == null) {
+                    jumpNode = new Node(jumpPoint, Double.POSITIVE_INFINITY, jumpPoint.manhattanDistanceTo(to));
+                    allNodes[jumpPoint.getIndex()] = jumpNode;
+                }
+                if (tentativeGScore >= jumpNode.gScore) continue;
+
+                jumpNode.parent = current;
+                jumpNode.gScore = tentativeGScore;
+                jumpNode.fScore = tentativeGScore + heuristicWeight * jumpNode.hScore;
+                if (jumpNode.open) {
+                    openSet.remove(jumpNode);
+                }
+                openSet.add(jumpNode);
+                jumpNode.open = true;
+            }
+        }
+
+        expandedNodes.add(expanded);
+        return null;
+    }
+
+    /**
+     * Completa las celdas entre puntos de salto consecutivos (siempre están en línea recta).
+     */
+    private static List<Position> fillJumps(List<Position> jumpPoints) {
+        List<Position> path = new ArrayList<>();
+        path.add(jumpPoints.get(0));
+        for (int i = 1; i < jumpPoints.size(); i++) {
+            Position a = jumpPoints.get(i - 1), b = jumpPoints.get(i);
+            int dx = Integer.signum(b.getX() - a.getX()), dy = Integer.signum(b.getY() - a.getY());
+            for (int x = a.getX() + dx, y = a.getY() + dy; ; x += dx, y += dy) {
+                path.add(Position.of(x, y));
+                if (x == b.getX() && y == b.getY()) break;
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Reglas de salto de JPS en 4 direcciones para una búsqueda (tablero, tipo de componente y destino).
+     */
+    private static final class JumpScanner {
+        private final Board board;
+        private final boolean aerial;
+        private final int goalX, goalY;
+
+        JumpScanner(Board board, boolean aerial, Position goal) {
+            this.board = board;
+            this.aerial = aerial;
+            this.goalX = goal.getX();
+            this.goalY = goal.getY();
+        }
+
+        /**
+         * Misma regla de colisión que el A*: fuera del tablero o con un terrestre bloquea
+         * (salvo el destino, o si quien se mueve es aéreo).
+         */
+        boolean walkable(int x, int y) {
+            if (x < 0 || x >= Board.SIZE || y < 0 || y >= Board.SIZE) return false;
+            if (aerial || (x == goalX && y == goalY)) return true;
+            return !board.getCell(x, y).hasGroundOccupant();
+        }
+
+        /**
+         * Poda de vecinos: al llegar en horizontal se sigue de frente o se dobla, pero no se
+         * vuelve (lo mismo en vertical). El inicio explora las cuatro direcciones.
+         */
+        boolean isUnpruned(Node node, int dx, int dy) {
+            if (node.parent == null) return true;
+            int px = Integer.signum(node.position.getX() - node.parent.position.getX());
+            int py = Integer.signum(node.position.getY() - node.parent.position.getY());
+            return !(dx == -px && dy == -py);
+        }
+
+        /**
+         * Avanza desde (x, y) en la dirección (dx, dy) hasta el próximo punto de salto.
+         * @return El punto de salto, o null si se choca con un obstáculo antes.
+         */
+        Position jump(int x, int y, int dx, int dy) {
+            while (walkable(x, y)) {
+                if (x == goalX && y == goalY) return Position.of(x, y);
+                if (dx != 0) {
+                    // Vecino forzado: un lado se abre justo después de un obstáculo
+                    if ((walkable(x, y - 1) && !walkable(x - dx, y - 1))
+                            || (walkable(x, y + 1) && !walkable(x - dx, y + 1))) {
+                        return Position.of(x, y);
+                    }
+                } else {
+                    if ((walkable(x - 1, y) && !walkable(x - 1, y - dy))
+                            || (walkable(x + 1, y) && !walkable(x + 1, y - dy))) {
+                        return Position.of(x, y);
+                    }
+                    // En vertical no se encolan los giros: se para si un salto horizontal encuentra algo
+                    if (jump(x + 1, y, 1, 0) != null || jump(x - 1, y, -1, 0) != null) {
+                        return Position.of(x, y);
+                    }
+                }
+                x += dx;
+                y += dy;
+            }
+            return null;
+        }
+    }
+
     /**
      * Reconstruye la lista de posiciones (ruta) yendo hacia atrás
      * desde el nodo final hasta el nodo inicial (parent == null).
@@ -148,6 +425,8 @@ public class PathfindingService {
 
     /**
      * Clase interna que representa un nodo en el grafo de búsqueda A*.
+     * Hay un solo nodo por posición en cada búsqueda, así que se comparan por identidad
+     * (openSet.remove no necesita llamar a Position.equals por cada elemento de la cola).
      */
     private static class Node {
         Position position;
@@ -155,6 +434,7 @@ public class PathfindingService {
         double gScore; // Costo real desde el inicio (G)
         double hScore; // Costo heurístico estimado al final (H)
         double fScore; // Costo total (F = G + H)
+        boolean open; // Está en el openSet (evita openSet.contains, que recorre toda la cola)
 
         Node(Position position, double gScore, double hScore) {
             this.position = position;
@@ -163,18 +443,5 @@ public class PathfindingService {
             this.fScore = gScore + hScore;
             this.parent = null;
         }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (!(o instanceof Node)) return false;
-            Node node = (Node) o;
-            return position.equals(node.position); // Compara nodos por su posición
-        }
-
-        @Override
-        public int hashCode() {
-            return position.hashCode(); // Usa el hash de la posición
-        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package diblo.thewalkingtec.service;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Proveedor de aleatoriedad de una partida.
+ *
+ * Todo parte de una sola semilla: el flujo principal (boosts de nivel, posición de spawn)
+ * lo usa únicamente el hilo del tick, y cada entidad recibe su propio flujo derivado
+ * (split) al ser creada. Así los hilos de componentes nunca comparten un generador
+ * (no hay contención ni AtomicLong compartido) y la misma semilla reproduce la misma
+ * secuencia de números para cada entidad.
+ */
+public class RandomProvider {
+
+    private final long seed;
+    private final SplittableRandom main;     // Solo desde el hilo del tick
+    private final SplittableRandom splitter; // Fuente de los flujos por entidad (protegida por 'this')
+
+    public RandomProvider(long seed) {
+        this.seed = seed;
+        this.main = new SplittableRandom(seed);
+        this.splitter = main.split();
+    }
+
+    /**
+     * Flujo principal de la partida. NO es thread-safe: solo para el hilo del tick.
+     */
+    public RandomGenerator main() {
+        return main;
+    }
+
+    /**
+     * Crea un flujo independiente para una entidad (ej. un zombie al ser creado).
+     * El orden de las llamadas define los flujos, así que para reproducir una semilla
+     * deben hacerse en orden determinista (en el hilo del tick).
+     */
+    public synchronized SplittableRandom split() {
+        return splitter.split();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,103 @@
+package diblo.thewalkingtec.service;
+
+import diblo.thewalkingtec.model.LogEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registro de los golpes a la reliquia durante el nivel.
+ *
+ * Guarda las últimas CAPACITY entradas en un anillo y, aparte, totales por tipo de
+ * enemigo (id de configuración) que cubren el nivel completo: los zombies que el Board
+ * ya limpió siguen contando. Así las vistas de la reliquia cuestan O(filas mostradas)
+ * en vez de recorrer el log de cada zombie.
+ *
+ * Cada golpe recibe un número de secuencia (0, 1, 2...); la UI lo usa como cursor
+ * para pedir solo lo nuevo con copySince().
+ *
+ * Escribe la fase de daño del tick (un solo hilo); la UI lee desde el hilo de JavaFX.
+ */
+public class RelicHitLog {
+
+    public static final int CAPACITY = 1000;
+
+    private final LogEntry[] ring = new LogEntry[CAPACITY];
+    private long totalHits; // Golpes del nivel = secuencia del próximo golpe
+    private final Map<String, TypeTotals> byType = new LinkedHashMap<>(); // Orden del primer golpe
+
+    /**
+     * Anota un golpe.
+     * @param entry La entrada de log del golpe (la misma que queda en el log del atacante).
+     * @param dealt Daño efectivo (sin el exceso sobre la vida que le quedaba a la reliquia).
+     */
+    synchronized void record(LogEntry entry, int dealt) {
+        ring[(int) (totalHits % CAPACITY)] = entry;
+        totalHits++;
+        TypeTotals totals = byType.computeIfAbsent(entry.getAttackerId(), id -> new TypeTotals(entry.getAttackerName()));
+        totals.hits++;
+        totals.damage += dealt;
+    }
+
+    /** Vacía el registro (inicio de nivel). */
+    synchronized void reset() {
+        Arrays.fill(ring, null);
+        totalHits = 0;
+        byType.clear();
+    }
+
+    /** Golpes del nivel, incluidos los que ya salieron del anillo. */
+    public synchronized long getTotalHits() {
+        return totalHits;
+    }
+
+    /**
+     * Las últimas 'max' entradas (como mucho CAPACITY), de la más vieja a la más nueva.
+     */
+    public synchronized List<LogEntry> latest(int max) {
+        List<LogEntry> out = new ArrayList<>();
+        copySince(0, max, out);
+        return out;
+    }
+
+    /**
+     * Copia a 'out' las entradas con secuencia >= 'fromSeq' (como máximo las últimas 'max'
+     * y solo las que siguen en el anillo).
+     * @return El nuevo cursor (secuencia del próximo golpe).
+     */
+    public synchronized long copySince(long fromSeq, int max, List<LogEntry> out) {
+        long oldest = Math.max(0, totalHits - CAPACITY);
+        long from = Math.max(Math.max(fromSeq, oldest), totalHits - max);
+        for (long seq = Math.max(0, from); seq < totalHits; seq++) {
+            out.add(ring[(int) (seq % CAPACITY)]);
+        }
+        return totalHits;
+    }
+
+    /**
+     * Totales por tipo de enemigo (id de configuración), en el orden del primer golpe.
+     */
+    public synchronized List<TypeSummary> summaryByType() {
+        List<TypeSummary> summary = new ArrayList<>(byType.size());
+        byType.forEach((id, totals) -> summary.add(new TypeSummary(id, totals.name, totals.hits, totals.damage)));
+        return summary;
+    }
+
+    private static final class TypeTotals {
+        final String name;
+        long hits;
+        long damage;
+
+        TypeTotals(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Golpes y daño de un tipo de enemigo a la reliquia.
+     */
+    public record TypeSummary(String id, String name, long hits, long damage) {}
+}
@@ -0,0 +1,144 @@
+package diblo.thewalkingtec.service;
+
+import diblo.thewalkingtec.model.Defense;
+import diblo.thewalkingtec.model.config.GameConfig;
+import diblo.thewalkingtec.util.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reproduce una partida grabada en un CommandJournal, sin interfaz y a máxima velocidad.
+ *
+ * Recrea la partida con la semilla del diario, avanza tick a tick (por defecto en modo INLINE) y
+ * aplica cada comando exactamente en el tick en que se grabó. En cada checkpoint
+ * compara el hash del estado con el grabado y anota las diferencias.
+ *
+ * Se puede avanzar hasta cualquier tick (fastForward) e inspeccionar el Game en ese punto.
+ */
+public class ReplayEngine {
+
+    /**
+     * Un checkpoint cuyo hash no coincide con el grabado.
+     */
+    public record Mismatch(long tick, long expectedHash, long actualHash) {}
+
+    private final CommandJournal.Header header;
+    private final List<CommandJournal.Command> commands;
+    private final Game game;
+    private final List<Mismatch> mismatches = new ArrayList<>();
+    private int nextCommand; // Índice del siguiente comando por aplicar
+    private int checkpointsVerified;
+
+    /**
+     * @param journal Ruta del diario grabado.
+     * @param config La configuración con la que se jugó la partida.
+     */
+    public ReplayEngine(Path journal, GameConfig config) throws IOException {
+        this(journal, config, ExecutionMode.INLINE);
+    }
+
+    /**
+     * @param executionMode Backend de los componentes. Todos deben dar el mismo resultado;
+     *                      correr con otro sirve para buscar divergencias (ver tools/StateDiff).
+     */
+    public ReplayEngine(Path journal, GameConfig config, ExecutionMode executionMode) throws IOException {
+        CommandJournal.Contents contents = CommandJournal.read(journal);
+        this.header = contents.header();
+        this.commands = contents.commands();
+
+        if (ConfigurationManager.fingerprint(config) != header.configFingerprint()) {
+            Logger.warning("La configuración no coincide con la del diario: la repetición puede divergir");
+        }
+
+        this.game = new Game(header.playerName(), config, header.seed());
+        this.game.setExecutionMode(executionMode);
+        this.game.startHeadless();
+    }
+
+    /**
+     * Avanza la partida hasta el tick indicado (o hasta que termine el diario o la partida).
+     *
+     * @return El tick alcanzado.
+     */
+    public long fastForward(long targetTick) {
+        while (game.getTickCount() <= targetTick) {
+            applyPendingCommands(); // Comandos grabados entre este tick y el siguiente
+
+            if (game.getTickCount() == targetTick || !game.isRunning()) break;
+            if (game.isPaused()) {
+                // Ya se aplicó todo lo de este tick: si sigue pausado, el diario no puede avanzar
+                if (nextCommand < commands.size()) {
+                    Logger.warning("Repetición detenida: el juego está pausado en el tick "
+                            + game.getTickCount() + " pero el diario sigue en el tick " + commands.get(nextCommand).tick());
+                }
+                break;
+            }
+            game.step(1);
+        }
+        return game.getTickCount();
+    }
+
+    /**
+     * Reproduce el diario completo (hasta su último registro).
+     *
+     * @return El tick final.
+     */
+    public long runToEnd() {
+        return fastForward(getLastRecordedTick());
+    }
+
+    private void applyPendingCommands() {
+        long tick = game.getTickCount();
+        while (nextCommand < commands.size() && commands.get(nextCommand).tick() == tick) {
+            apply(commands.get(nextCommand++));
+        }
+    }
+
+    private void apply(CommandJournal.Command command) {
+        switch (command.type()) {
+            case PLACE -> {
+                Defense defense = game.createDefense(command.defenseId());
+                if (defense == null || !game.placeDefense(defense, command.position())) {
+                    Logger.warning("Repetición: no se pudo colocar " + command.defenseId()
+                            + " en " + command.position() + " (tick " + command.tick() + ")");
+                }
+            }
+            case REMOVE -> {
+                Defense defense = game.getBoard().getDefenseAt(command.position());
+                if (defense != null) {
+                    game.removeDefense(defense);
+                } else {
+                    Logger.warning("Repetición: no hay defensa en " + command.position() + " (tick " + command.tick() + ")");
+                }
+            }
+            case PAUSE -> game.pause();
+            case RESUME -> game.resume();
+            case NEXT_LEVEL -> game.nextLevel();
+            case RESTART_LEVEL -> game.restartLevel();
+            case CHECKPOINT -> {
+                long actual = game.getStateHash();
+                checkpointsVerified++;
+                if (actual != command.stateHash()) {
+                    mismatches.add(new Mismatch(command.tick(), command.stateHash(), actual));
+                }
+            }
+        }
+    }
+
+    // --- Getters ---
+    public Game getGame() { return game; }
+    public CommandJournal.Header getHeader() { return header; }
+    public List<Mismatch> getMismatches() { return List.copyOf(mismatches); }
+    public int getCheckpointsVerified() { return checkpointsVerified; }
+    public boolean isFinished() { return nextCommand >= commands.size(); }
+
+    /**
+     * Tick del último comando del diario (normalmente el checkpoint final).
+     */
+    public long getLastRecordedTick() {
+        return commands.isEmpty() ? 0 : commands.get(commands.size() - 1).tick();
+    }
+}
@@ -0,0 +1,335 @@
+package diblo.thewalkingtec.service;
+
+import diblo.thewalkingtec.util.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Catálogo de partidas guardadas en una carpeta (ej. "saves/").
+ *
+ * Cada guardado es un archivo SLOT.twsave con un encabezado binario de tamaño fijo
+ * (HEADER_BYTES: jugador, nivel, puntos, vida de la reliquia, fecha y cantidad de
+ * componentes) seguido del guardado de SaveManager comprimido con GZIP. Para listar
+ * basta el encabezado: el contenido solo se descomprime al cargar.
+ *
+ * index.bin guarda los encabezados de todos los guardados junto con el tamaño y la fecha
+ * de modificación de su archivo. list() lee el índice y solo abre los archivos que no
+ * coinciden (nuevos o cambiados desde afuera); si hubo diferencias, reescribe el índice.
+ *
+ * Los métodos son synchronized: la UI puede listar mientras se guarda.
+ */
+public class SaveCatalog {
+
+    public static final String EXTENSION = ".twsave";
+    private static final String INDEX_FILE = "index.bin";
+
+    private static final int MAGIC = 0x54575331; // "TWS1"
+    private static final int INDEX_MAGIC = 0x54575358; // "TWSX"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 128;
+    private static final int MAX_NAME_BYTES = HEADER_BYTES - 32; // Lo que queda tras los campos fijos y el largo
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final Path directory;
+
+    /**
+     * Metadatos de un guardado (lo que hay en su encabezado).
+     *
+     * @param slot Nombre del guardado (el archivo sin EXTENSION).
+     * @param level Número de nivel (índice + 1).
+     * @param timestamp Fecha del guardado, en milisegundos desde 1970.
+     * @param fileSize Tamaño del archivo en bytes.
+     */
+    public record SaveInfo(String slot, String playerName, int level, int score, int relicLife,
+                           int componentCount, long timestamp, long fileSize) {}
+
+    public SaveCatalog(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Guarda la partida en el guardado 'slot' (lo reemplaza si existe).
+     * @return Los metadatos del guardado escrito.
+     */
+    public synchronized SaveInfo save(Game game, String slot) throws IOException {
+        String safeSlot = safeSlotName(slot);
+        Files.createDirectories(directory);
+
+        SaveManager.GameSaveData data;
+        synchronized (game) { // Aplana entre dos ticks
+            data = new SaveManager.GameSaveData(game);
+        }
+        SaveInfo info = new SaveInfo(safeSlot, data.playerName, data.currentLevelIndex + 1, data.playerScore,
+                data.relicLife, data.activeComponents.size(), System.currentTimeMillis(), 0);
+
+        Path file = slotPath(safeSlot);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp), BUFFER_BYTES)) {
+            out.write(encodeHeader(info));
+            GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_BYTES);
+            Writer writer = new OutputStreamWriter(gzip, StandardCharsets.UTF_8);
+            SaveManager.writeSaveData(data, writer);
+            writer.flush();
+            gzip.finish();
+        }
+        replace(tmp, file);
+
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        SaveInfo saved = withSize(info, attrs.size());
+        Map<String, IndexEntry> index = readIndex();
+        index.put(file.getFileName().toString(), new IndexEntry(saved, attrs.lastModifiedTime().toMillis()));
+        writeIndex(index);
+        Logger.info("Partida guardada en el catálogo: " + file + " (" + saved.fileSize() + " bytes)");
+        return saved;
+    }
+
+    /**
+     * Todos los guardados del catálogo, del más reciente al más antiguo.
+     * Solo lee el índice y los encabezados que no estén al día en él.
+     */
+    public synchronized List<SaveInfo> list() throws IOException {
+        if (!Files.isDirectory(directory)) return List.of();
+        Map<String, IndexEntry> index = readIndex();
+        Map<String, IndexEntry> current = new HashMap<>();
+        boolean changed = false;
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                long modified = attrs.lastModifiedTime().toMillis();
+                IndexEntry entry = index.get(name);
+                if (entry == null || entry.info.fileSize() != attrs.size() || entry.modified != modified) {
+                    try {
+                        entry = new IndexEntry(withSize(readHeader(file), attrs.size()), modified);
+                        changed = true;
+                    } catch (IOException e) {
+                        Logger.warning("Guardado ilegible, se omite: " + name + " (" + e.getMessage() + ")");
+                        continue;
+                    }
+                }
+                current.put(name, entry);
+            }
+        }
+        if (changed || current.size() != index.size()) {
+            writeIndex(current); // Se agregaron, cambiaron o borraron archivos desde afuera
+        }
+
+        List<SaveInfo> saves = new ArrayList<>(current.size());
+        current.values().forEach(entry -> saves.add(entry.info));
+        saves.sort(Comparator.comparingLong(SaveInfo::timestamp).reversed().thenComparing(SaveInfo::slot));
+        return saves;
+    }
+
+    /**
+     * Carga un guardado del catálogo.
+     * @throws IOException Si no existe, está corrupto o no hay configuración cargada.
+     */
+    public Game load(String slot) throws IOException {
+        if (ConfigurationManager.getConfig() == null) {
+            throw new IOException("Configuración no cargada. No se puede restaurar la partida.");
+        }
+        Path file = slotPath(slot);
+        SaveManager.GameSaveData data;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), BUFFER_BYTES)) {
+            decodeHeader(in.readNBytes(HEADER_BYTES), slot); // Valida el formato antes de descomprimir
+            Reader reader = new InputStreamReader(new GZIPInputStream(in, BUFFER_BYTES), StandardCharsets.UTF_8);
+            data = SaveManager.readSaveData(reader);
+        }
+        if (data == null || !data.isValid()) {
+            throw new IOException("El guardado está corrupto o incompleto: " + slot);
+        }
+        Game game = data.toGame();
+        Logger.info("Partida cargada desde el catálogo: " + file);
+        return game;
+    }
+
+    /**
+     * @return true si ya hay un guardado con ese nombre (o uno que se guarda en el mismo archivo).
+     */
+    public boolean exists(String slot) {
+        return Files.exists(slotPath(slot));
+    }
+
+    /**
+     * Borra un guardado del catálogo.
+     */
+    public synchronized void delete(String slot) throws IOException {
+        Path file = slotPath(slot);
+        Files.deleteIfExists(file);
+        Map<String, IndexEntry> index = readIndex();
+        if (index.remove(file.getFileName().toString()) != null) {
+            writeIndex(index);
+        }
+    }
+
+    /**
+     * Nombre de archivo seguro para un guardado (mismo criterio que los diarios de replays/).
+     */
+    public static String safeSlotName(String slot) {
+        String safe = slot == null ? "" : slot.strip().replaceAll("[^A-Za-z0-9_-]", "_");
+        return safe.isEmpty() ? "partida" : safe;
+    }
+
+    private Path slotPath(String slot) {
+        return directory.resolve(safeSlotName(slot) + EXTENSION);
+    }
+
+    // --- Encabezado ---
+
+    private static byte[] encodeHeader(SaveInfo info) {
+        byte[] name = truncateUtf8(info.playerName() == null ? "" : info.playerName(), MAX_NAME_BYTES);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES); // El resto queda en cero
+        header.putInt(MAGIC).putShort(VERSION)
+                .putLong(info.timestamp())
+                .putInt(info.level())
+                .putInt(info.score())
+                .putInt(info.relicLife())
+                .putInt(info.componentCount())
+                .putShort((short) name.length)
+                .put(name);
+        return header.array();
+    }
+
+    private static SaveInfo readHeader(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            String name = file.getFileName().toString();
+            return decodeHeader(in.readNBytes(HEADER_BYTES), name.substring(0, name.length() - EXTENSION.length()));
+        }
+    }
+
+    /**
+     * @return Los metadatos del encabezado (con fileSize 0: lo completa quien conoce el archivo).
+     */
+    private static SaveInfo decodeHeader(byte[] bytes, String slot) throws IOException {
+        if (bytes.length < HEADER_BYTES) {
+            throw new IOException("Encabezado incompleto");
+        }
+        ByteBuffer header = ByteBuffer.wrap(bytes);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("No es un guardado del catálogo");
+        }
+        short version = header.getShort();
+        if (version != VERSION) {
+            throw new IOException("Versión de guardado no soportada: " + version);
+        }
+        long timestamp = header.getLong();
+        int level = header.getInt();
+        int score = header.getInt();
+        int relicLife = header.getInt();
+        int componentCount = header.getInt();
+        int nameLength = header.getShort();
+        if (nameLength < 0 || nameLength > MAX_NAME_BYTES) {
+            throw new IOException("Encabezado corrupto");
+        }
+        String playerName = new String(bytes, header.position(), nameLength, StandardCharsets.UTF_8);
+        return new SaveInfo(slot, playerName, level, score, relicLife, componentCount, timestamp, 0);
+    }
+
+    /** Corta el nombre a 'max' bytes sin partir un carácter. */
+    private static byte[] truncateUtf8(String text, int max) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= max) return bytes;
+        int end = max;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) end--; // Retrocede hasta el inicio de un carácter
+        byte[] cut = new byte[end];
+        System.arraycopy(bytes, 0, cut, 0, end);
+        return cut;
+    }
+
+    private static SaveInfo withSize(SaveInfo info, long fileSize) {
+        return new SaveInfo(info.slot(), info.playerName(), info.level(), info.score(), info.relicLife(),
+                info.componentCount(), info.timestamp(), fileSize);
+    }
+
+    // --- Índice ---
+
+    /** Una entrada del índice: los metadatos y la fecha de modificación con la que se leyeron. */
+    private record IndexEntry(SaveInfo info, long modified) {}
+
+    /**
+     * Lee index.bin. Si falta o está dañado se devuelve vacío (list() lo reconstruye).
+     */
+    private Map<String, IndexEntry> readIndex() {
+        Map<String, IndexEntry> index = new HashMap<>();
+        Path file = directory.resolve(INDEX_FILE);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readShort() != VERSION) {
+                throw new IOException("Formato desconocido");
+            }
+            int count = in.readInt();
+            byte[] header = new byte[HEADER_BYTES];
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                long size = in.readLong();
+                long modified = in.readLong();
+                in.readFully(header);
+                String slot = name.substring(0, name.length() - EXTENSION.length());
+                index.put(name, new IndexEntry(withSize(decodeHeader(header, slot), size), modified));
+            }
+        } catch (NoSuchFileException e) {
+            // Catálogo nuevo
+        } catch (IOException | RuntimeException e) {
+            Logger.warning("Índice de guardados dañado, se reconstruye: " + e.getMessage());
+            index.clear();
+        }
+        return index;
+    }
+
+    private void writeIndex(Map<String, IndexEntry> index) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(INDEX_FILE);
+        Path tmp = file.resolveSibling(INDEX_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(index.size());
+            for (Map.Entry<String, IndexEntry> entry : index.entrySet()) {
+                SaveInfo info = entry.getValue().info();
+                out.writeUTF(entry.getKey());
+                out.writeLong(info.fileSize());
+                out.writeLong(entry.getValue().modified());
+                out.write(encodeHeader(info));
+            }
+        }
+        replace(tmp, file);
+    }
+
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package diblo.thewalkingtec.service;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import diblo.thewalkingtec.model.Component;
 import diblo.thewalkingtec.model.Defense;
 import diblo.thewalkingtec.model.Position;
@@ -12,19 +12,26 @@ import diblo.thewalkingtec.model.config.EnemyConfig;
 import diblo.thewalkingtec.model.config.GameConfig;
 import diblo.thewalkingtec.util.Logger;
 
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Gestor estático para guardar y cargar el estado de una partida (Game)
  * en formato JSON (serialización manual).
+ *
+ * El JSON se escribe y se lee campo por campo con JsonWriter/JsonReader (sin reflexión)
+ * sobre archivos con buffer. Se guarda compacto (sin sangría): los guardados no se editan
+ * a mano y con miles de componentes la sangría era buena parte del archivo. Los guardados
+ * anteriores (con sangría) se siguen leyendo igual.
  */
 public class SaveManager {
 
-    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
-
     /**
      * Guarda el estado actual del juego en un archivo JSON.
      *
@@ -36,10 +43,8 @@ public class SaveManager {
         try {
             // 1. Convierte el objeto Game a un objeto simple (GameSaveData)
             GameSaveData saveData = new GameSaveData(game);
-            // 2. Serializa GameSaveData usando Gson
-            try (FileWriter writer = new FileWriter(filePath)) {
-                GSON.toJson(saveData, writer);
-            }
+            // 2. Serializa GameSaveData campo por campo
+            writeSaveData(saveData, Path.of(filePath));
             Logger.info("Partida guardada en: " + filePath);
             return true;
         } catch (Exception e) {
@@ -62,11 +67,8 @@ public class SaveManager {
                 return null;
             }
 
-            GameSaveData saveData;
             // 1. Deserializa el JSON a un objeto GameSaveData
-            try (FileReader reader = new FileReader(filePath)) {
-                saveData = GSON.fromJson(reader, GameSaveData.class);
-            }
+            GameSaveData saveData = readSaveData(Path.of(filePath));
 
             if (saveData == null || !saveData.isValid()) {
                 Logger.error("El archivo de guardado está corrupto o incompleto");
@@ -78,7 +80,8 @@ public class SaveManager {
             Logger.info("Partida cargada desde: " + filePath);
             return game;
 
-        } catch (JsonSyntaxException e) {
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            // JSON mal formado, cortado o con un tipo inesperado
             Logger.error("Error de sintaxis en el JSON: " + e.getMessage());
             return null;
         } catch (Exception e) {
@@ -88,10 +91,52 @@ public class SaveManager {
     }
 
     /**
-     * Clase interna privada que representa la estructura de datos simple
-     * que se guarda/carga en el archivo JSON.
+     * Escribe un guardado ya "aplanado" (también lo usa StateJournal para sus fotos).
+     */
+    static void writeSaveData(GameSaveData saveData, Path path) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writeSaveData(saveData, writer);
+        }
+    }
+
+    /**
+     * Igual que writeSaveData(data, path), sobre un Writer (no lo cierra). Lo usa SaveCatalog
+     * para escribir dentro de su flujo comprimido.
      */
-    private static class GameSaveData {
+    static void writeSaveData(GameSaveData saveData, Writer writer) throws IOException {
+        JsonWriter out = new JsonWriter(writer);
+        saveData.write(out);
+        out.flush();
+    }
+
+    /**
+     * Lee un guardado sin convertirlo en Game (StateJournal le aplica su diario antes).
+     * @return Los datos, o null si el documento es "null".
+     */
+    static GameSaveData readSaveData(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return readSaveData(reader);
+        }
+    }
+
+    /**
+     * Igual que readSaveData(path), desde un Reader (no lo cierra).
+     */
+    static GameSaveData readSaveData(Reader reader) throws IOException {
+        try {
+            JsonReader in = new JsonReader(reader);
+            in.setLenient(true);
+            return GameSaveData.read(in);
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Guardado inválido: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Estructura de datos simple que se guarda/carga en el archivo JSON.
+     * Visible en el paquete para StateJournal, que la usa como foto.
+     */
+    static class GameSaveData {
         // Datos del Jugador y Nivel
         String playerName;
         int playerLevel;
@@ -103,10 +148,20 @@ public class SaveManager {
         // Lista de todos los componentes (Zombies y Defensas) en el tablero
         List<ComponentData> activeComponents;
 
+        private GameSaveData() {} // Para read()
+
         /**
          * Constructor que "aplana" un objeto Game en esta estructura simple.
          */
         public GameSaveData(Game game) {
+            this(game, null);
+        }
+
+        /**
+         * Igual que GameSaveData(game), anotando en 'sources' (si no es null) el componente
+         * de cada elemento de activeComponents, en el mismo orden.
+         */
+        GameSaveData(Game game, List<Component> sources) {
             this.playerName = game.getPlayer().getName();
             this.playerLevel = game.getPlayer().getLevel();
             this.playerCoins = game.getPlayer().getCoins();
@@ -117,18 +172,80 @@ public class SaveManager {
             this.activeComponents = new ArrayList<>();
 
             // Guardar defensas (vivas o muertas)
-            game.getBoard().getActiveDefenses().forEach(c ->
-                    activeComponents.add(new ComponentData(c))
-            );
+            game.getBoard().getActiveDefenses().forEach(c -> {
+                activeComponents.add(new ComponentData(c));
+                if (sources != null) sources.add(c);
+            });
 
             // Guardar zombies (vivos o muertos)
-            game.getBoard().getActiveZombies().forEach(c ->
-                    activeComponents.add(new ComponentData(c))
-            );
+            game.getBoard().getActiveZombies().forEach(c -> {
+                activeComponents.add(new ComponentData(c));
+                if (sources != null) sources.add(c);
+            });
 
             Logger.info("GameSaveData creado: " + activeComponents.size() + " componentes guardados");
         }
 
+        /**
+         * Escribe los campos en el mismo formato que el guardado anterior (Gson por reflexión).
+         */
+        void write(JsonWriter out) throws IOException {
+            out.beginObject();
+            out.name("playerName").value(playerName);
+            out.name("playerLevel").value(playerLevel);
+            out.name("playerCoins").value(playerCoins);
+            out.name("playerScore").value(playerScore);
+            out.name("playerCapacityBase").value(playerCapacityBase);
+            out.name("currentLevelIndex").value(currentLevelIndex);
+            out.name("relicLife").value(relicLife);
+            out.name("activeComponents").beginArray();
+            for (ComponentData data : activeComponents) {
+                data.write(out);
+            }
+            out.endArray();
+            out.endObject();
+        }
+
+        /**
+         * Lee un guardado. Los campos desconocidos se saltan.
+         * @return Los datos leídos, o null si el documento es "null".
+         */
+        static GameSaveData read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            GameSaveData data = new GameSaveData();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "playerName" -> data.playerName = in.nextString();
+                    case "playerLevel" -> data.playerLevel = in.nextInt();
+                    case "playerCoins" -> data.playerCoins = in.nextInt();
+                    case "playerScore" -> data.playerScore = in.nextInt();
+                    case "playerCapacityBase" -> data.playerCapacityBase = in.nextInt();
+                    case "currentLevelIndex" -> data.currentLevelIndex = in.nextInt();
+                    case "relicLife" -> data.relicLife = in.nextInt();
+                    case "activeComponents" -> {
+                        data.activeComponents = new ArrayList<>();
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            data.activeComponents.add(ComponentData.read(in));
+                        }
+                        in.endArray();
+                    }
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return data;
+        }
+
         /**
          * Validador simple para el archivo cargado.
          */
@@ -172,6 +289,7 @@ public class SaveManager {
 
                     // Coloca en el tablero
                     if (game.getBoard().placeComponent(component, data.position)) {
+                        game.getCombatStats().recordPlaced(component); // Cuenta como presente en el nivel
                         // Si es defensa, también se añade al Army del jugador
                         if (component instanceof Defense) {
                             game.getPlayer().getArmy().addDefense((Defense) component);
@@ -210,7 +328,10 @@ public class SaveManager {
                     .orElse(null);
 
             if (enemyConfig != null) {
-                return new Zombie(enemyConfig, customBoost);
+                Zombie zombie = new Zombie(enemyConfig, customBoost);
+                // Flujo propio en el orden del guardado (como Game.createZombie), no en el primer tick
+                zombie.setRandom(game.getRandomProvider().split());
+                return zombie;
             }
 
             Logger.warning("No se encontró configuración para componente: " + data.id);
@@ -221,18 +342,77 @@ public class SaveManager {
     /**
      * Información mínima necesaria para reconstruir un componente.
      */
-    private static class ComponentData {
+    static class ComponentData {
         String id; // ID base (ej. "turret", "zombie_basic")
         Position position;
         int currentLife;
         int maxLife;
 
+        private ComponentData() {} // Para read()
+
         // Constructor "aplanador"
         public ComponentData(Component c) {
-            this.id = c.getId();
-            this.position = c.getPosition();
-            this.currentLife = c.getCurrentLife();
-            this.maxLife = c.getMaxLife();
+            this(c.getId(), c.getPosition(), c.getCurrentLife(), c.getMaxLife());
+        }
+
+        ComponentData(String id, Position position, int currentLife, int maxLife) {
+            this.id = id;
+            this.position = position;
+            this.currentLife = currentLife;
+            this.maxLife = maxLife;
+        }
+
+        void write(JsonWriter out) throws IOException {
+            out.beginObject();
+            out.name("id").value(id);
+            if (position != null) {
+                out.name("position").beginObject();
+                out.name("x").value(position.getX());
+                out.name("y").value(position.getY());
+                out.endObject();
+            }
+            out.name("currentLife").value(currentLife);
+            out.name("maxLife").value(maxLife);
+            out.endObject();
+        }
+
+        static ComponentData read(JsonReader in) throws IOException {
+            ComponentData data = new ComponentData();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "id" -> data.id = in.nextString();
+                    case "position" -> data.position = readPosition(in);
+                    case "currentLife" -> data.currentLife = in.nextInt();
+                    case "maxLife" -> data.maxLife = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return data;
+        }
+
+        /**
+         * Lee {"x":..,"y":..} como la posición canónica de esa celda (Position.of).
+         */
+        private static Position readPosition(JsonReader in) throws IOException {
+            int x = 0;
+            int y = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "x" -> x = in.nextInt();
+                    case "y" -> y = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return Position.of(x, y);
         }
     }
 }
\ No newline at end of file
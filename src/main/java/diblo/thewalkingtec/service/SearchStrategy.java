@@ -0,0 +1,26 @@
+package diblo.thewalkingtec.service;
+
+/**
+ * Algoritmo que usa PathfindingService para buscar rutas sobre celdas.
+ * Se elige con PathfindingService.setSearchStrategy(); ambos dan rutas de igual largo
+ * (óptimas), pero no necesariamente las mismas celdas: una partida y su repetición
+ * deben usar el mismo.
+ *
+ * JUMP_POINT expande muchos menos nodos, pero al saltar en vertical revisa cada fila en
+ * horizontal: rinde más en tableros tipo laberinto que en zonas abiertas grandes
+ * (ver tools.PathfindingBenchmark).
+ */
+public enum SearchStrategy {
+    A_STAR("A* (celda a celda)"),
+    JUMP_POINT("Jump Point Search (4 direcciones)");
+
+    private final String displayName;
+
+    SearchStrategy(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,92 @@
+package diblo.thewalkingtec.service;
+
+import diblo.thewalkingtec.model.Component;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hash incremental de los componentes del tablero.
+ *
+ * Cada componente guarda su contribución actual (StateHasher.componentHash); al
+ * colocarse, moverse, cambiar de vida o salir del tablero solo se suma la diferencia.
+ * Así el hash del tick cuesta O(1) en vez de recorrer todos los componentes.
+ *
+ * La suma es un LongAdder: los movimientos del tick llegan desde varios hilos a la vez
+ * y la suma es conmutativa, así que el orden no importa. Cada componente solo cambia
+ * su propia contribución desde un hilo por fase (movimiento en paralelo, daño en la
+ * fase única del DamageBuffer), por lo que el campo del componente no necesita candado.
+ */
+public class StateHash implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final LongAdder sum = new LongAdder();
+    // Se entera de qué componentes cambiaron (ver StateJournal); null = nadie escucha
+    private transient volatile ChangeListener changeListener;
+
+    /**
+     * Recibe los mismos avisos que mantienen el hash, sin el hash: qué componente entró,
+     * salió, se movió o cambió de vida, y cuándo se vació el tablero. Puede llamarse desde
+     * los hilos de los componentes a la vez.
+     */
+    interface ChangeListener {
+        void componentChanged(Component component);
+        void boardCleared();
+    }
+
+    void setChangeListener(ChangeListener changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    ChangeListener getChangeListener() {
+        return changeListener;
+    }
+
+    /** El componente entra al tablero. */
+    void add(Component component) {
+        long contribution = StateHasher.componentHash(component);
+        component.setStateHashContribution(contribution);
+        sum.add(contribution);
+        notifyChanged(component);
+    }
+
+    /** El componente sale del tablero. */
+    void remove(Component component) {
+        sum.add(-component.getStateHashContribution());
+        component.setStateHashContribution(0);
+        notifyChanged(component);
+    }
+
+    /**
+     * El componente cambió de posición o de vida: reemplaza su contribución.
+     * Lo llaman el Board (movimiento) y Component (daño/restauración).
+     */
+    public void update(Component component) {
+        long contribution = StateHasher.componentHash(component);
+        long previous = component.getStateHashContribution();
+        if (contribution != previous) {
+            component.setStateHashContribution(contribution);
+            sum.add(contribution - previous);
+            notifyChanged(component);
+        }
+    }
+
+    void clear() {
+        sum.reset();
+        ChangeListener listener = changeListener;
+        if (listener != null) listener.boardCleared();
+    }
+
+    private void notifyChanged(Component component) {
+        ChangeListener listener = changeListener;
+        if (listener != null) listener.componentChanged(component);
+    }
+
+    /**
+     * Suma de las contribuciones de todos los componentes del tablero.
+     * Solo es exacta entre ticks (sin escrituras en curso).
+     */
+    public long value() {
+        return sum.sum();
+    }
+}
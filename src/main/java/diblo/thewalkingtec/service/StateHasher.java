@@ -0,0 +1,69 @@
+package diblo.thewalkingtec.service;
+
+import diblo.thewalkingtec.model.Component;
+import diblo.thewalkingtec.model.Player;
+import diblo.thewalkingtec.model.Position;
+
+/**
+ * Hash del estado observable de una partida: componentes en el tablero
+ * (tipo, posición, vida), vida de la reliquia y economía del jugador.
+ *
+ * El hash es una SUMA de contribuciones independientes (una por componente y una
+ * por cada valor global), así que no depende del orden de las listas y puede
+ * actualizarse restando la contribución vieja y sumando la nueva.
+ * Usa solo datos reproducibles (no el UUID de instancia, que es aleatorio).
+ */
+public final class StateHasher {
+
+    // Sales para que valores globales iguales no se confundan entre sí
+    private static final long RELIC_SALT = 0x52454C4943L;
+    private static final long COINS_SALT = 0x434F494E53L;
+    private static final long SCORE_SALT = 0x53434F5245L;
+
+    private StateHasher() {}
+
+    /**
+     * Calcula el hash completo desde cero.
+     */
+    public static long compute(Game game) {
+        Board board = game.getBoard();
+        long hash = 0;
+        for (Component c : board.getActiveDefenses()) {
+            hash += componentHash(c);
+        }
+        for (Component c : board.getActiveZombies()) {
+            hash += componentHash(c);
+        }
+        Player player = game.getPlayer();
+        return hash + relicHash(game.getRelicLife()) + coinsHash(player.getCoins()) + scoreHash(player.getScore());
+    }
+
+    /**
+     * Contribución de un componente: su id de configuración, su celda y su vida.
+     */
+    public static long componentHash(Component c) {
+        Position pos = c.getPosition();
+        int cell = pos != null ? pos.getIndex() : -1;
+        return componentHash(c.getId(), cell, c.getCurrentLife());
+    }
+
+    public static long componentHash(String configId, int cellIndex, int life) {
+        long h = mix(configId == null ? 0 : configId.hashCode());
+        h = mix(h ^ ((long) cellIndex << 32 | (life & 0xFFFFFFFFL)));
+        return h;
+    }
+
+    public static long relicHash(int relicLife) { return mix(RELIC_SALT ^ relicLife); }
+    public static long coinsHash(int coins) { return mix(COINS_SALT ^ coins); }
+    public static long scoreHash(int score) { return mix(SCORE_SALT ^ score); }
+
+    /**
+     * Finalizador de SplitMix64: buena dispersión de bits a costo mínimo.
+     */
+    public static long mix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
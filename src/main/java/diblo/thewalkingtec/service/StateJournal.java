@@ -0,0 +1,542 @@
+package diblo.thewalkingtec.service;
+
+import diblo.thewalkingtec.model.Component;
+import diblo.thewalkingtec.model.Position;
+import diblo.thewalkingtec.util.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Diario de escritura anticipada (write-ahead) del estado de una partida, entre fotos completas.
+ *
+ * Un guardado completo (SaveManager) serializa todos los componentes cada vez. Este diario,
+ * en cambio, anota en cada captura (fin de tick o entrada del jugador) solo lo que cambió:
+ * componentes que entraron o salieron del tablero, movimientos, vida, y la economía
+ * (monedas, puntos, reliquia, nivel). Los cambios llegan por los mismos avisos que mantienen
+ * el StateHash (colocar, mover, dañar, remover, vaciar), así que una captura cuesta según
+ * la actividad del tick y no según la cantidad de componentes.
+ *
+ * Archivos, con base "autosave/partida":
+ *   partida.N.snap  Foto completa (formato de SaveManager) de la generación N.
+ *   partida.wal     Encabezado (MAGIC, VERSION, generación, tick de la foto) y los registros
+ *                   posteriores a esa foto.
+ *
+ * Cada SNAPSHOT_INTERVAL ticks (o si el diario pasa de MAX_JOURNAL_BYTES) se compacta: se
+ * escribe una foto nueva, el diario se reemplaza por uno vacío que apunta a ella y se borra
+ * la foto anterior. Ambos reemplazos son atómicos (temporal + move), así que un corte en
+ * cualquier punto deja un par foto/diario consistente.
+ *
+ * Registros: tipo (byte) y sus datos en varint. Se acumulan en un ByteBuffer y se escriben
+ * al FileChannel al cerrar la captura (COMMIT): si el proceso muere se pierde como mucho
+ * la captura en curso. recover() carga la foto y aplica solo las capturas completas.
+ */
+public class StateJournal implements Closeable {
+
+    private static final int MAGIC = 0x54575731; // "TWW1"
+    private static final short VERSION = 2; // 2: coordenadas en varint (tableros de más de 127 celdas)
+    private static final int HEADER_BYTES = 4 + 2 + 8 + 8;
+    public static final int SNAPSHOT_INTERVAL = 600; // Ticks entre fotos (1 minuto de juego)
+    private static final long MAX_JOURNAL_BYTES = 8L << 20; // Compacta antes si hubo mucha actividad
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    // Tipos de registro
+    private static final byte SPAWN = 1;  // id, x, y, vida, vida máxima (recibe el siguiente handle)
+    private static final byte MOVE = 2;   // handle, x, y
+    private static final byte LIFE = 3;   // handle, vida
+    private static final byte REMOVE = 4; // handle
+    private static final byte CLEAR = 5;  // Tablero vacío (inicio de nivel)
+    private static final byte STATUS = 6; // máscara de campos, valores de los campos marcados
+    private static final byte COMMIT = 7; // tick: cierra la captura
+
+    // Campos de STATUS (posición en el arreglo y bit de la máscara)
+    private static final int COINS = 0, SCORE = 1, RELIC = 2, LEVEL_INDEX = 3, PLAYER_LEVEL = 4, CAPACITY = 5;
+    private static final int STATUS_FIELDS = 6;
+
+    private static final Object CLEARED = new Object(); // Marca de Board.clear() en la cola de cambios
+
+    private final Path base;
+    private final Board board;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    // Componentes que cambiaron desde la última captura (llegan desde los hilos de componentes)
+    private final Queue<Object> changes = new ConcurrentLinkedQueue<>();
+    // Lo último escrito de cada componente en el tablero, con su handle en el diario
+    private final Map<Component, Tracked> tracked = new IdentityHashMap<>();
+    private final int[] status = new int[STATUS_FIELDS];
+    private final StateHash.ChangeListener listener = new StateHash.ChangeListener() {
+        @Override
+        public void componentChanged(Component component) {
+            changes.add(component);
+        }
+
+        @Override
+        public void boardCleared() {
+            changes.add(CLEARED);
+        }
+    };
+
+    private FileChannel channel;
+    private long generation;
+    private long journalBytes;
+    private long lastSnapshotTick;
+    private int nextHandle;
+    private boolean closed;
+
+    private static final class Tracked {
+        final int handle;
+        Position position;
+        int life;
+
+        Tracked(int handle, Position position, int life) {
+            this.handle = handle;
+            this.position = position;
+            this.life = life;
+        }
+    }
+
+    private StateJournal(Path base, Board board) {
+        this.base = base;
+        this.board = board;
+    }
+
+    /**
+     * Empieza un diario para la partida con una foto de su estado actual. Si ya había un
+     * diario en 'base' (ej. de la partida recuperada), se reemplaza al terminar la foto.
+     */
+    public static StateJournal open(Path base, Game game) throws IOException {
+        if (base.getParent() != null) {
+            Files.createDirectories(base.getParent());
+        }
+        synchronized (game) { // Foto consistente: ningún tick ni entrada a mitad
+            StateJournal journal = new StateJournal(base, game.getBoard());
+            journal.generation = Files.exists(walPath(base)) ? readHeaderGeneration(walPath(base)) : 0;
+            journal.snapshot(game);
+            game.getBoard().getStateHash().setChangeListener(journal.listener);
+            return journal;
+        }
+    }
+
+    /**
+     * Si hay un diario que recuperar en 'base'.
+     */
+    public static boolean exists(Path base) {
+        return Files.exists(walPath(base));
+    }
+
+    // --- Escritura (la llama Game con su candado tomado) ---
+
+    /**
+     * Escribe lo que cambió desde la captura anterior y, si toca, compacta.
+     */
+    void capture(Game game) {
+        if (closed) return;
+        try {
+            long before = journalBytes + buffer.position();
+            Object change;
+            while ((change = changes.poll()) != null) {
+                if (change == CLEARED) {
+                    tracked.clear(); // Los handles anteriores ya no existen
+                    ensure(1);
+                    buffer.put(CLEAR);
+                } else {
+                    captureComponent((Component) change);
+                }
+            }
+            captureStatus(game);
+
+            if (journalBytes + buffer.position() > before) { // Sin cambios no se escribe nada
+                ensure(1 + 10);
+                buffer.put(COMMIT);
+                putVarLong(game.getTickCount());
+                flush();
+            }
+
+            if (game.getTickCount() - lastSnapshotTick >= SNAPSHOT_INTERVAL || journalBytes > MAX_JOURNAL_BYTES) {
+                snapshot(game);
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void captureComponent(Component component) throws IOException {
+        Tracked state = tracked.get(component);
+        boolean onBoard = component.getBoardSlot() >= 0;
+        Position position = component.getPosition();
+        int life = component.getCurrentLife();
+
+        if (state == null) {
+            if (!onBoard) return; // Entró y salió dentro de la misma captura
+            byte[] id = component.getId().getBytes(StandardCharsets.UTF_8);
+            ensure(1 + 5 + id.length + 10 + 10);
+            buffer.put(SPAWN);
+            putVarInt(id.length);
+            buffer.put(id);
+            putVarInt(position.getX());
+            putVarInt(position.getY());
+            putVarInt(life);
+            putVarInt(component.getMaxLife());
+            tracked.put(component, new Tracked(nextHandle++, position, life));
+        } else if (!onBoard) {
+            tracked.remove(component);
+            ensure(1 + 5);
+            buffer.put(REMOVE);
+            putVarInt(state.handle);
+        } else {
+            // Puede haber varios avisos del mismo componente: solo se escribe si difiere de lo anotado
+            if (!position.equals(state.position)) {
+                ensure(1 + 5 + 10);
+                buffer.put(MOVE);
+                putVarInt(state.handle);
+                putVarInt(position.getX());
+                putVarInt(position.getY());
+                state.position = position;
+            }
+            if (life != state.life) {
+                ensure(1 + 10);
+                buffer.put(LIFE);
+                putVarInt(state.handle);
+                putVarInt(life);
+                state.life = life;
+            }
+        }
+    }
+
+    private void captureStatus(Game game) throws IOException {
+        int[] current = readStatus(game);
+        int mask = 0;
+        for (int i = 0; i < STATUS_FIELDS; i++) {
+            if (current[i] != status[i]) mask |= 1 << i;
+        }
+        if (mask == 0) return;
+        ensure(2 + 5 * STATUS_FIELDS);
+        buffer.put(STATUS);
+        buffer.put((byte) mask);
+        for (int i = 0; i < STATUS_FIELDS; i++) {
+            if ((mask & (1 << i)) != 0) {
+                putVarInt(current[i]);
+                status[i] = current[i];
+            }
+        }
+    }
+
+    private static int[] readStatus(Game game) {
+        int[] values = new int[STATUS_FIELDS];
+        values[COINS] = game.getPlayer().getCoins();
+        values[SCORE] = game.getPlayer().getScore();
+        values[RELIC] = game.getRelicLife();
+        values[LEVEL_INDEX] = game.getCurrentLevelIndex();
+        values[PLAYER_LEVEL] = game.getPlayer().getLevel();
+        values[CAPACITY] = game.getPlayer().getCapacityBase();
+        return values;
+    }
+
+    /**
+     * Foto completa y diario nuevo (generación siguiente). También es la compactación:
+     * los registros anteriores quedan incluidos en la foto.
+     */
+    private void snapshot(Game game) throws IOException {
+        changes.clear(); // La foto ya incluye todo lo pendiente
+        tracked.clear();
+        nextHandle = 0;
+        List<Component> sources = new ArrayList<>();
+        SaveManager.GameSaveData data = new SaveManager.GameSaveData(game, sources);
+        for (Component component : sources) { // Handles en el orden de activeComponents
+            tracked.put(component, new Tracked(nextHandle++, component.getPosition(), component.getCurrentLife()));
+        }
+        System.arraycopy(readStatus(game), 0, status, 0, STATUS_FIELDS);
+
+        long newGeneration = generation + 1;
+        Path snapshot = snapshotPath(base, newGeneration);
+        Path snapshotTmp = tempPath(snapshot);
+        SaveManager.writeSaveData(data, snapshotTmp);
+        try (FileChannel file = FileChannel.open(snapshotTmp, StandardOpenOption.WRITE)) {
+            file.force(true); // La foto debe estar en disco antes de que el diario la nombre
+        }
+        replace(snapshotTmp, snapshot);
+
+        if (channel != null) channel.close();
+        Path wal = walPath(base);
+        Path walTmp = tempPath(wal);
+        try (FileChannel file = FileChannel.open(walTmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putShort(VERSION).putLong(newGeneration).putLong(game.getTickCount()).flip();
+            while (header.hasRemaining()) file.write(header);
+            file.force(true);
+        }
+        replace(walTmp, wal);
+        channel = FileChannel.open(wal, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        Files.deleteIfExists(snapshotPath(base, generation)); // Ya nada apunta a la foto anterior
+        generation = newGeneration;
+        journalBytes = HEADER_BYTES;
+        lastSnapshotTick = game.getTickCount();
+    }
+
+    /**
+     * Cierra el diario (los archivos quedan: recover() los usa).
+     * Lo pendiente sin COMMIT se descarta.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        detach();
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException e) {
+            Logger.error("Error al cerrar el diario de estado", e);
+        }
+    }
+
+    private void fail(IOException e) {
+        closed = true; // Lo escrito hasta el último COMMIT sigue siendo recuperable
+        detach();
+        Logger.error("No se pudo escribir el diario de estado; se desactiva", e);
+    }
+
+    private void detach() {
+        StateHash stateHash = board.getStateHash();
+        if (stateHash.getChangeListener() == listener) stateHash.setChangeListener(null);
+        changes.clear();
+    }
+
+    // --- Buffer y canal ---
+
+    /** Vacía el buffer si no caben 'bytes' más (lo escrito sin COMMIT no se aplica al recuperar). */
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) flush();
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            journalBytes += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void putVarInt(int value) {
+        putVarLong(value & 0xFFFFFFFFL); // Sin signo: los negativos ocupan 5 bytes
+    }
+
+    private void putVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    // --- Recuperación ---
+
+    /**
+     * Reconstruye la partida: carga la foto que nombra el diario y le aplica las capturas
+     * completas del diario (una captura cortada al final se ignora).
+     * @throws IOException Si falta la foto o el diario no corresponde a ella.
+     */
+    public static Game recover(Path base) throws IOException {
+        Path wal = walPath(base);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(wal)))) {
+            readHeader(in, wal);
+            long gen = in.readLong();
+            long tick = in.readLong();
+
+            SaveManager.GameSaveData data = SaveManager.readSaveData(snapshotPath(base, gen));
+            if (data == null || !data.isValid()) {
+                throw new IOException("Foto del diario corrupta: " + snapshotPath(base, gen));
+            }
+            Recovery recovery = new Recovery(data);
+
+            int captures = 0;
+            List<Op> pending = new ArrayList<>();
+            while (true) {
+                try {
+                    int type = in.read();
+                    if (type < 0) break;
+                    if (type == COMMIT) {
+                        tick = readVarLong(in);
+                        for (Op op : pending) op.apply(recovery);
+                        pending.clear();
+                        captures++;
+                    } else {
+                        pending.add(readOp((byte) type, in));
+                    }
+                } catch (EOFException e) {
+                    break; // Captura cortada por el cierre abrupto
+                }
+            }
+
+            recovery.finish();
+            Game game = data.toGame();
+            Logger.info("Partida recuperada desde " + wal + ": foto " + gen + " + " + captures
+                    + " capturas (tick " + tick + ")");
+            return game;
+        }
+    }
+
+    /** Un registro leído, pendiente de su COMMIT. */
+    @FunctionalInterface
+    private interface Op {
+        void apply(Recovery recovery) throws IOException;
+    }
+
+    private static Op readOp(byte type, DataInputStream in) throws IOException {
+        switch (type) {
+            case SPAWN -> {
+                byte[] id = new byte[readVarInt(in)];
+                in.readFully(id);
+                Position position = Position.of(readVarInt(in), readVarInt(in));
+                int life = readVarInt(in);
+                int maxLife = readVarInt(in);
+                String componentId = new String(id, StandardCharsets.UTF_8);
+                return r -> r.slots.add(new SaveManager.ComponentData(componentId, position, life, maxLife));
+            }
+            case MOVE -> {
+                int handle = readVarInt(in);
+                Position position = Position.of(readVarInt(in), readVarInt(in));
+                return r -> r.slot(handle).position = position;
+            }
+            case LIFE -> {
+                int handle = readVarInt(in);
+                int life = readVarInt(in);
+                return r -> r.slot(handle).currentLife = life;
+            }
+            case REMOVE -> {
+                int handle = readVarInt(in);
+                return r -> {
+                    r.slot(handle); // Valida el handle
+                    r.slots.set(handle, null);
+                };
+            }
+            case CLEAR -> {
+                return Recovery::clear;
+            }
+            case STATUS -> {
+                int mask = in.readUnsignedByte();
+                int[] values = new int[STATUS_FIELDS];
+                for (int i = 0; i < STATUS_FIELDS; i++) {
+                    if ((mask & (1 << i)) != 0) values[i] = readVarInt(in);
+                }
+                return r -> r.applyStatus(mask, values);
+            }
+            default -> throw new IOException("Registro desconocido en el diario de estado: " + type);
+        }
+    }
+
+    /**
+     * Estado en reconstrucción: la foto y sus componentes por handle (null = ya no está).
+     */
+    private static final class Recovery {
+        final SaveManager.GameSaveData data;
+        final List<SaveManager.ComponentData> slots;
+
+        Recovery(SaveManager.GameSaveData data) {
+            this.data = data;
+            this.slots = new ArrayList<>(data.activeComponents);
+        }
+
+        SaveManager.ComponentData slot(int handle) throws IOException {
+            SaveManager.ComponentData component = handle < slots.size() ? slots.get(handle) : null;
+            if (component == null) throw new IOException("Diario de estado inconsistente: handle " + handle);
+            return component;
+        }
+
+        void clear() {
+            slots.replaceAll(c -> null); // Los handles siguen contando desde donde iban
+        }
+
+        void applyStatus(int mask, int[] values) {
+            if ((mask & (1 << COINS)) != 0) data.playerCoins = values[COINS];
+            if ((mask & (1 << SCORE)) != 0) data.playerScore = values[SCORE];
+            if ((mask & (1 << RELIC)) != 0) data.relicLife = values[RELIC];
+            if ((mask & (1 << LEVEL_INDEX)) != 0) data.currentLevelIndex = values[LEVEL_INDEX];
+            if ((mask & (1 << PLAYER_LEVEL)) != 0) data.playerLevel = values[PLAYER_LEVEL];
+            if ((mask & (1 << CAPACITY)) != 0) data.playerCapacityBase = values[CAPACITY];
+        }
+
+        void finish() {
+            List<SaveManager.ComponentData> alive = new ArrayList<>();
+            for (SaveManager.ComponentData component : slots) {
+                if (component != null) alive.add(component);
+            }
+            data.activeComponents = alive;
+        }
+    }
+
+    // --- Archivos ---
+
+    private static Path walPath(Path base) {
+        return base.resolveSibling(base.getFileName() + ".wal");
+    }
+
+    private static Path snapshotPath(Path base, long generation) {
+        return base.resolveSibling(base.getFileName() + "." + generation + ".snap");
+    }
+
+    private static Path tempPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".tmp");
+    }
+
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void readHeader(DataInputStream in, Path wal) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("No es un diario de estado: " + wal);
+        }
+        short version = in.readShort();
+        if (version != VERSION) {
+            throw new IOException("Versión de diario de estado no soportada: " + version);
+        }
+    }
+
+    private static long readHeaderGeneration(Path wal) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(wal)))) {
+            readHeader(in, wal);
+            return in.readLong();
+        } catch (IOException e) {
+            Logger.warning("Diario de estado anterior ilegible, se reemplaza: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        return (int) readVarLong(in);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+            shift += 7;
+            if (shift > 63) throw new IOException("Varint inválido en el diario de estado");
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package diblo.thewalkingtec.service;
+
+import diblo.thewalkingtec.model.Zombie;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Estado "caliente" de los zombies activos en arreglos paralelos de primitivos
+ * (Structure of Arrays).
+ *
+ * El slot de cada zombie es el mismo índice que tiene en la lista activa del Board
+ * (Component.getBoardSlot()) y se mantiene con la misma remoción por intercambio,
+ * así que ambos quedan siempre alineados. El Board actualiza posición y muertes;
+ * el propio Zombie actualiza su próximo instante de actividad.
+ *
+ * Los recorridos calientes (objetivos en rango, zombie más cercano, zombies que deben
+ * actuar en el tick) son bucles sobre estos arreglos, sin streams ni saltos por el heap.
+ * Cada zombie solo escribe su propio slot durante la fase concurrente; altas y bajas
+ * ocurren en el hilo del tick (spawn y limpieza).
+ *
+ * Solo se convirtió el recorrido de posición y vida (x, y, aéreo, vivo, próximo turno).
+ * La vida en puntos, el cooldown de ataque y el tipo de IA siguen en el objeto Zombie:
+ * solo se leen para el zombie que ya está actuando, no en recorridos sobre todos.
+ */
+public class ZombieStore implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int size;
+    private int[] x = new int[INITIAL_CAPACITY];
+    private int[] y = new int[INITIAL_CAPACITY];
+    private boolean[] aerial = new boolean[INITIAL_CAPACITY];
+    private boolean[] alive = new boolean[INITIAL_CAPACITY];
+    private long[] nextDue = new long[INITIAL_CAPACITY];     // Próximo instante (reloj de juego) en que debe actuar
+
+    /**
+     * Agrega un zombie en el siguiente slot (el Board lo llama al colocarlo).
+     * @return El slot asignado.
+     */
+    int add(Zombie zombie, int px, int py) {
+        if (size == x.length) grow();
+        int slot = size++;
+        x[slot] = px;
+        y[slot] = py;
+        aerial[slot] = zombie.getType().isAerial();
+        alive[slot] = !zombie.isDestroyed();
+        nextDue[slot] = Long.MIN_VALUE; // Actúa en su primer tick
+        return slot;
+    }
+
+    /**
+     * Quita el slot moviendo el último a su lugar (igual que la lista activa del Board).
+     */
+    void removeAt(int slot) {
+        int last = --size;
+        if (slot != last) {
+            x[slot] = x[last];
+            y[slot] = y[last];
+            aerial[slot] = aerial[last];
+            alive[slot] = alive[last];
+            nextDue[slot] = nextDue[last];
+        }
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    private void grow() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        aerial = Arrays.copyOf(aerial, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+        nextDue = Arrays.copyOf(nextDue, capacity);
+    }
+
+    // --- Actualizaciones de un slot ---
+
+    void setPosition(int slot, int px, int py) {
+        x[slot] = px;
+        y[slot] = py;
+    }
+
+    void markDead(int slot) {
+        alive[slot] = false;
+    }
+
+    public void setNextDue(int slot, long time) {
+        if (slot >= 0 && slot < size) nextDue[slot] = time;
+    }
+
+    // --- Recorridos ---
+
+    /**
+     * @return true si el zombie del slot debe actuar en el instante 'now'.
+     */
+    public boolean isDue(int slot, long now) {
+        return alive[slot] && nextDue[slot] <= now;
+    }
+
+    /**
+     * Busca el zombie vivo más cercano (distancia euclidiana) a (px, py).
+     * @return El slot, o -1 si no hay zombies vivos.
+     */
+    public int nearest(int px, int py) {
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            int dx = x[i] - px;
+            int dy = y[i] - py;
+            int d2 = dx * dx + dy * dy;
+            if (alive[i] && d2 < bestDistance) {
+                bestDistance = d2;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Junta (en orden de slot) los zombies vivos a distancia euclidiana <= range de (px, py).
+     *
+     * @param includeAerial false para ignorar zombies aéreos (defensas terrestres).
+     * @param out Arreglo donde se escriben los slots encontrados.
+     * @param max Máximo de slots a devolver (como mucho out.length).
+     * @return Cantidad de slots escritos en out.
+     */
+    public int collectInRange(int px, int py, int range, boolean includeAerial, int[] out, int max) {
+        int limit = Math.min(max, out.length);
+        int range2 = range * range; // Compara distancias al cuadrado: sin raíz
+        int found = 0;
+        for (int i = 0; i < size && found < limit; i++) {
+            int dx = x[i] - px;
+            int dy = y[i] - py;
+            if (alive[i] && (includeAerial || !aerial[i]) && dx * dx + dy * dy <= range2) {
+                out[found++] = i;
+            }
+        }
+        return found;
+    }
+
+    // --- Lectura de un slot ---
+    public int size() { return size; }
+    public int getX(int slot) { return x[slot]; }
+    public int getY(int slot) { return y[slot]; }
+    public boolean isAerial(int slot) { return aerial[slot]; }
+    public boolean isAlive(int slot) { return alive[slot]; }
+}
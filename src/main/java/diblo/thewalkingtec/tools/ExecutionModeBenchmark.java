@@ -0,0 +1,106 @@
+package diblo.thewalkingtec.tools;
+
+import diblo.thewalkingtec.model.Position;
+import diblo.thewalkingtec.model.Zombie;
+import diblo.thewalkingtec.model.config.EnemyConfig;
+import diblo.thewalkingtec.service.Board;
+import diblo.thewalkingtec.service.ConfigurationManager;
+import diblo.thewalkingtec.service.ExecutionMode;
+import diblo.thewalkingtec.service.Game;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark de los modos de ejecución de componentes (ExecutionMode).
+ * Para cada cantidad de zombies arma la misma partida con cada modo, ejecuta
+ * ticks sin scheduler (Game.step) y mide el tiempo promedio por tick.
+ *
+ * Uso: java diblo.thewalkingtec.tools.ExecutionModeBenchmark [config.json] [ticks]
+ * Si no se indica config, se genera la configuración por defecto en un archivo temporal.
+ */
+public class ExecutionModeBenchmark {
+
+    private static final int[] ENTITY_COUNTS = {25, 100, 300, 600};
+    private static final int WARMUP_TICKS = 20;
+    private static final long LAYOUT_SEED = 42L; // Misma distribución de zombies para todos los modos
+
+    public static void main(String[] args) throws Exception {
+        loadConfig(args.length > 0 ? args[0] : null);
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        System.out.printf("Núcleos disponibles: %d | Ticks medidos por corrida: %d%n",
+                Runtime.getRuntime().availableProcessors(), ticks);
+        System.out.printf("%-10s %-16s %12s %12s%n", "Entidades", "Modo", "ms/tick", "Ticks");
+
+        for (int count : ENTITY_COUNTS) {
+            ExecutionMode best = null;
+            double bestMillis = Double.MAX_VALUE;
+            for (ExecutionMode mode : ExecutionMode.values()) {
+                Result result = run(mode, count, ticks);
+                System.out.printf("%-10d %-16s %12.3f %12d%n", count, mode, result.millisPerTick, result.ticks);
+                if (result.ticks > 0 && result.millisPerTick < bestMillis) {
+                    bestMillis = result.millisPerTick;
+                    best = mode;
+                }
+            }
+            System.out.printf("%-10d %-16s %12.3f%n%n", count, "-> " + best, bestMillis);
+        }
+    }
+
+    private static void loadConfig(String path) throws IOException {
+        if (path == null) {
+            File temp = File.createTempFile("benchmark-config", ".json");
+            temp.deleteOnExit();
+            ConfigurationManager.createDefaultConfig(temp.getAbsolutePath());
+        } else {
+            ConfigurationManager.loadConfig(path);
+        }
+    }
+
+    /**
+     * Una corrida: partida nueva, zombies colocados y ticks medidos.
+     */
+    private static Result run(ExecutionMode mode, int zombieCount, int ticks) {
+        Game game = new Game("benchmark");
+        game.setExecutionMode(mode);
+        game.startHeadless();
+        game.setRelicLife(Integer.MAX_VALUE); // Que la partida no termine durante la medición
+        populate(game, zombieCount);
+
+        try {
+            game.step(WARMUP_TICKS);
+            long start = System.nanoTime();
+            int executed = game.step(ticks);
+            long elapsed = System.nanoTime() - start;
+            return new Result(executed == 0 ? 0 : elapsed / 1_000_000.0 / executed, executed);
+        } finally {
+            game.stop();
+        }
+    }
+
+    /**
+     * Coloca zombies (tipos del config, en rotación) en celdas libres elegidas con semilla fija.
+     */
+    private static void populate(Game game, int zombieCount) {
+        List<EnemyConfig> enemies = game.getGameConfig().getEnemies();
+        Board board = game.getBoard();
+        Random random = new Random(LAYOUT_SEED);
+        int placed = 0;
+        int attempts = 0;
+        while (placed < zombieCount && attempts++ < zombieCount * 20) {
+            Position pos = Position.of(random.nextInt(Board.SIZE), random.nextInt(Board.SIZE));
+            if (pos.equals(game.getRelicPosition())) continue;
+            Zombie zombie = game.createZombie(enemies.get(placed % enemies.size()).getId());
+            if (zombie == null) return;
+            zombie.setContext(game.getContext());
+            if (board.placeComponent(zombie, pos)) {
+                placed++;
+            }
+        }
+    }
+
+    private record Result(double millisPerTick, int ticks) {}
+}
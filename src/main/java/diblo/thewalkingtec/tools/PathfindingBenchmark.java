@@ -0,0 +1,177 @@
+package diblo.thewalkingtec.tools;
+
+import diblo.thewalkingtec.model.Defense;
+import diblo.thewalkingtec.model.Position;
+import diblo.thewalkingtec.model.config.DefenseConfig;
+import diblo.thewalkingtec.model.enums.ComponentType;
+import diblo.thewalkingtec.service.Board;
+import diblo.thewalkingtec.service.ConfigurationManager;
+import diblo.thewalkingtec.service.PathfindingService;
+import diblo.thewalkingtec.service.SearchStrategy;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark de las estrategias de búsqueda de rutas (SearchStrategy).
+ * Arma tableros abiertos, con obstáculos al azar y tipo laberinto, y resuelve las mismas
+ * consultas (pares de celdas libres con semilla fija) con cada estrategia, midiendo nodos
+ * expandidos, tiempo y largo promedio de la ruta (debe coincidir: ambas son óptimas).
+ *
+ * Uso: java diblo.thewalkingtec.tools.PathfindingBenchmark [config.json] [consultas]
+ * Si no se indica config, se genera la configuración por defecto en un archivo temporal.
+ */
+public class PathfindingBenchmark {
+
+    private static final long LAYOUT_SEED = 42L; // Mismos tableros y consultas para todas las estrategias
+    private static final double RANDOM_WALL_DENSITY = 0.25;
+    private static final double MAZE_EXTRA_OPENINGS = 0.1; // Paredes del laberinto que se abren (da rutas alternativas)
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5; // Se informa la ronda más rápida (la menos afectada por JIT y GC)
+
+    public static void main(String[] args) throws Exception {
+        loadConfig(args.length > 0 ? args[0] : null);
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        DefenseConfig wall = ConfigurationManager.getConfig().getDefenses().stream()
+                .filter(dc -> !"Aerial".equalsIgnoreCase(dc.getType()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("La configuración no tiene defensas terrestres"));
+
+        System.out.printf("Tablero %dx%d | Consultas por tablero: %d%n", Board.SIZE, Board.SIZE, queries);
+        System.out.printf("%-12s %-36s %14s %12s %10s %8s%n",
+                "Tablero", "Estrategia", "Nodos/consulta", "µs/consulta", "Largo", "Sin ruta");
+
+        String[] layouts = {"Abierto", "Al azar", "Laberinto"};
+        for (String layout : layouts) {
+            Board board = new Board();
+            Random random = new Random(LAYOUT_SEED);
+            switch (layout) {
+                case "Al azar" -> placeRandomWalls(board, wall, random);
+                case "Laberinto" -> placeMaze(board, wall, random);
+                default -> { }
+            }
+            List<Position[]> pairs = pickQueries(board, queries, random);
+            for (SearchStrategy strategy : SearchStrategy.values()) {
+                Result result = run(board, pairs, strategy);
+                System.out.printf("%-12s %-36s %14.1f %12.1f %10.1f %8d%n", layout, strategy.getDisplayName(),
+                        result.nodesPerQuery, result.microsPerQuery, result.averageLength, result.unreachable);
+            }
+        }
+    }
+
+    private static void loadConfig(String path) throws IOException {
+        if (path == null) {
+            File temp = File.createTempFile("benchmark-config", ".json");
+            temp.deleteOnExit();
+            ConfigurationManager.createDefaultConfig(temp.getAbsolutePath());
+        } else {
+            ConfigurationManager.loadConfig(path);
+        }
+    }
+
+    /**
+     * Resuelve todas las consultas con una estrategia: unas rondas de calentamiento del JIT
+     * y después varias rondas medidas. Los nodos y largos son iguales en todas las rondas.
+     */
+    private static Result run(Board board, List<Position[]> pairs, SearchStrategy strategy) {
+        PathfindingService pathfinding = new PathfindingService();
+        pathfinding.setSearchStrategy(strategy);
+        pathfinding.setHierarchyMinDistance(Integer.MAX_VALUE); // Solo la búsqueda sobre celdas
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (Position[] pair : pairs) pathfinding.findPath(board, pair[0], pair[1], ComponentType.CONTACT);
+        }
+
+        int n = Math.max(1, pairs.size());
+        long nodesBefore = pathfinding.getExpandedNodeCount();
+        long totalLength = 0;
+        int found = 0, unreachable = 0;
+        long bestElapsed = Long.MAX_VALUE;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (Position[] pair : pairs) {
+                List<Position> path = pathfinding.findPath(board, pair[0], pair[1], ComponentType.CONTACT);
+                if (round > 0) continue;
+                if (path == null) {
+                    unreachable++;
+                } else {
+                    totalLength += path.size() - 1;
+                    found++;
+                }
+            }
+            bestElapsed = Math.min(bestElapsed, System.nanoTime() - start);
+        }
+        double nodes = (pathfinding.getExpandedNodeCount() - nodesBefore) / (double) MEASURED_ROUNDS;
+        return new Result(nodes / n, bestElapsed / 1_000.0 / n,
+                found == 0 ? 0 : totalLength / (double) found, unreachable);
+    }
+
+    private static void placeRandomWalls(Board board, DefenseConfig wall, Random random) {
+        int count = (int) (Board.SIZE * Board.SIZE * RANDOM_WALL_DENSITY);
+        for (int i = 0; i < count; i++) {
+            board.placeComponent(new Defense(wall, 0), Position.of(random.nextInt(Board.SIZE), random.nextInt(Board.SIZE)));
+        }
+    }
+
+    /**
+     * Laberinto por backtracking: las celdas con ambas coordenadas pares son pasillos y las
+     * paredes entre ellas se abren al recorrerlo. Después se abren algunas paredes extra.
+     */
+    private static void placeMaze(Board board, DefenseConfig wall, Random random) {
+        boolean[][] open = new boolean[Board.SIZE][Board.SIZE];
+        Deque<int[]> stack = new ArrayDeque<>();
+        open[0][0] = true;
+        stack.push(new int[]{0, 0});
+        int[][] steps = {{2, 0}, {-2, 0}, {0, 2}, {0, -2}};
+        while (!stack.isEmpty()) {
+            int[] cell = stack.peek();
+            List<int[]> next = new ArrayList<>();
+            for (int[] step : steps) {
+                int nx = cell[0] + step[0], ny = cell[1] + step[1];
+                if (nx >= 0 && nx < Board.SIZE && ny >= 0 && ny < Board.SIZE && !open[nx][ny]) {
+                    next.add(new int[]{nx, ny});
+                }
+            }
+            if (next.isEmpty()) {
+                stack.pop();
+                continue;
+            }
+            int[] chosen = next.get(random.nextInt(next.size()));
+            open[(cell[0] + chosen[0]) / 2][(cell[1] + chosen[1]) / 2] = true; // La pared entre ambas
+            open[chosen[0]][chosen[1]] = true;
+            stack.push(chosen);
+        }
+        for (int x = 0; x < Board.SIZE; x++) {
+            for (int y = 0; y < Board.SIZE; y++) {
+                if (!open[x][y] && random.nextDouble() >= MAZE_EXTRA_OPENINGS) {
+                    board.placeComponent(new Defense(wall, 0), Position.of(x, y));
+                }
+            }
+        }
+    }
+
+    /**
+     * Pares (origen, destino) de celdas libres distintas.
+     */
+    private static List<Position[]> pickQueries(Board board, int count, Random random) {
+        List<Position> free = new ArrayList<>();
+        for (int x = 0; x < Board.SIZE; x++) {
+            for (int y = 0; y < Board.SIZE; y++) {
+                if (!board.getCell(x, y).hasGroundOccupant()) free.add(Position.of(x, y));
+            }
+        }
+        List<Position[]> pairs = new ArrayList<>(count);
+        while (pairs.size() < count && free.size() > 1) {
+            Position from = free.get(random.nextInt(free.size()));
+            Position to = free.get(random.nextInt(free.size()));
+            if (!from.equals(to)) pairs.add(new Position[]{from, to});
+        }
+        return pairs;
+    }
+
+    private record Result(double nodesPerQuery, double microsPerQuery, double averageLength, int unreachable) {}
+}
@@ -0,0 +1,51 @@
+package diblo.thewalkingtec.tools;
+
+import diblo.thewalkingtec.model.config.GameConfig;
+import diblo.thewalkingtec.service.ConfigurationManager;
+import diblo.thewalkingtec.service.Game;
+import diblo.thewalkingtec.service.ReplayEngine;
+import diblo.thewalkingtec.util.Logger;
+
+import java.nio.file.Path;
+
+/**
+ * Reproduce un diario de comandos (carpeta replays/) sin interfaz y reporta
+ * si los checkpoints coinciden con los grabados.
+ *
+ * Uso:
+ *   java diblo.thewalkingtec.tools.ReplayRunner diario.twj config.json [--until TICK]
+ */
+public class ReplayRunner {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Uso: ReplayRunner <diario> <config.json> [--until TICK]");
+            return;
+        }
+        long until = -1;
+        if (args.length >= 4 && args[2].equals("--until")) {
+            until = Long.parseLong(args[3]);
+        }
+
+        GameConfig config = ConfigurationManager.readConfig(args[1]);
+        Logger.setMinimumLevel(Logger.Level.WARNING);
+
+        long start = System.nanoTime();
+        ReplayEngine replay = new ReplayEngine(Path.of(args[0]), config);
+        long reached = until >= 0 ? replay.fastForward(until) : replay.runToEnd();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Game game = replay.getGame();
+        System.out.printf("Jugador: %s | Semilla: %d%n", replay.getHeader().playerName(), replay.getHeader().seed());
+        System.out.printf("Tick alcanzado: %d de %d grabados (%.2f s)%n", reached, replay.getLastRecordedTick(), seconds);
+        System.out.printf("Nivel: %d | Reliquia: %d | Monedas: %d | Zombies activos: %d%n",
+                game.getCurrentLevelIndex() + 1, game.getRelicLife(), game.getPlayer().getCoins(),
+                game.getBoard().getActiveZombieCount());
+        System.out.printf("Checkpoints verificados: %d | Divergencias: %d%n",
+                replay.getCheckpointsVerified(), replay.getMismatches().size());
+        for (ReplayEngine.Mismatch m : replay.getMismatches()) {
+            System.out.printf("  tick %d: esperado %016x, obtenido %016x%n", m.tick(), m.expectedHash(), m.actualHash());
+        }
+        game.stop();
+    }
+}
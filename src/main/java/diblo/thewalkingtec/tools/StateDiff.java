@@ -0,0 +1,161 @@
+package diblo.thewalkingtec.tools;
+
+import diblo.thewalkingtec.model.Component;
+import diblo.thewalkingtec.model.Defense;
+import diblo.thewalkingtec.model.config.GameConfig;
+import diblo.thewalkingtec.service.ConfigurationManager;
+import diblo.thewalkingtec.service.ExecutionMode;
+import diblo.thewalkingtec.service.Game;
+import diblo.thewalkingtec.service.ReplayEngine;
+import diblo.thewalkingtec.service.StateHasher;
+import diblo.thewalkingtec.util.Logger;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Busca la primera divergencia entre dos corridas de una partida grabada.
+ *
+ * Reproduce dos diarios (o el mismo diario con dos modos de ejecución) en paralelo,
+ * tick a tick, y compara el hash de estado de cada tick. En el primer tick distinto
+ * imprime la diferencia componente por componente (tipo, celda, vida) y los valores
+ * globales (reliquia, monedas, puntaje).
+ *
+ * Con --verify además compara en cada tick el hash incremental con un recálculo
+ * completo (StateHasher.compute): una diferencia indica una mutación sin su hook.
+ *
+ * Uso:
+ *   java diblo.thewalkingtec.tools.StateDiff config.json diarioA [diarioB] [opciones]
+ *     --mode-a MODO   modo de ejecución de la corrida A (INLINE)
+ *     --mode-b MODO   modo de la corrida B (FIXED_POOL con un solo diario, INLINE con dos)
+ *     --verify        verifica también el hash incremental contra el recálculo completo
+ */
+public class StateDiff {
+
+    private static final int MAX_DIFF_LINES = 40;
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>();
+        ExecutionMode modeA = ExecutionMode.INLINE;
+        ExecutionMode modeB = null;
+        boolean verify = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--mode-a" -> modeA = ExecutionMode.valueOf(args[++i]);
+                case "--mode-b" -> modeB = ExecutionMode.valueOf(args[++i]);
+                case "--verify" -> verify = true;
+                default -> positional.add(args[i]);
+            }
+        }
+        if (positional.size() < 2) {
+            System.err.println("Uso: StateDiff <config.json> <diarioA> [diarioB] [--mode-a M] [--mode-b M] [--verify]");
+            return;
+        }
+
+        GameConfig config = ConfigurationManager.readConfig(positional.get(0));
+        Path journalA = Path.of(positional.get(1));
+        Path journalB = positional.size() > 2 ? Path.of(positional.get(2)) : journalA;
+        if (modeB == null) {
+            modeB = positional.size() > 2 ? ExecutionMode.INLINE : ExecutionMode.FIXED_POOL;
+        }
+        Logger.setMinimumLevel(Logger.Level.WARNING);
+
+        ReplayEngine a = new ReplayEngine(journalA, config, modeA);
+        ReplayEngine b = new ReplayEngine(journalB, config, modeB);
+        System.out.printf("A: %s (%s) | B: %s (%s)%n", journalA, modeA, journalB, modeB);
+
+        try {
+            long lastTick = Math.max(a.getLastRecordedTick(), b.getLastRecordedTick());
+            for (long tick = 1; tick <= lastTick; tick++) {
+                long reachedA = a.fastForward(tick);
+                long reachedB = b.fastForward(tick);
+
+                if (verify) {
+                    checkIncremental("A", a.getGame(), reachedA);
+                    checkIncremental("B", b.getGame(), reachedB);
+                }
+                if (a.getGame().getStateHash() != b.getGame().getStateHash()) {
+                    System.out.printf("Primera divergencia en el tick %d (A en %d, B en %d)%n", tick, reachedA, reachedB);
+                    printDiff(a.getGame(), b.getGame());
+                    return;
+                }
+                if (reachedA != tick || reachedB != tick) {
+                    System.out.printf("Una corrida terminó antes: A en el tick %d, B en el tick %d%n", reachedA, reachedB);
+                    return;
+                }
+            }
+            System.out.printf("Sin divergencias en %d ticks%n", lastTick);
+        } finally {
+            a.getGame().stop();
+            b.getGame().stop();
+        }
+    }
+
+    private static void checkIncremental(String label, Game game, long tick) {
+        long full = StateHasher.compute(game);
+        if (full != game.getStateHash()) {
+            System.out.printf("[%s] tick %d: hash incremental %016x != recálculo %016x%n",
+                    label, tick, game.getStateHash(), full);
+        }
+    }
+
+    /**
+     * Imprime las diferencias entre dos estados: globales y componentes agrupados por tipo y celda.
+     */
+    private static void printDiff(Game a, Game b) {
+        printIfDifferent("reliquia", a.getRelicLife(), b.getRelicLife());
+        printIfDifferent("monedas", a.getPlayer().getCoins(), b.getPlayer().getCoins());
+        printIfDifferent("puntaje", a.getPlayer().getScore(), b.getPlayer().getScore());
+        printIfDifferent("zombies", a.getBoard().getActiveZombieCount(), b.getBoard().getActiveZombieCount());
+        printIfDifferent("defensas", a.getBoard().getActiveDefenses().size(), b.getBoard().getActiveDefenses().size());
+
+        Map<String, List<Integer>> stateA = snapshot(a);
+        Map<String, List<Integer>> stateB = snapshot(b);
+        TreeSet<String> keys = new TreeSet<>(stateA.keySet());
+        keys.addAll(stateB.keySet());
+
+        int lines = 0;
+        for (String key : keys) {
+            List<Integer> livesA = stateA.getOrDefault(key, List.of());
+            List<Integer> livesB = stateB.getOrDefault(key, List.of());
+            if (livesA.equals(livesB)) continue;
+            if (++lines > MAX_DIFF_LINES) {
+                System.out.println("  ...");
+                break;
+            }
+            if (livesA.isEmpty()) {
+                System.out.printf("  %-32s solo en B (vida %s)%n", key, livesB);
+            } else if (livesB.isEmpty()) {
+                System.out.printf("  %-32s solo en A (vida %s)%n", key, livesA);
+            } else {
+                System.out.printf("  %-32s vida A %s, B %s%n", key, livesA, livesB);
+            }
+        }
+    }
+
+    private static void printIfDifferent(String label, int valueA, int valueB) {
+        if (valueA != valueB) {
+            System.out.printf("  %-32s A %d, B %d%n", label, valueA, valueB);
+        }
+    }
+
+    /**
+     * Estado comparable de los componentes: "D|Z id@(x,y)" -> vidas (ordenadas).
+     * No usa el UUID de instancia porque no se repite entre corridas.
+     */
+    private static Map<String, List<Integer>> snapshot(Game game) {
+        Map<String, List<Integer>> state = new TreeMap<>();
+        List<Component> components = new ArrayList<>(game.getBoard().getActiveDefenses());
+        components.addAll(game.getBoard().getActiveZombies());
+        for (Component c : components) {
+            String key = (c instanceof Defense ? "D " : "Z ") + c.getId() + "@" + c.getPosition();
+            state.computeIfAbsent(key, k -> new ArrayList<>()).add(c.getCurrentLife());
+        }
+        state.values().forEach(lives -> lives.sort(null));
+        return state;
+    }
+}
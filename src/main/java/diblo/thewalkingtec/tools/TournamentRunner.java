@@ -0,0 +1,209 @@
+package diblo.thewalkingtec.tools;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import diblo.thewalkingtec.model.config.GameConfig;
+import diblo.thewalkingtec.model.config.LevelConfig;
+import diblo.thewalkingtec.model.config.WaveConfig;
+import diblo.thewalkingtec.service.ConfigurationManager;
+import diblo.thewalkingtec.service.HeadlessSimulation;
+import diblo.thewalkingtec.util.Logger;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Torneo de balance: corre muchas partidas sin interfaz, en paralelo, para comparar
+ * variantes de configuración (multiplicador de cantidad por oleada y ajuste del
+ * boost de enemigos por nivel).
+ *
+ * Cada partida tiene su semilla (seed base + número de partida, la misma para todas
+ * las variantes, así las comparaciones son pareadas) y su propia copia de la
+ * configuración. El resultado se agrega por variante en un CSV y un JSON.
+ *
+ * Uso:
+ *   java diblo.thewalkingtec.tools.TournamentRunner [opciones]
+ *     --config ruta.json      (repetible; por defecto, la configuración por defecto)
+ *     --games N               partidas por variante (50)
+ *     --seed S                semilla base (1)
+ *     --wave-scale a,b,c      multiplicadores de WaveConfig.quantity (1)
+ *     --enemy-boost a,b,c     puntos sumados a LevelConfig.enemyBoostPercent (0)
+ *     --max-ticks N           límite de ticks por partida (60000)
+ *     --threads N             hilos (núcleos disponibles)
+ *     --out prefijo           genera prefijo.csv y prefijo.json ("tournament")
+ */
+public class TournamentRunner {
+
+    public static void main(String[] args) throws Exception {
+        List<String> configPaths = new ArrayList<>();
+        int games = 50;
+        long seed = 1;
+        double[] waveScales = {1.0};
+        double[] enemyBoosts = {0.0};
+        int maxTicks = 60_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String out = "tournament";
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--config" -> configPaths.add(value);
+                case "--games" -> games = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--wave-scale" -> waveScales = parseList(value);
+                case "--enemy-boost" -> enemyBoosts = parseList(value);
+                case "--max-ticks" -> maxTicks = Integer.parseInt(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--out" -> out = value;
+                default -> {
+                    System.err.println("Opción desconocida: " + args[i]);
+                    return;
+                }
+            }
+            i++;
+        }
+
+        // 1. Variantes: cada config x cada multiplicador de oleada x cada ajuste de boost
+        List<Variant> variants = new ArrayList<>();
+        List<String> sources = configPaths.isEmpty() ? List.of("default") : configPaths;
+        for (String source : sources) {
+            GameConfig base = source.equals("default") && configPaths.isEmpty()
+                    ? ConfigurationManager.createDefaultGameConfig()
+                    : ConfigurationManager.readConfig(source);
+            for (double scale : waveScales) {
+                for (double boost : enemyBoosts) {
+                    variants.add(new Variant(source, scale, boost, derive(base, scale, boost)));
+                }
+            }
+        }
+
+        Logger.Level previousLevel = Logger.getMinimumLevel();
+        Logger.setMinimumLevel(Logger.Level.WARNING); // Miles de partidas: solo avisos y errores
+        System.out.printf("Variantes: %d | Partidas por variante: %d | Hilos: %d%n", variants.size(), games, threads);
+
+        // 2. Todas las partidas de todas las variantes en un mismo pool
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<List<Future<HeadlessSimulation.Result>>> futures = new ArrayList<>();
+            for (Variant variant : variants) {
+                List<Future<HeadlessSimulation.Result>> perVariant = new ArrayList<>(games);
+                for (int g = 0; g < games; g++) {
+                    HeadlessSimulation simulation = new HeadlessSimulation(variant.config, seed + g, maxTicks);
+                    perVariant.add(pool.submit(simulation::run));
+                }
+                futures.add(perVariant);
+            }
+
+            // 3. Agregado por variante
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (int v = 0; v < variants.size(); v++) {
+                List<HeadlessSimulation.Result> results = new ArrayList<>(games);
+                for (Future<HeadlessSimulation.Result> future : futures.get(v)) {
+                    results.add(future.get());
+                }
+                rows.add(aggregate(variants.get(v), results));
+            }
+
+            writeCsv(out + ".csv", rows);
+            writeJson(out + ".json", rows);
+            System.out.printf("Listo en %.1f s -> %s.csv, %s.json%n", (System.nanoTime() - start) / 1e9, out, out);
+        } finally {
+            pool.shutdownNow();
+            Logger.setMinimumLevel(previousLevel);
+        }
+    }
+
+    /**
+     * Copia la configuración base aplicando los ajustes de la variante.
+     */
+    private static GameConfig derive(GameConfig base, double waveScale, double enemyBoostDelta) {
+        GameConfig copy = ConfigurationManager.copyOf(base);
+        for (LevelConfig level : copy.getLevels()) {
+            level.setEnemyBoostPercent(level.getEnemyBoostPercent() + enemyBoostDelta);
+            for (WaveConfig wave : level.getEnemyWaves()) {
+                wave.setQuantity(Math.max(1, (int) Math.round(wave.getQuantity() * waveScale)));
+            }
+        }
+        return copy;
+    }
+
+    private static Map<String, Object> aggregate(Variant variant, List<HeadlessSimulation.Result> results) {
+        int wins = 0, losses = 0, timeouts = 0;
+        long relicDamage = 0, ticks = 0, levels = 0, levelTicks = 0, completedLevels = 0;
+        for (HeadlessSimulation.Result r : results) {
+            if (r.won()) wins++;
+            if (r.lost()) losses++;
+            if (r.timedOut()) timeouts++;
+            relicDamage += r.relicDamage();
+            ticks += r.ticks();
+            levels += r.levelsCompleted();
+            for (long d : r.levelDurationTicks()) {
+                levelTicks += d;
+                completedLevels++;
+            }
+        }
+        int n = Math.max(1, results.size());
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("config", variant.source);
+        row.put("waveScale", variant.waveScale);
+        row.put("enemyBoostDelta", variant.enemyBoostDelta);
+        row.put("games", results.size());
+        row.put("wins", wins);
+        row.put("losses", losses);
+        row.put("timeouts", timeouts);
+        row.put("winRate", (double) wins / n);
+        row.put("avgLevelsCompleted", (double) levels / n);
+        row.put("avgRelicDamage", (double) relicDamage / n);
+        row.put("avgLevelDurationTicks", completedLevels == 0 ? 0.0 : (double) levelTicks / completedLevels);
+        row.put("avgTicks", (double) ticks / n);
+        return row;
+    }
+
+    private static void writeCsv(String path, List<Map<String, Object>> rows) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(path))) {
+            if (rows.isEmpty()) return;
+            writer.println(String.join(",", rows.get(0).keySet()));
+            for (Map<String, Object> row : rows) {
+                List<String> cells = new ArrayList<>();
+                for (Object value : row.values()) {
+                    cells.add(value instanceof Double d ? String.format(Locale.ROOT, "%.4f", d) : csvEscape(String.valueOf(value)));
+                }
+                writer.println(String.join(",", cells));
+            }
+        }
+    }
+
+    private static String csvEscape(String value) {
+        return value.contains(",") || value.contains("\"") ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
+    }
+
+    private static void writeJson(String path, List<Map<String, Object>> rows) throws IOException {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try (Writer writer = new FileWriter(path)) {
+            gson.toJson(rows, writer);
+        }
+    }
+
+    private static double[] parseList(String value) {
+        String[] parts = value.split(",");
+        double[] result = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Double.parseDouble(parts[i].trim());
+        }
+        return result;
+    }
+
+    private record Variant(String source, double waveScale, double enemyBoostDelta, GameConfig config) {}
+}
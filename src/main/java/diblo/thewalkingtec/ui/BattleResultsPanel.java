@@ -3,28 +3,47 @@ package diblo.thewalkingtec.ui;
 import diblo.thewalkingtec.model.Component;
 import diblo.thewalkingtec.model.Defense;
 import diblo.thewalkingtec.model.LogEntry;
-import diblo.thewalkingtec.model.Zombie;
+import diblo.thewalkingtec.service.CombatStats;
 import diblo.thewalkingtec.service.Game;
+import diblo.thewalkingtec.service.RelicHitLog;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * Panel (Ventana Modal) que muestra los resultados detallados de la batalla.
  * Cumple con el requisito del PDF: "mostrar información de todos los componentes
  * después de la batalla".
+ *
+ * Está pensado para batallas con miles de componentes:
+ * - Los componentes se muestran en TableViews (virtualizadas: solo se crean las filas visibles).
+ * - El log de un componente se muestra al seleccionarlo, paginado.
+ * - Los conteos salen de CombatStats y el log de la reliquia del RelicHitLog del nivel.
+ * - Cada LogEntry se formatea recién cuando su fila se hace visible.
  */
 public class BattleResultsPanel {
 
+    private static final int LOG_PAGE_SIZE = 200; // Entradas de log por página
+    private static final String LOG_STYLE =
+            "-fx-control-inner-background: #1a1a1a; " +
+                    "-fx-text-fill: #aaaaaa; " +
+                    "-fx-font-family: 'Courier New'; " + // Fuente monoespaciada
+                    "-fx-font-size: 9px;";
+
     /**
      * Muestra la ventana modal de resultados.
      * @param game La instancia del juego (ya pausado o detenido).
@@ -37,6 +56,16 @@ public class BattleResultsPanel {
         dialog.initOwner(owner);
         dialog.setTitle("Resultados de la Batalla - Nivel " + game.getCurrentLevel().getLevelNumber());
 
+        // Una sola copia de cada lista para toda la ventana. El tablero solo tiene a los
+        // sobrevivientes (el tick limpia los muertos antes de cerrar el nivel); los destruidos
+        // salen de CombatStats.
+        List<Component> defenses = new ArrayList<>(game.getBoard().getActiveDefenses());
+        List<Component> zombies = new ArrayList<>(game.getBoard().getActiveZombies());
+        for (Component fallen : game.getCombatStats().getFallen()) {
+            (fallen instanceof Defense ? defenses : zombies).add(fallen);
+        }
+        CombatStats.Snapshot stats = game.getCombatStats().snapshot();
+
         BorderPane root = new BorderPane();
         root.setStyle("-fx-background-color: #2b2b2b;"); // Fondo oscuro
         root.setPadding(new Insets(15));
@@ -68,24 +97,24 @@ public class BattleResultsPanel {
         // Tab: Resumen (Vida Reliquia, Boosts, Log de Reliquia)
         Tab summaryTab = new Tab("Resumen");
         summaryTab.setClosable(false);
-        summaryTab.setContent(createSummaryPanel(game, won));
+        summaryTab.setContent(createSummaryPanel(game, won, stats));
 
-        // Tab: Defensas (Lista de todas las defensas y sus logs)
+        // Tab: Defensas (Tabla de todas las defensas; el log se ve al seleccionar una)
         Tab defensesTab = new Tab("Defensas");
         defensesTab.setClosable(false);
-        // Nota: game.getBoard().getActiveDefenses() al final de la batalla
-        // incluye las defensas VIVAS y las DESTRUIDAS (aún no limpiadas).
-        defensesTab.setContent(createComponentsPanel(game.getBoard().getActiveDefenses(), "Defensas"));
+        defensesTab.setContent(createComponentsPanel(defenses, "Defensas"));
 
-        // Tab: Zombies (Lista de todos los zombies y sus logs)
+        // Tab: Zombies (Tabla de todos los zombies; el log se ve al seleccionar uno)
         Tab zombiesTab = new Tab("Zombies");
         zombiesTab.setClosable(false);
-        zombiesTab.setContent(createComponentsPanel(
-                new ArrayList<>(game.getBoard().getActiveZombies()), // Incluye vivos y muertos
-                "Zombies"
-        ));
+        zombiesTab.setContent(createComponentsPanel(zombies, "Zombies"));
 
-        tabPane.getTabs().addAll(summaryTab, defensesTab, zombiesTab);
+        // Tab: Estadísticas (contadores por tipo, acumulados durante el nivel)
+        Tab statsTab = new Tab("Estadísticas");
+        statsTab.setClosable(false);
+        statsTab.setContent(createStatsPanel(stats));
+
+        tabPane.getTabs().addAll(summaryTab, defensesTab, zombiesTab, statsTab);
 
         // --- 3. Botón de Cierre ---
         Button closeBtn = new Button("Cerrar");
@@ -108,8 +137,9 @@ public class BattleResultsPanel {
 
     /**
      * Crea el contenido de la pestaña "Resumen".
+     * Los conteos vienen de CombatStats; el log y los totales de la reliquia, del RelicHitLog.
      */
-    private static VBox createSummaryPanel(Game game, boolean won) {
+    private static VBox createSummaryPanel(Game game, boolean won, CombatStats.Snapshot stats) {
         VBox panel = new VBox(15);
         panel.setPadding(new Insets(20));
         panel.setStyle("-fx-background-color: #333333;");
@@ -131,26 +161,23 @@ public class BattleResultsPanel {
         );
         relicLabel.setStyle("-fx-text-fill: white; -fx-font-size: 14px;");
 
-        // Conteo de Defensas
-        int totalDefenses = game.getBoard().getActiveDefenses().size();
-        int survivingDefenses = (int) game.getBoard().getActiveDefenses().stream()
-                .filter(d -> !d.isDestroyed())
-                .count();
-        Label defenseLabel = new Label(
-                String.format("Defensas: %d/%d sobrevivieron", survivingDefenses, totalDefenses)
-        );
+        // Conteos: salen de los contadores del nivel (O(tipos), sin recorrer componentes)
+        Label defenseLabel = new Label(String.format("Defensas: %d/%d sobrevivieron",
+                stats.totalAlive(true), stats.totalAlive(true) + stats.totalDeaths(true)));
         defenseLabel.setStyle("-fx-text-fill: cyan; -fx-font-size: 14px;");
-
-        // Conteo de Zombies
-        int totalZombies = game.getBoard().getActiveZombies().size();
-        int destroyedZombies = (int) game.getBoard().getActiveZombies().stream()
-                .filter(Component::isDestroyed)
-                .count();
-        Label zombieLabel = new Label(
-                String.format("Zombies: %d/%d eliminados", destroyedZombies, totalZombies)
-        );
+        Label zombieLabel = new Label(String.format("Zombies: %d/%d eliminados",
+                stats.totalDeaths(false), stats.totalPlaced(false)));
         zombieLabel.setStyle("-fx-text-fill: red; -fx-font-size: 14px;");
 
+        // Daño a la reliquia por tipo de enemigo (cubre también a los zombies ya limpiados del tablero)
+        StringBuilder relicByType = new StringBuilder("Daño a la reliquia: " + stats.totalRelicDamage());
+        for (RelicHitLog.TypeSummary type : game.getRelicHitLog().summaryByType()) {
+            relicByType.append(" | ").append(type.name()).append(": ")
+                    .append(type.damage()).append(" (").append(type.hits()).append(" golpes)");
+        }
+        Label relicDamageLabel = new Label(relicByType.toString());
+        relicDamageLabel.setStyle("-fx-text-fill: white; -fx-font-size: 12px;");
+
         // Boosts del Nivel
         Label boostLabel = new Label(
                 String.format("Boosts de Nivel: Defensas +%.1f%% | Enemigos +%.1f%%",
@@ -163,156 +190,161 @@ public class BattleResultsPanel {
         Label logTitle = new Label("Registro de Daño a la Reliquia:");
         logTitle.setStyle("-fx-text-fill: #ffaa00; -fx-font-size: 12px; -fx-font-weight: bold;");
 
-        TextArea logArea = new TextArea();
-        logArea.setEditable(false);
-        logArea.setPrefRowCount(8);
-        logArea.setStyle(
-                "-fx-control-inner-background: #1a1a1a; " +
-                        "-fx-text-fill: #aaaaaa; " +
-                        "-fx-font-family: 'Courier New'; " + // Fuente monoespaciada
-                        "-fx-font-size: 9px;"
-        );
-
-        // Recolecta logs de todos los zombies que atacaron la reliquia
-        List<LogEntry> relicLogs = new ArrayList<>();
-        for (Zombie zombie : game.getBoard().getActiveZombies()) {
-            for (LogEntry log : zombie.getInteractionsLog()) {
-                if (log.getDefenderId() == null) { // 'null' ID significa que el defensor es la Reliquia
-                    relicLogs.add(log);
-                }
-            }
-        }
+        VBox logHolder = new VBox();
+        VBox.setVgrow(logHolder, Priority.ALWAYS);
 
-        StringBuilder logText = new StringBuilder();
+        // Los golpes a la reliquia salen del RelicHitLog del nivel (O(filas), sin recorrer logs)
+        RelicHitLog relicHits = game.getRelicHitLog();
+        List<LogEntry> relicLogs = relicHits.latest(RelicHitLog.CAPACITY);
         if (relicLogs.isEmpty()) {
-            logText.append("La reliquia no recibió daño.");
+            logHolder.getChildren().setAll(styledLabel("La reliquia no recibió daño."));
         } else {
-            for (LogEntry log : relicLogs) {
-                logText.append(log.toString()).append("\n");
-            }
+            logTitle.setText(relicLogs.size() < relicHits.getTotalHits()
+                    ? "Registro de Daño a la Reliquia (últimos " + relicLogs.size() + " de " + relicHits.getTotalHits() + " golpes):"
+                    : "Registro de Daño a la Reliquia (" + relicLogs.size() + " golpes):");
+            logHolder.getChildren().setAll(createLogPagination(relicLogs));
         }
-        logArea.setText(logText.toString());
-        logArea.setScrollTop(Double.MAX_VALUE); // Scroll al final
 
         panel.getChildren().addAll(
                 statusLabel, new Separator(),
-                relicLabel, defenseLabel, zombieLabel, new Separator(),
+                relicLabel, relicDamageLabel, defenseLabel, zombieLabel, new Separator(),
                 boostLabel, new Separator(),
-                logTitle, logArea
+                logTitle, logHolder
         );
 
         return panel;
     }
 
     /**
-     * Crea el contenido de las pestañas "Defensas" y "Zombies".
+     * Crea el contenido de las pestañas "Defensas" y "Zombies": una tabla con una fila
+     * por componente y, debajo, el log paginado del componente seleccionado.
      * @param components La lista de componentes (Defensas o Zombies) a mostrar.
      * @param type El nombre (ej. "Defensas").
-     * @return Un ScrollPane que contiene las tarjetas de componentes.
      */
-    private static ScrollPane createComponentsPanel(List<? extends Component> components, String type) {
-        VBox container = new VBox(10); // Contenedor vertical para las tarjetas
-        container.setPadding(new Insets(15));
-        container.setStyle("-fx-background-color: #333333;");
-
+    private static Node createComponentsPanel(List<? extends Component> components, String type) {
         if (components.isEmpty()) {
-            Label emptyLabel = new Label("No hay " + type.toLowerCase() + " en esta batalla");
-            emptyLabel.setStyle("-fx-text-fill: #888888; -fx-font-size: 14px;");
-            container.getChildren().add(emptyLabel);
-        } else {
-            // Crea una "tarjeta" (VBox) para cada componente en la lista
-            for (Component component : components) {
-                VBox componentCard = createComponentCard(component);
-                container.getChildren().add(componentCard);
-            }
+            VBox container = new VBox(styledLabel("No hay " + type.toLowerCase() + " en esta batalla"));
+            container.setPadding(new Insets(15));
+            container.setStyle("-fx-background-color: #333333;");
+            return container;
         }
 
-        ScrollPane scrollPane = new ScrollPane(container);
-        scrollPane.setFitToWidth(true);
-        scrollPane.setStyle("-fx-background: #333333; -fx-background-color: #333333;");
+        TableView<Component> table = new TableView<>(FXCollections.observableArrayList(components));
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        table.getColumns().add(column("Nombre", Component::getName));
+        table.getColumns().add(column("Estado", c -> c.isDestroyed() ? "DESTRUIDO" : "SOBREVIVIÓ"));
+        table.getColumns().add(column("Tipo", c -> c.getType().getDisplayName()));
+        table.getColumns().add(column("Posición", c -> String.valueOf(c.getPosition())));
+        table.getColumns().add(column("Vida", c -> c.getCurrentLife() + "/" + c.getMaxLife()));
+        table.getColumns().add(column("Daño", Component::getDamagePerHit));
+        table.getColumns().add(column("Golpes/seg", Component::getHitsPerSecond));
+        table.getColumns().add(column("Nivel", Component::getLevel));
+
+        // Verde si sobrevivió, rojo si fue destruido
+        table.setRowFactory(tv -> new TableRow<>() {
+            @Override
+            protected void updateItem(Component component, boolean empty) {
+                super.updateItem(component, empty);
+                setStyle(empty || component == null ? ""
+                        : "-fx-text-background-color: " + (component.isDestroyed() ? "#cc0000" : "#007700") + ";");
+            }
+        });
+
+        // Log del componente seleccionado (se copia y se pagina solo al seleccionarlo)
+        Label logTitle = new Label("Selecciona un componente para ver su registro de combate");
+        logTitle.setStyle("-fx-text-fill: #ffaa00; -fx-font-size: 11px; -fx-font-weight: bold;");
+        VBox logHolder = new VBox();
+        logHolder.setPrefHeight(180);
+        table.getSelectionModel().selectedItemProperty().addListener((obs, old, selected) -> {
+            if (selected == null) {
+                logHolder.getChildren().clear();
+                return;
+            }
+            List<LogEntry> logs = selected.getInteractionsLog();
+            if (logs.isEmpty()) {
+                logTitle.setText(selected.getName() + ": sin interacciones de combate");
+                logHolder.getChildren().clear();
+            } else {
+                logTitle.setText(selected.getName() + ": registro de combate (" + logs.size() + " interacciones)");
+                logHolder.getChildren().setAll(createLogPagination(logs));
+            }
+        });
+
+        VBox container = new VBox(8, table, logTitle, logHolder);
+        container.setPadding(new Insets(15));
+        container.setStyle("-fx-background-color: #333333;");
+        VBox.setVgrow(table, Priority.ALWAYS);
+        return container;
+    }
 
-        return scrollPane;
+    private static <T> TableColumn<Component, T> column(String title, Function<Component, T> value) {
+        TableColumn<Component, T> column = new TableColumn<>(title);
+        // Se evalúa solo para las celdas visibles
+        column.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(value.apply(cell.getValue())));
+        return column;
     }
 
     /**
-     * Crea una "tarjeta" individual (VBox) que muestra toda la info de un componente,
-     * incluyendo su log de combate (Requisito PDF).
-     *
-     * @param component El componente a mostrar.
-     * @return Un VBox formateado como una tarjeta.
+     * Muestra un log en páginas de LOG_PAGE_SIZE entradas, empezando por la última
+     * (lo más reciente). Cada página es una ListView que formatea solo las filas visibles.
      */
-    private static VBox createComponentCard(Component component) {
-        VBox card = new VBox(8);
-        card.setPadding(new Insets(12));
-
-        // Borde verde si sobrevivió, rojo si fue destruido
-        String borderColor = component.isDestroyed() ? "#ff0000" : "#00ff00";
-        card.setStyle(
-                "-fx-background-color: #2a2a2a; " +
-                        "-fx-border-color: " + borderColor + "; " +
-                        "-fx-border-width: 2px; " +
-                        "-fx-border-radius: 5px; " +
-                        "-fx-background-radius: 5px;"
-        );
+    private static Pagination createLogPagination(List<LogEntry> logs) {
+        int pages = (logs.size() + LOG_PAGE_SIZE - 1) / LOG_PAGE_SIZE;
+        Pagination pagination = new Pagination(pages, pages - 1);
+        pagination.setPageFactory(page -> {
+            int from = page * LOG_PAGE_SIZE;
+            int to = Math.min(logs.size(), from + LOG_PAGE_SIZE);
+            ListView<LogEntry> list = new ListView<>(FXCollections.observableArrayList(logs.subList(from, to)));
+            list.setStyle(LOG_STYLE);
+            list.setCellFactory(lv -> new ListCell<>() {
+                @Override
+                protected void updateItem(LogEntry entry, boolean empty) {
+                    super.updateItem(entry, empty);
+                    setText(empty || entry == null ? null : entry.toString());
+                }
+            });
+            return list;
+        });
+        VBox.setVgrow(pagination, Priority.ALWAYS);
+        return pagination;
+    }
 
-        // Título (Nombre y Estado)
-        String typeIcon = component instanceof Defense ? "🛡️" : "🧟";
-        Label nameLabel = new Label(typeIcon + " " + component.getName() +
-                (component.isDestroyed() ? " [DESTRUIDO]" : " [SOBREVIVIÓ]"));
-        nameLabel.setStyle("-fx-text-fill: white; -fx-font-weight: bold; -fx-font-size: 14px;");
-
-        // Stats (Tipo, Posición)
-        Label statsLabel = new Label(String.format(
-                "Tipo: %s | Posición: %s | Nivel: %d",
-                component.getType().getDisplayName(),
-                component.getPosition(),
-                component.getLevel()
-        ));
-        statsLabel.setStyle("-fx-text-fill: #cccccc; -fx-font-size: 11px;");
-
-        // Stats (Vida, Daño)
-        Label lifeLabel = new Label(String.format(
-                "Vida: %d/%d (%.1f%%) | Daño: %d | Golpes/seg: %.1f",
-                component.getCurrentLife(),
-                component.getMaxLife(),
-                component.getLifePercentage() * 100,
-                component.getDamagePerHit(),
-                component.getHitsPerSecond()
-        ));
-        lifeLabel.setStyle("-fx-text-fill: #aaaaaa; -fx-font-size: 11px;");
-
-        // Registro de combate (Logs)
-        List<LogEntry> logs = component.getInteractionsLog();
-        if (!logs.isEmpty()) {
-            Label logTitle = new Label("Registro de Combate (" + logs.size() + " interacciones):");
-            logTitle.setStyle("-fx-text-fill: #ffaa00; -fx-font-size: 11px; -fx-font-weight: bold;");
-
-            TextArea logArea = new TextArea();
-            logArea.setEditable(false);
-            logArea.setPrefRowCount(5);
-            logArea.setStyle(
-                    "-fx-control-inner-background: #1a1a1a; " +
-                            "-fx-text-fill: #aaaaaa; " +
-                            "-fx-font-family: 'Courier New'; " +
-                            "-fx-font-size: 9px;"
-            );
-
-            StringBuilder logText = new StringBuilder();
-            // Muestra solo las últimas 20 entradas para no saturar
-            int start = Math.max(0, logs.size() - 20);
-            for (int i = start; i < logs.size(); i++) {
-                logText.append(logs.get(i).toString()).append("\n");
-            }
-            logArea.setText(logText.toString());
+    private static Label styledLabel(String text) {
+        Label label = new Label(text);
+        label.setStyle("-fx-text-fill: #888888; -fx-font-size: 14px;");
+        return label;
+    }
 
-            card.getChildren().addAll(nameLabel, statsLabel, lifeLabel, new Separator(), logTitle, logArea);
-        } else {
-            // Si no tiene logs
-            Label noLogLabel = new Label("Sin interacciones de combate");
-            noLogLabel.setStyle("-fx-text-fill: #666666; -fx-font-size: 10px; -fx-font-style: italic;");
-            card.getChildren().addAll(nameLabel, statsLabel, lifeLabel, noLogLabel);
-        }
+    /**
+     * Crea la pestaña "Estadísticas": una fila por tipo de componente con sus contadores del nivel.
+     */
+    private static Node createStatsPanel(CombatStats.Snapshot stats) {
+        TableView<CombatStats.TypeStats> table = new TableView<>(FXCollections.observableArrayList(stats.types()));
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        table.getColumns().add(statsColumn("Tipo", CombatStats.TypeStats::id));
+        table.getColumns().add(statsColumn("Clase", t -> t.kind().getDisplayName()));
+        table.getColumns().add(statsColumn("Daño hecho", CombatStats.TypeStats::damageDealt));
+        table.getColumns().add(statsColumn("Daño recibido", CombatStats.TypeStats::damageTaken));
+        table.getColumns().add(statsColumn("Golpes", CombatStats.TypeStats::hits));
+        table.getColumns().add(statsColumn("Bajas", CombatStats.TypeStats::kills));
+        table.getColumns().add(statsColumn("Destruidos", CombatStats.TypeStats::deaths));
+        table.getColumns().add(statsColumn("A la reliquia", CombatStats.TypeStats::relicDamage));
+
+        Label dpsLabel = new Label(String.format("DPS (últimos %d s): Defensas %.1f | Enemigos %.1f",
+                CombatStats.DPS_WINDOW_TICKS / 10, stats.defenseDps(), stats.enemyDps()));
+        dpsLabel.setStyle("-fx-text-fill: #ffaa00; -fx-font-size: 12px;");
+
+        VBox container = new VBox(8, dpsLabel, table);
+        container.setPadding(new Insets(15));
+        container.setStyle("-fx-background-color: #333333;");
+        VBox.setVgrow(table, Priority.ALWAYS);
+        return container;
+    }
 
-        return card;
+    private static <T> TableColumn<CombatStats.TypeStats, T> statsColumn(String title,
+                                                                        Function<CombatStats.TypeStats, T> value) {
+        TableColumn<CombatStats.TypeStats, T> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(value.apply(cell.getValue())));
+        return column;
     }
-}
\ No newline at end of file
+}
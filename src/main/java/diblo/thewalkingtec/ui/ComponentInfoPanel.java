@@ -3,30 +3,64 @@ package diblo.thewalkingtec.ui;
 import diblo.thewalkingtec.model.Component;
 import diblo.thewalkingtec.model.Defense;
 import diblo.thewalkingtec.model.LogEntry;
+import diblo.thewalkingtec.model.Position;
 import diblo.thewalkingtec.model.Zombie;
 import diblo.thewalkingtec.service.Game; // Importa Game
+import diblo.thewalkingtec.service.RelicHitLog;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.control.Label;
-import javafx.scene.control.ScrollPane;
-import javafx.scene.control.TextArea;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 
 import java.util.ArrayList; // Importa ArrayList
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Panel de la UI (en la parte inferior) que muestra información detallada
  * de un componente seleccionado (Zombie o Defensa) o de la Reliquia.
  * Cumple con el requisito del PDF de mostrar información del componente al hacer clic.
+ *
+ * La información es en vivo: el panel se suscribe al componente seleccionado
+ * (Component.setChangeWatcher) y se refresca cuando este cambia de vida, de posición, recibe
+ * una entrada de log o es destruido. Los avisos llegan desde los hilos del juego y se agrupan
+ * en un solo Platform.runLater pendiente. La Reliquia no es un componente, así que para ella
+ * un Timeline refresca cada REFRESH_INTERVAL. En cada refresco solo se agregan las entradas
+ * nuevas del log (se guarda un cursor con lo ya mostrado) a una lista virtualizada de
+ * MAX_LOG_ROWS filas, y las estadísticas solo se reescriben si cambiaron.
  */
 public class ComponentInfoPanel {
+    private static final int MAX_LOG_ROWS = 100; // Filas visibles del log (las más viejas se descartan)
+    private static final Duration REFRESH_INTERVAL = Duration.millis(250);
+
     private VBox panel;
     private Label titleLabel;
     private Label statsLabel;
-    private TextArea logArea; // Para mostrar el log de combate
+    private ListView<LogEntry> logList; // Log de combate (solo crea celdas para las filas visibles)
+    private final ObservableList<LogEntry> logRows = FXCollections.observableArrayList();
     private Component currentComponent;
+    private boolean showingRelic;
     private Game game;
 
+    // --- Estado del refresco en vivo ---
+    private Timeline refreshTimeline; // Solo para la Reliquia
+    private final AtomicBoolean refreshPending = new AtomicBoolean(); // Hay un refresco encolado en el hilo de FX
+    private final Runnable componentWatcher = this::requestRefresh;
+    private final List<LogEntry> pendingRows = new ArrayList<>(); // Buffer reutilizado entre refrescos
+    private int logCursor; // Entradas del log del componente ya mostradas
+    private long relicCursor; // Secuencia del próximo golpe a la reliquia por mostrar
+    private int shownLife = -1; // Vida mostrada en statsLabel (-1 = nada mostrado)
+    private Position shownPosition;
+    private boolean shownDestroyed;
+
     /**
      * Constructor del panel.
      * @param game La instancia del juego principal (necesaria para info de la Reliquia).
@@ -37,7 +71,7 @@ public class ComponentInfoPanel {
     }
 
     /**
-     * Construye los elementos visuales del panel (Labels, TextArea).
+     * Construye los elementos visuales del panel (Labels, lista del log) y el Timeline de refresco.
      */
     private void createPanel() {
         panel = new VBox(10);
@@ -52,43 +86,199 @@ public class ComponentInfoPanel {
         statsLabel.setStyle("-fx-text-fill: #cccccc; -fx-font-size: 12px;");
         statsLabel.setWrapText(true);
 
-        logArea = new TextArea();
-        logArea.setEditable(false);
-        logArea.setPrefHeight(120);
-        logArea.setStyle( // Estilo de terminal oscura
+        logList = new ListView<>(logRows);
+        logList.setPrefHeight(120);
+        logList.setFixedCellSize(16);
+        logList.setPlaceholder(new Label("Sin interacciones registradas"));
+        logList.setStyle( // Estilo de terminal oscura
                 "-fx-control-inner-background: #2b2b2b; " +
-                        "-fx-text-fill: #aaaaaa; " +
                         "-fx-font-family: 'Courier New'; " +
                         "-fx-font-size: 10px;"
         );
+        // El texto de cada entrada se formatea solo cuando su fila se vuelve visible
+        logList.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(LogEntry entry, boolean empty) {
+                super.updateItem(entry, empty);
+                setText(empty || entry == null ? null : entry.toString());
+                setStyle("-fx-text-fill: #aaaaaa;");
+            }
+        });
 
-        // Envuelve el logArea en un ScrollPane
-        ScrollPane logScroll = new ScrollPane(logArea);
-        logScroll.setFitToWidth(true);
+        refreshTimeline = new Timeline(new KeyFrame(REFRESH_INTERVAL, e -> refresh()));
+        refreshTimeline.setCycleCount(Animation.INDEFINITE);
 
-        panel.getChildren().addAll(titleLabel, statsLabel, logScroll);
+        panel.getChildren().addAll(titleLabel, statsLabel, logList);
     }
 
     /**
-     * Rellena el panel con la información de un componente específico.
+     * Rellena el panel con la información de un componente específico
+     * y lo sigue actualizando mientras siga seleccionado.
      * @param component El Zombie o Defensa seleccionado.
      */
     public void showComponentInfo(Component component) {
+        unwatchCurrent();
+        refreshTimeline.stop();
         this.currentComponent = component;
+        this.showingRelic = false;
 
         String componentType = component instanceof Defense ? "DEFENSA" : "ZOMBIE";
         titleLabel.setText(componentType + ": " + component.getName());
 
+        // Log desde cero: el primer refresco trae las últimas MAX_LOG_ROWS entradas
+        logRows.clear();
+        logCursor = 0;
+        shownLife = -1;
+        shownPosition = null;
+        component.setChangeWatcher(componentWatcher);
+        refresh();
+    }
+
+    /**
+     * Muestra la información específica de la Reliquia (cuando se hace clic en ella).
+     * Igual que con un componente, el log y las estadísticas se siguen actualizando.
+     */
+    public void showRelicInfo() {
+        unwatchCurrent();
+        this.currentComponent = null; // La Reliquia no es un 'Component'
+        this.showingRelic = true;
+
+        titleLabel.setText("OBJETIVO: Reliquia");
+
+        // Los golpes salen del RelicHitLog del nivel (incluye zombies ya limpiados del tablero)
+        logRows.clear();
+        relicCursor = 0;
+        shownLife = -1;
+        shownPosition = null;
+        refresh();
+        refreshTimeline.play();
+    }
+
+    /**
+     * Limpia el panel (cuando se hace clic en una celda vacía) y detiene el refresco.
+     */
+    public void clear() {
+        refreshTimeline.stop();
+        unwatchCurrent();
+        currentComponent = null;
+        showingRelic = false;
+        titleLabel.setText("Selecciona un componente para ver su información");
+        statsLabel.setText("");
+        logRows.clear();
+        logCursor = 0;
+        relicCursor = 0;
+    }
+
+    /**
+     * Detiene el refresco en vivo (al cerrar la ventana del juego).
+     */
+    public void dispose() {
+        clear();
+    }
+
+    private void unwatchCurrent() {
+        if (currentComponent != null) {
+            currentComponent.setChangeWatcher(null);
+        }
+    }
+
+    /**
+     * Aviso del componente seguido (desde cualquier hilo): encola un refresco en el hilo de FX,
+     * salvo que ya haya uno pendiente.
+     */
+    private void requestRefresh() {
+        if (refreshPending.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                refreshPending.set(false);
+                refresh();
+            });
+        }
+    }
+
+    /**
+     * Trae lo nuevo del elemento seleccionado (aviso del componente o ciclo del Timeline).
+     */
+    private void refresh() {
+        if (currentComponent != null) {
+            refreshComponentStats(currentComponent);
+            appendNewLogEntries(currentComponent);
+        } else if (showingRelic) {
+            refreshRelicStats();
+            appendNewRelicHits();
+        }
+    }
+
+    /**
+     * Agrega al final solo las entradas posteriores al cursor y descarta las más viejas
+     * si la lista pasa de MAX_LOG_ROWS.
+     */
+    private void appendNewLogEntries(Component component) {
+        if (component.getInteractionsLogSize() == logCursor) return; // Nada nuevo
+
+        pendingRows.clear();
+        logCursor = component.copyInteractionsSince(logCursor, MAX_LOG_ROWS, pendingRows);
+        logRows.addAll(pendingRows);
+        pendingRows.clear();
+        trimAndScroll();
+    }
+
+    /**
+     * Como appendNewLogEntries, pero con el cursor del RelicHitLog.
+     */
+    private void appendNewRelicHits() {
+        RelicHitLog relicHits = game.getRelicHitLog();
+        long totalHits = relicHits.getTotalHits();
+        if (totalHits == relicCursor) return;
+        if (totalHits < relicCursor) { // Empezó otro nivel: el registro se vació
+            logRows.clear();
+            relicCursor = 0;
+        }
+
+        pendingRows.clear();
+        relicCursor = relicHits.copySince(relicCursor, MAX_LOG_ROWS, pendingRows);
+        logRows.addAll(pendingRows);
+        pendingRows.clear();
+        trimAndScroll();
+    }
+
+    private void trimAndScroll() {
+        int overflow = logRows.size() - MAX_LOG_ROWS;
+        if (overflow > 0) {
+            logRows.remove(0, overflow);
+        }
+        scrollToLast();
+    }
+
+    private void scrollToLast() {
+        if (!logRows.isEmpty()) {
+            logList.scrollTo(logRows.size() - 1); // Auto-scroll al final
+        }
+    }
+
+    /**
+     * Reescribe las estadísticas del componente solo si cambió su vida, su posición o si fue
+     * destruido (un CRASH se destruye sin cambiar de vida; lo demás no cambia en el tablero).
+     */
+    private void refreshComponentStats(Component component) {
+        int life = component.getCurrentLife();
+        Position position = component.getPosition();
+        boolean destroyed = component.isDestroyed();
+        if (life == shownLife && position.equals(shownPosition) && destroyed == shownDestroyed) return;
+        shownLife = life;
+        shownPosition = position;
+        shownDestroyed = destroyed;
+
         // Construye el string de estadísticas básicas
         StringBuilder stats = new StringBuilder();
-        stats.append(String.format("Vida: %d/%d (%.0f%%)\n",
-                component.getCurrentLife(), component.getMaxLife(),
-                component.getLifePercentage() * 100));
+        stats.append(String.format("Vida: %d/%d (%.0f%%)%s\n",
+                life, component.getMaxLife(),
+                component.getLifePercentage() * 100,
+                destroyed ? " - DESTRUIDO" : ""));
         stats.append(String.format("Daño: %d | Golpes/seg: %.1f\n",
                 component.getDamagePerHit(), component.getHitsPerSecond()));
         stats.append(String.format("Nivel: %d | Espacios: %d\n",
                 component.getLevel(), component.getFields()));
-        stats.append(String.format("Posición: %s\n", component.getPosition()));
+        stats.append(String.format("Posición: %s\n", position));
 
         // Añade stats específicas de Defensa o Zombie
         if (component instanceof Defense) {
@@ -102,86 +292,31 @@ public class ComponentInfoPanel {
         }
 
         statsLabel.setText(stats.toString());
-
-        // Rellena el log de combate del componente
-        List<LogEntry> logs = component.getInteractionsLog();
-        StringBuilder logText = new StringBuilder();
-        logText.append("=== REGISTRO DE COMBATE ===\n");
-
-        if (logs.isEmpty()) {
-            logText.append("Sin interacciones registradas\n");
-        } else {
-            // Muestra solo las últimas 20 entradas para evitar sobrecargar
-            int start = Math.max(0, logs.size() - 20);
-            for (int i = start; i < logs.size(); i++) {
-                logText.append(logs.get(i).toString()).append("\n");
-            }
-        }
-
-        logArea.setText(logText.toString());
-        logArea.setScrollTop(Double.MAX_VALUE); // Auto-scroll al final
     }
 
     /**
-     * Muestra la información específica de la Reliquia (cuando se hace clic en ella).
+     * Estadísticas de la Reliquia (obtenidas del objeto Game), reescritas solo si cambió su vida.
      */
-    public void showRelicInfo() {
-        this.currentComponent = null; // La Reliquia no es un 'Component'
-
-        titleLabel.setText("OBJETIVO: Reliquia");
+    private void refreshRelicStats() {
+        int life = game.getRelicLife();
+        if (life == shownLife) return;
+        shownLife = life;
 
-        // Mostrar stats de la reliquia (obtenidas del objeto Game)
         StringBuilder stats = new StringBuilder();
         stats.append(String.format("Vida: %d/%d (%.0f%%)\n",
-                game.getRelicLife(), game.getMaxRelicLife(),
-                (double) game.getRelicLife() / game.getMaxRelicLife() * 100));
+                life, game.getMaxRelicLife(),
+                (double) life / game.getMaxRelicLife() * 100));
         stats.append("Posición: " + game.getRelicPosition().toString() + "\n");
+        stats.append(String.format("Daño recibido en el nivel: %d\n", game.getCombatStats().getTotalRelicDamage()));
         stats.append("Si la vida llega a 0, pierdes la batalla.");
         statsLabel.setText(stats.toString());
-
-        // Recolectar logs de todos los zombies que atacaron la reliquia
-        List<LogEntry> relicLogs = new ArrayList<>();
-        // Itera sobre todos los zombies (vivos y muertos)
-        for (Zombie zombie : game.getBoard().getActiveZombies()) {
-            for (LogEntry log : zombie.getInteractionsLog()) {
-                // 'null' ID de defensor significa que atacó a la Reliquia
-                if (log.getDefenderId() == null) {
-                    relicLogs.add(log);
-                }
-            }
-        }
-
-        // Mostrar logs de la reliquia
-        StringBuilder logText = new StringBuilder();
-        logText.append("=== REGISTRO DE DAÑO RECIBIDO ===\n");
-
-        if (relicLogs.isEmpty()) {
-            logText.append("Sin daño registrado\n");
-        } else {
-            int start = Math.max(0, relicLogs.size() - 20); // Últimos 20
-            for (int i = start; i < relicLogs.size(); i++) {
-                logText.append(relicLogs.get(i).toString()).append("\n");
-            }
-        }
-        logArea.setText(logText.toString());
-        logArea.setScrollTop(Double.MAX_VALUE);
-    }
-
-    /**
-     * Limpia el panel (cuando se hace clic en una celda vacía).
-     */
-    public void clear() {
-        currentComponent = null;
-        titleLabel.setText("Selecciona un componente para ver su información");
-        statsLabel.setText("");
-        logArea.setText("");
     }
 
     /**
-     * Comprueba si el componente mostrado actualmente es el 'component' dado.
+     * Comprueba si el componente mostrado actualmente es el 'component' dado (la misma instancia).
      */
     public boolean isShowingComponent(Component component) {
-        return currentComponent != null && currentComponent.getId().equals(component.getId());
+        return currentComponent != null && currentComponent == component;
     }
 
     /**
@@ -190,4 +325,4 @@ public class ComponentInfoPanel {
     public VBox getPanel() {
         return panel;
     }
-}
\ No newline at end of file
+}
@@ -5,7 +5,6 @@ import diblo.thewalkingtec.model.config.DefenseConfig;
 import diblo.thewalkingtec.model.config.LevelConfig;
 import diblo.thewalkingtec.service.Board;
 import diblo.thewalkingtec.service.Game;
-import diblo.thewalkingtec.service.SaveManager;
 import diblo.thewalkingtec.util.Logger;
 import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
@@ -19,12 +18,12 @@ import javafx.scene.image.Image;
 import javafx.scene.input.MouseButton;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
-import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
@@ -287,7 +286,7 @@ public class GameRenderer {
         canvas.setOnMouseClicked(event -> {
             int cellX = (int) (event.getX() / CELL_SIZE);
             int cellY = (int) (event.getY() / CELL_SIZE);
-            Position clickedPos = new Position(cellX, cellY);
+            Position clickedPos = Position.of(cellX, cellY);
 
             if (event.getButton() == MouseButton.PRIMARY) {
                 handleLeftClick(clickedPos); // Clic izquierdo
@@ -300,7 +299,7 @@ public class GameRenderer {
             // Actualiza la celda sobre la que está el mouse (para la vista previa)
             int cellX = (int) (event.getX() / CELL_SIZE);
             int cellY = (int) (event.getY() / CELL_SIZE);
-            hoveredCell = new Position(cellX, cellY);
+            hoveredCell = Position.of(cellX, cellY);
         });
     }
 
@@ -456,7 +455,7 @@ public class GameRenderer {
 
         alert.showAndWait().ifPresent(response -> {
             if (response == retryBtn) {
-                game.startLevel(game.getCurrentLevelIndex()); // Reinicia el nivel actual
+                game.restartLevel(); // Reinicia el nivel actual (queda en el diario)
             } else {
                 returnToMenu();
             }
@@ -663,28 +662,47 @@ public class GameRenderer {
     }
 
     /**
-     * Muestra el diálogo para guardar la partida.
+     * Muestra el diálogo para guardar la partida en el catálogo de guardados.
      */
     private void saveGame() {
         game.pause(); // Pausa el juego antes de abrir el diálogo
-        FileChooser fileChooser = new FileChooser();
-        fileChooser.setTitle("Guardar Partida");
-        fileChooser.setInitialFileName("partida.json");
-        fileChooser.getExtensionFilters().add(
-                new FileChooser.ExtensionFilter("JSON Files", "*.json")
-        );
-
-        File file = fileChooser.showSaveDialog(stage);
-        if (file != null) {
-            if (SaveManager.saveGame(game, file.getAbsolutePath())) {
-                showAlert(Alert.AlertType.INFORMATION, "Éxito", "Partida guardada correctamente");
-            } else {
-                showAlert(Alert.AlertType.ERROR, "Error", "No se pudo guardar la partida");
-            }
-        }
+        TextInputDialog dialog = new TextInputDialog(
+                game.getPlayer().getName() + "_nivel" + (game.getCurrentLevelIndex() + 1));
+        dialog.setTitle("Guardar Partida");
+        dialog.setHeaderText(null);
+        dialog.setContentText("Nombre del guardado:");
+        dialog.initOwner(stage);
+
+        dialog.showAndWait()
+                .map(String::trim)
+                .filter(slot -> !slot.isEmpty())
+                .filter(this::confirmOverwrite) // No pisa otro guardado sin preguntar
+                .ifPresent(slot -> {
+                    try {
+                        gameUI.getSaveCatalog().save(game, slot);
+                        showAlert(Alert.AlertType.INFORMATION, "Éxito", "Partida guardada correctamente");
+                    } catch (IOException e) {
+                        Logger.error("No se pudo guardar la partida", e);
+                        showAlert(Alert.AlertType.ERROR, "Error", "No se pudo guardar la partida");
+                    }
+                });
         game.resume(); // Reanuda el juego después de cerrar el diálogo
     }
 
+    /**
+     * Si el guardado ya existe, pide confirmación antes de reemplazarlo.
+     * @return true si se puede guardar con ese nombre.
+     */
+    private boolean confirmOverwrite(String slot) {
+        if (!gameUI.getSaveCatalog().exists(slot)) return true;
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
+        confirm.setTitle("Confirmar");
+        confirm.setHeaderText("¿Reemplazar el guardado \"" + slot + "\"?");
+        confirm.setContentText("Ya existe una partida guardada con ese nombre.");
+        confirm.initOwner(stage);
+        return confirm.showAndWait().filter(response -> response == ButtonType.OK).isPresent();
+    }
+
     public Button getPauseResumeBtn() {
         return pauseResumeBtn;
     }
@@ -705,6 +723,9 @@ public class GameRenderer {
             gameLoop.stop();
             gameLoop = null;
         }
+        if (infoPanel != null) {
+            infoPanel.dispose(); // Detiene el refresco en vivo del panel
+        }
         if (game != null && game.isRunning()) {
             game.stop();
         }
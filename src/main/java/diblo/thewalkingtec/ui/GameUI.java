@@ -1,7 +1,13 @@
 package diblo.thewalkingtec.ui;
 
+import diblo.thewalkingtec.service.CommandJournal;
+import diblo.thewalkingtec.service.ConfigWatcher;
+import diblo.thewalkingtec.service.ConfigurationManager;
 import diblo.thewalkingtec.service.Game;
+import diblo.thewalkingtec.service.SaveCatalog;
+import diblo.thewalkingtec.service.SaveCatalog.SaveInfo;
 import diblo.thewalkingtec.service.SaveManager;
+import diblo.thewalkingtec.service.StateJournal;
 import diblo.thewalkingtec.util.Logger;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
@@ -13,6 +19,12 @@ import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 /**
  * Interfaz de usuario consolidada.
@@ -20,9 +32,17 @@ import java.io.File;
  * y lanzando el GameRenderer cuando se inicia o carga una partida.
  */
 public class GameUI {
+    private static final String REPLAYS_DIR = "replays";
+    private static final int JOURNAL_CHECKPOINT_INTERVAL = 100; // Un checkpoint cada 10 s de juego
+    private static final int MAX_REPLAYS = 20; // Diarios que se conservan en replays/ (se borran los más viejos)
+    private static final Path AUTOSAVE_BASE = Path.of("autosave", "partida"); // Diario de estado de la partida en curso
+    private static final Path SAVES_DIR = Path.of("saves");
+
     private Stage primaryStage;
     private Game currentGame; // Instancia del juego actual
     private GameRenderer currentRenderer; // Instancia del renderizador actual
+    private ConfigWatcher configWatcher; // Recarga config.json en la partida actual
+    private final SaveCatalog saveCatalog = new SaveCatalog(SAVES_DIR); // Guardados del juego (ver GameRenderer.saveGame)
 
     /**
      * Inicia la aplicación de UI, mostrando el menú principal.
@@ -68,7 +88,11 @@ public class GameUI {
 
         VBox buttonBox = new VBox(15);
         buttonBox.setAlignment(Pos.CENTER);
-        buttonBox.getChildren().addAll(newGameBtn, loadGameBtn, instructionsBtn, exitBtn);
+        buttonBox.getChildren().add(newGameBtn);
+        if (StateJournal.exists(AUTOSAVE_BASE)) { // Quedó un diario (cierre normal o abrupto)
+            buttonBox.getChildren().add(createMenuButton("Recuperar Última Partida", this::recoverGame));
+        }
+        buttonBox.getChildren().addAll(loadGameBtn, instructionsBtn, exitBtn);
 
         root.getChildren().addAll(titleLabel, subtitleLabel, buttonBox);
         return root;
@@ -125,6 +149,9 @@ public class GameUI {
         cleanup(); // Limpia cualquier juego anterior
 
         currentGame = new Game(playerName); // Crea la instancia del motor
+        recordCommands(currentGame, playerName); // Graba las entradas para poder reproducir la partida
+        journalState(currentGame);
+        watchConfig(currentGame);
         currentRenderer = new GameRenderer(currentGame, this); // Crea el renderizador
         currentRenderer.start(primaryStage); // Muestra la escena del juego
         currentGame.start(true); // Inicia el bucle de juego
@@ -132,9 +159,117 @@ public class GameUI {
     }
 
     /**
-     * Muestra un FileChooser para cargar una partida guardada.
+     * Abre un diario de comandos en la carpeta replays/ para la partida nueva, dejando
+     * lugar para él entre los últimos MAX_REPLAYS. Si no se puede crear, la partida
+     * sigue sin grabarse.
+     */
+    private void recordCommands(Game game, String playerName) {
+        String safeName = playerName.replaceAll("[^A-Za-z0-9_-]", "_");
+        Path path = Path.of(REPLAYS_DIR, safeName + "_" + System.currentTimeMillis() + CommandJournal.EXTENSION);
+        try {
+            CommandJournal.prune(Path.of(REPLAYS_DIR), MAX_REPLAYS - 1);
+            CommandJournal.Header header = new CommandJournal.Header(game.getSeed(),
+                    ConfigurationManager.fingerprint(game.getGameConfig()), JOURNAL_CHECKPOINT_INTERVAL, playerName);
+            game.setCommandJournal(CommandJournal.create(path, header));
+            Logger.info("Grabando partida en: " + path);
+        } catch (IOException e) {
+            Logger.error("No se pudo crear el diario de comandos", e);
+        }
+    }
+
+    /**
+     * Abre el diario de estado de la partida (foto + cambios por tick) en AUTOSAVE_BASE,
+     * para poder recuperarla tras un cierre abrupto. Si no se puede, la partida sigue sin él.
+     */
+    private void journalState(Game game) {
+        try {
+            game.setStateJournal(StateJournal.open(AUTOSAVE_BASE, game));
+        } catch (IOException e) {
+            Logger.error("No se pudo abrir el diario de estado", e);
+        }
+    }
+
+    /**
+     * Vigila el config.json en uso: cada cambio válido se aplica a la partida sin reiniciarla.
+     */
+    private void watchConfig(Game game) {
+        String configPath = ConfigurationManager.getConfigPath();
+        if (configPath == null) return;
+        try {
+            configWatcher = new ConfigWatcher(Path.of(configPath), game::applyConfig);
+        } catch (IOException e) {
+            Logger.error("No se pudo vigilar el archivo de configuración", e);
+        }
+    }
+
+    public SaveCatalog getSaveCatalog() {
+        return saveCatalog;
+    }
+
+    /**
+     * Muestra los guardados del catálogo (solo sus encabezados) para elegir cuál cargar.
+     * "Desde archivo..." mantiene la carga de guardados .json sueltos.
      */
     private void loadGame() {
+        List<SaveInfo> saves;
+        try {
+            saves = saveCatalog.list();
+        } catch (IOException e) {
+            Logger.error("No se pudo leer el catálogo de guardados", e);
+            saves = List.of();
+        }
+
+        DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm").withZone(ZoneId.systemDefault());
+        ListView<SaveInfo> saveList = new ListView<>();
+        saveList.getItems().setAll(saves);
+        saveList.setPrefSize(420, 300);
+        saveList.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(SaveInfo info, boolean empty) {
+                super.updateItem(info, empty);
+                setText(empty || info == null ? null : info.playerName() + " — Nivel " + info.level()
+                        + " — " + dateFormat.format(Instant.ofEpochMilli(info.timestamp())));
+            }
+        });
+
+        Label preview = new Label(saves.isEmpty() ? "No hay partidas guardadas." : "Seleccione una partida.");
+        saveList.getSelectionModel().selectedItemProperty().addListener((obs, old, info) -> {
+            if (info != null) {
+                preview.setText(String.format("Guardado: %s%nPuntos: %d | Reliquia: %d | Componentes: %d | %.1f KB",
+                        info.slot(), info.score(), info.relicLife(), info.componentCount(), info.fileSize() / 1024.0));
+            }
+        });
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Cargar Partida");
+        dialog.initOwner(primaryStage);
+        ButtonType loadType = new ButtonType("Cargar", ButtonBar.ButtonData.OK_DONE);
+        ButtonType fileType = new ButtonType("Desde archivo...", ButtonBar.ButtonData.OTHER);
+        dialog.getDialogPane().getButtonTypes().addAll(loadType, fileType, ButtonType.CANCEL);
+        dialog.getDialogPane().lookupButton(loadType).disableProperty()
+                .bind(saveList.getSelectionModel().selectedItemProperty().isNull());
+        VBox content = new VBox(10, saveList, preview);
+        content.setPadding(new Insets(10));
+        dialog.getDialogPane().setContent(content);
+
+        ButtonType choice = dialog.showAndWait().orElse(ButtonType.CANCEL);
+        if (choice == loadType) {
+            SaveInfo info = saveList.getSelectionModel().getSelectedItem();
+            try {
+                startLoadedGame(saveCatalog.load(info.slot()));
+            } catch (IOException e) {
+                Logger.error("No se pudo cargar el guardado " + info.slot(), e);
+                showAlert(Alert.AlertType.ERROR, "Error", "No se pudo cargar la partida: " + e.getMessage());
+            }
+        } else if (choice == fileType) {
+            loadGameFromFile();
+        }
+    }
+
+    /**
+     * Muestra un FileChooser para cargar una partida guardada en JSON.
+     */
+    private void loadGameFromFile() {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Cargar Partida");
         fileChooser.getExtensionFilters().add(
@@ -147,19 +282,41 @@ public class GameUI {
             Game game = SaveManager.loadGame(file.getAbsolutePath()); // Intenta cargar
 
             if (game != null) {
-                cleanup(); // Limpia juego anterior
-                currentGame = game; // Asigna el juego cargado
-                currentRenderer = new GameRenderer(currentGame, this);
-                currentRenderer.start(primaryStage);
-                currentGame.start(false); // Inicia bucle (false = no es juego nuevo)
-                currentGame.resume(); // Asegura que inicie corriendo
-                currentRenderer.getPauseResumeBtn().setText("Pausar");
+                startLoadedGame(game);
             } else {
                 showAlert(Alert.AlertType.ERROR, "Error", "No se pudo cargar la partida. El archivo puede estar corrupto.");
             }
         }
     }
 
+    /**
+     * Reconstruye la última partida desde su diario de estado (última foto + cambios posteriores).
+     */
+    private void recoverGame() {
+        cleanup(); // Cierra el diario de una partida en curso antes de leerlo
+        try {
+            startLoadedGame(StateJournal.recover(AUTOSAVE_BASE));
+        } catch (IOException e) {
+            Logger.error("No se pudo recuperar la partida", e);
+            showAlert(Alert.AlertType.ERROR, "Error", "No se pudo recuperar la partida: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Muestra y arranca una partida cargada o recuperada.
+     */
+    private void startLoadedGame(Game game) {
+        cleanup(); // Limpia juego anterior
+        currentGame = game; // Asigna el juego cargado
+        journalState(currentGame);
+        watchConfig(currentGame);
+        currentRenderer = new GameRenderer(currentGame, this);
+        currentRenderer.start(primaryStage);
+        currentGame.start(false); // Inicia bucle (false = no es juego nuevo)
+        currentGame.resume(); // Asegura que inicie corriendo
+        currentRenderer.getPauseResumeBtn().setText("Pausar");
+    }
+
     /**
      * Muestra una alerta con las instrucciones del juego.
      */
@@ -195,6 +352,10 @@ public class GameUI {
      * Limpia las instancias de Game y GameRenderer para liberar recursos.
      */
     private void cleanup() {
+        if (configWatcher != null) {
+            configWatcher.close();
+            configWatcher = null;
+        }
         if (currentRenderer != null) {
             currentRenderer.cleanup();
             currentRenderer = null;
@@ -14,6 +14,7 @@ public class Logger {
     private static final String LOG_FILE = "game.log";
     private static PrintWriter logWriter;
     private static boolean enableFileLogging = false;
+    private static volatile Level minimumLevel = Level.DEBUG; // Mensajes por debajo de este nivel se ignoran
 
     public enum Level {
         DEBUG, INFO, WARNING, ERROR
@@ -29,9 +30,12 @@ public class Logger {
     }
 
     /**
-     * Registra un mensaje con nivel específico
+     * Registra un mensaje con nivel específico.
+     * Es synchronized porque SimpleDateFormat no es thread-safe y varias partidas
+     * (ej. simulaciones en paralelo) pueden registrar a la vez.
      */
-    public static void log(Level level, String message) {
+    public static synchronized void log(Level level, String message) {
+        if (level.ordinal() < minimumLevel.ordinal()) return;
         String timestamp = DATE_FORMAT.format(new Date());
         String logMessage = String.format("[%s] [%s] %s", timestamp, level, message);
 
@@ -75,13 +79,24 @@ public class Logger {
     /**
      * Log de excepciones
      */
-    public static void error(String message, Exception e) {
+    public static synchronized void error(String message, Exception e) {
         log(Level.ERROR, message + " - " + e.getMessage());
         if (enableFileLogging && logWriter != null) {
             e.printStackTrace(logWriter);
         }
     }
 
+    /**
+     * Cambia el nivel mínimo registrado (ej. WARNING para simulaciones masivas).
+     */
+    public static void setMinimumLevel(Level level) {
+        minimumLevel = level;
+    }
+
+    public static Level getMinimumLevel() {
+        return minimumLevel;
+    }
+
     /**
      * Cierra el logger
      */
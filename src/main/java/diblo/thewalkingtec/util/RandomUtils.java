@@ -1,33 +1,34 @@
 package diblo.thewalkingtec.util;
 
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * Utilidades para generación de números aleatorios
+ * Utilidades para generación de números aleatorios (no reproducibles).
+ * Usa ThreadLocalRandom, así que no hay un generador compartido entre hilos.
+ * La lógica de la partida NO debe usarla: para eso está el RandomProvider del Game.
  */
 public class RandomUtils {
-    private static final Random RANDOM = new Random();
 
     /**
      * Genera un double aleatorio entre min (inclusivo) y max (exclusivo)
      */
     public static double randomDouble(double min, double max) {
-        return min + (max - min) * RANDOM.nextDouble();
+        return min + (max - min) * ThreadLocalRandom.current().nextDouble();
     }
 
     /**
      * Genera un int aleatorio entre min (inclusivo) y max (exclusivo)
      */
     public static int randomInt(int min, int max) {
-        return RANDOM.nextInt(max - min) + min;
+        return ThreadLocalRandom.current().nextInt(max - min) + min;
     }
 
     /**
      * Retorna true con una probabilidad dada (0.0 a 1.0)
      */
     public static boolean randomChance(double probability) {
-        return RANDOM.nextDouble() < probability;
+        return ThreadLocalRandom.current().nextDouble() < probability;
     }
 
     /**
@@ -37,13 +38,13 @@ public class RandomUtils {
         if (list == null || list.isEmpty()) {
             return null;
         }
-        return list.get(RANDOM.nextInt(list.size()));
+        return list.get(ThreadLocalRandom.current().nextInt(list.size()));
     }
 
     /**
      * Genera un boolean aleatorio
      */
     public static boolean randomBoolean() {
-        return RANDOM.nextBoolean();
+        return ThreadLocalRandom.current().nextBoolean();
     }
 }
\ No newline at end of file